@@ -2,6 +2,7 @@ package com.li.tcc.admin.service.compensate;
 
 import com.li.tcc.common.bean.adapter.CoordinatorRepositoryAdapter;
 import com.li.tcc.common.exception.TccException;
+import com.li.tcc.common.exception.TccRuntimeException;
 import com.li.tcc.common.serializer.ObjectSerializer;
 import com.li.tcc.common.utils.DateUtils;
 import com.li.tcc.common.utils.FileUtils;
@@ -116,7 +117,7 @@ public class FileCompensationServiceImpl implements CompensationService {
 			adapter.setRetriedCount(retry);
 			try {
 				FileUtils.writeFile(fullFileName, objectSerializer.serialize(adapter));
-			} catch (TccException e) {
+			} catch (TccException | TccRuntimeException e) {
 				e.printStackTrace();
 				return false;
 			}
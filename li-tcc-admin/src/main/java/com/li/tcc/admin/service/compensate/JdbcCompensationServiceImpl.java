@@ -32,6 +32,11 @@ public class JdbcCompensationServiceImpl implements CompensationService {
 	@Autowired
 	private JdbcTemplate jdbcTemplate;
 
+	/**
+	 * reads the pages when a replica is configured
+	 */
+	private JdbcTemplate replicaJdbcTemplate;
+
 	private String dbType;
 
 	@Override
@@ -50,12 +55,14 @@ public class JdbcCompensationServiceImpl implements CompensationService {
 			sqlBuilder.append(" and retried_count < ").append(query.getRetry());
 		}
 		final String sql = buildPageSql(sqlBuilder.toString(), pageParameter);
+		final JdbcTemplate readJdbcTemplate = Objects.nonNull(replicaJdbcTemplate) ? replicaJdbcTemplate
+				: jdbcTemplate;
 		CommonPager<TccCompensationVO> pager = new CommonPager<>();
-		final List<Map<String, Object>> mapList = jdbcTemplate.queryForList(sql);
+		final List<Map<String, Object>> mapList = readJdbcTemplate.queryForList(sql);
 		if (CollectionUtils.isNotEmpty(mapList)) {
 			pager.setDataList(mapList.stream().map(this::buildByMap).collect(Collectors.toList()));
 		}
-		final Integer totalCount = jdbcTemplate.queryForObject(String.format("select count(1) from %s", tableName),
+		final Integer totalCount = readJdbcTemplate.queryForObject(String.format("select count(1) from %s", tableName),
 				Integer.class);
 		pager.setPage(PageHelper.buildPage(pageParameter, totalCount));
 		return pager;
@@ -101,6 +108,10 @@ public class JdbcCompensationServiceImpl implements CompensationService {
 		this.dbType = DbTypeUtils.buildByDriverClassName(dbType);
 	}
 
+	public void setReplicaJdbcTemplate(final JdbcTemplate replicaJdbcTemplate) {
+		this.replicaJdbcTemplate = replicaJdbcTemplate;
+	}
+
 	private String buildPageSql(final String sql, final PageParameter pageParameter) {
 		switch (dbType) {
 		case CommonConstant.DB_MYSQL:
@@ -1,6 +1,6 @@
 package com.li.tcc.admin.service.compensate;
 
-import com.google.common.collect.Sets;
+import com.google.common.collect.Lists;
 import com.li.tcc.admin.helper.ConvertHelper;
 import com.li.tcc.admin.helper.PageHelper;
 import com.li.tcc.admin.page.CommonPager;
@@ -9,27 +9,39 @@ import com.li.tcc.admin.service.CompensationService;
 import com.li.tcc.admin.vo.TccCompensationVO;
 
 import com.li.tcc.common.bean.adapter.CoordinatorRepositoryAdapter;
-import com.li.tcc.common.exception.TccException;
 import com.li.tcc.common.jedis.JedisClient;
 import com.li.tcc.common.serializer.ObjectSerializer;
 import com.li.tcc.common.utils.DateUtils;
+import com.li.tcc.common.utils.RepositoryConvertUtils;
 import com.li.tcc.common.utils.RepositoryPathUtils;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
- * redis impl
+ * redis impl, the keys of a redisstream application are spread over the
+ * partitions written to tcc:partitions:applicationName, they are read here
+ * under the plain application name.
  * 
  * @author yuan.li
  */
 public class RedisCompensationServiceImpl implements CompensationService {
 
+	/**
+	 * keys read at a time
+	 */
+	private static final int BATCH_SIZE = 1000;
+
 	private final JedisClient jedisClient;
 
 	private final ObjectSerializer objectSerializer;
@@ -42,37 +54,39 @@ public class RedisCompensationServiceImpl implements CompensationService {
 	@Override
 	public CommonPager<TccCompensationVO> listByPage(final CompensationQuery query) {
 		CommonPager<TccCompensationVO> commonPager = new CommonPager<>();
-		final String redisKeyPrefix = RepositoryPathUtils.buildRedisKeyPrefix(query.getApplicationName());
+		final String applicationName = query.getApplicationName();
+		final int partitions = loadPartitions(applicationName);
 		final int currentPage = query.getPageParameter().getCurrentPage();
 		final int pageSize = query.getPageParameter().getPageSize();
 		int start = (currentPage - 1) * pageSize;
-		Set<byte[]> keys;
+		List<String> keys;
 		List<TccCompensationVO> voList;
 		int totalCount;
 		// 如果只查 重试条件的
 		if (StringUtils.isBlank(query.getTransId()) && Objects.nonNull(query.getRetry())) {
-			keys = jedisClient.keys((redisKeyPrefix + "*").getBytes());
-			final List<TccCompensationVO> all = findAll(keys);
-			final List<TccCompensationVO> collect = all.stream().filter(vo -> vo.getRetriedCount() < query.getRetry())
-					.collect(Collectors.toList());
+			keys = scanKeys(applicationName, partitions);
+			final List<TccCompensationVO> collect = new ArrayList<>();
+			for (List<String> page : Lists.partition(keys, BATCH_SIZE)) {
+				findAll(page).stream().filter(vo -> vo.getRetriedCount() < query.getRetry()).forEach(collect::add);
+			}
 			totalCount = collect.size();
 			voList = collect.stream().skip(start).limit(pageSize).collect(Collectors.toList());
 		} else if (StringUtils.isNoneBlank(query.getTransId()) && Objects.isNull(query.getRetry())) {
-			keys = Sets.newHashSet(String.join(":", redisKeyPrefix, query.getTransId()).getBytes());
+			keys = Collections.singletonList(buildKey(applicationName, partitions, query.getTransId()));
 			totalCount = keys.size();
 			voList = findAll(keys);
 		} else if (StringUtils.isNoneBlank(query.getTransId()) && Objects.nonNull(query.getRetry())) {
-			keys = Sets.newHashSet(String.join(":", redisKeyPrefix, query.getTransId()).getBytes());
+			keys = Collections.singletonList(buildKey(applicationName, partitions, query.getTransId()));
 			totalCount = keys.size();
 			voList = findAll(keys).stream().filter(vo -> vo.getRetriedCount() < query.getRetry())
 					.collect(Collectors.toList());
 		} else {
-			keys = jedisClient.keys((redisKeyPrefix + "*").getBytes());
+			keys = scanKeys(applicationName, partitions);
 			if (keys.size() <= 0 || keys.size() < start) {
 				return commonPager;
 			}
 			totalCount = keys.size();
-			voList = findByPage(keys, start, pageSize);
+			voList = findAll(keys.subList(start, Math.min(start + pageSize, keys.size())));
 		}
 		if (keys.size() <= 0 || keys.size() < start) {
 			return commonPager;
@@ -82,16 +96,51 @@ public class RedisCompensationServiceImpl implements CompensationService {
 		return commonPager;
 	}
 
-	private TccCompensationVO buildVOByKey(final byte[] key) {
-		final byte[] bytes = jedisClient.get(key);
-		try {
-			final CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(bytes,
-					CoordinatorRepositoryAdapter.class);
-			return ConvertHelper.buildVO(adapter);
-		} catch (TccException e) {
-			e.printStackTrace();
-			return null;
+	/**
+	 * the keys of the application in a stable order, SCAN may return a key
+	 * more than once
+	 */
+	private List<String> scanKeys(final String applicationName, final int partitions) {
+		Set<String> keys = new TreeSet<>();
+		for (String name : buildApplicationNames(applicationName, partitions)) {
+			jedisClient.scan(RepositoryPathUtils.buildRedisKeyPrefix(name) + "*", BATCH_SIZE, keys::addAll);
+		}
+		return new ArrayList<>(keys);
+	}
+
+	/**
+	 * @return partitions of a redisstream application, 0 for the redis layout
+	 */
+	private int loadPartitions(final String applicationName) {
+		final String partitions = jedisClient.get(RepositoryPathUtils.buildRedisPartitionsKey(applicationName));
+		return StringUtils.isBlank(partitions) ? 0 : Integer.parseInt(partitions);
+	}
+
+	private List<String> buildApplicationNames(final String applicationName, final int partitions) {
+		if (partitions == 0) {
+			return Collections.singletonList(applicationName);
 		}
+		List<String> names = new ArrayList<>(partitions);
+		for (int i = 0; i < partitions; i++) {
+			names.add(RepositoryPathUtils.buildRedisPartitionTag(applicationName, i));
+		}
+		return names;
+	}
+
+	/**
+	 * the application name the keys of the transaction are built from
+	 */
+	private String buildApplicationName(final String applicationName, final int partitions, final String id) {
+		if (partitions == 0) {
+			return applicationName;
+		}
+		return RepositoryPathUtils.buildRedisPartitionTag(applicationName,
+				RepositoryPathUtils.selectRedisPartition(id, partitions));
+	}
+
+	private String buildKey(final String applicationName, final int partitions, final String id) {
+		return RepositoryPathUtils.buildRedisKey(
+				RepositoryPathUtils.buildRedisKeyPrefix(buildApplicationName(applicationName, partitions, id)), id);
 	}
 
 	@Override
@@ -99,10 +148,15 @@ public class RedisCompensationServiceImpl implements CompensationService {
 		if (CollectionUtils.isEmpty(ids) || StringUtils.isBlank(applicationName)) {
 			return Boolean.FALSE;
 		}
-		String keyPrefix = RepositoryPathUtils.buildRedisKeyPrefix(applicationName);
-		final String[] keys = ids.stream().map(id -> RepositoryPathUtils.buildRedisKey(keyPrefix, id))
-				.toArray(String[]::new);
-		jedisClient.del(keys);
+		final int partitions = loadPartitions(applicationName);
+		// the keys of one delete share the index of their partition
+		ids.stream().collect(Collectors.groupingBy(id -> buildApplicationName(applicationName, partitions, id)))
+				.forEach((name, partitionIds) -> {
+					final String keyPrefix = RepositoryPathUtils.buildRedisKeyPrefix(name);
+					final List<String> keys = partitionIds.stream()
+							.map(id -> RepositoryPathUtils.buildRedisKey(keyPrefix, id)).collect(Collectors.toList());
+					jedisClient.delBatchWithIndex(keys, RepositoryPathUtils.buildRedisIndexKey(name), partitionIds);
+				});
 		return Boolean.TRUE;
 	}
 
@@ -111,15 +165,16 @@ public class RedisCompensationServiceImpl implements CompensationService {
 		if (StringUtils.isBlank(id) || StringUtils.isBlank(appName) || Objects.isNull(retry)) {
 			return Boolean.FALSE;
 		}
-		String keyPrefix = RepositoryPathUtils.buildRedisKeyPrefix(appName);
-		final String key = RepositoryPathUtils.buildRedisKey(keyPrefix, id);
-		final byte[] bytes = jedisClient.get(key.getBytes());
+		final String name = buildApplicationName(appName, loadPartitions(appName), id);
+		final String key = RepositoryPathUtils.buildRedisKey(RepositoryPathUtils.buildRedisKeyPrefix(name), id);
 		try {
-			final CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(bytes,
-					CoordinatorRepositoryAdapter.class);
-			adapter.setRetriedCount(retry);
-			adapter.setLastTime(DateUtils.getDateYYYY());
-			jedisClient.set(key, objectSerializer.serialize(adapter));
+			final long lastTime = DateUtils.getDateYYYY().getTime();
+			Map<String, byte[]> fields = new HashMap<>(4);
+			fields.put(RepositoryConvertUtils.FIELD_RETRIED_COUNT, RepositoryConvertUtils.toBytes(retry));
+			fields.put(RepositoryConvertUtils.FIELD_LAST_TIME, RepositoryConvertUtils.toBytes(lastTime));
+			jedisClient.hmset(key, fields);
+			jedisClient.zadd(RepositoryPathUtils.buildRedisIndexKey(name),
+					Collections.singletonMap(id, (double) lastTime));
 			return Boolean.TRUE;
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -127,13 +182,18 @@ public class RedisCompensationServiceImpl implements CompensationService {
 		}
 	}
 
-	private List<TccCompensationVO> findAll(final Set<byte[]> keys) {
-		return keys.parallelStream().map(this::buildVOByKey).filter(Objects::nonNull).collect(Collectors.toList());
-	}
-
-	private List<TccCompensationVO> findByPage(final Set<byte[]> keys, final int start, final int pageSize) {
-		return keys.parallelStream().skip(start).limit(pageSize).map(this::buildVOByKey).filter(Objects::nonNull)
-				.collect(Collectors.toList());
+	/**
+	 * read the hashes of the keys in one pipeline
+	 */
+	private List<TccCompensationVO> findAll(final List<String> keys) {
+		List<TccCompensationVO> voList = new ArrayList<>(keys.size());
+		for (Map<String, byte[]> hash : jedisClient.hgetAllBatch(keys)) {
+			final CoordinatorRepositoryAdapter adapter = RepositoryConvertUtils.transformAdapter(hash);
+			if (Objects.nonNull(adapter)) {
+				voList.add(ConvertHelper.buildVO(adapter));
+			}
+		}
+		return voList;
 	}
 
 }
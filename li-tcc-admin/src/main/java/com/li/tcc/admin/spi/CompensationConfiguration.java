@@ -24,6 +24,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.mongodb.core.MongoClientFactoryBean;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.JedisCluster;
@@ -80,6 +81,20 @@ public class CompensationConfiguration {
 		public CompensationService jdbcTransactionRecoverService() {
 			JdbcCompensationServiceImpl jdbcTransactionRecoverService = new JdbcCompensationServiceImpl();
 			jdbcTransactionRecoverService.setDbType(env.getProperty("compensation.db.driver"));
+			final String replicaUrl = env.getProperty("compensation.db.replica.url");
+			if (StringUtils.isNotBlank(replicaUrl)) {
+				// 分页查询走只读副本, 删除与修改仍走主库
+				HikariDataSource replicaDataSource = new HikariDataSource();
+				replicaDataSource.setDriverClassName(env.getProperty("compensation.db.driver"));
+				replicaDataSource.setJdbcUrl(replicaUrl);
+				replicaDataSource.setUsername(env.getProperty("compensation.db.replica.username",
+						env.getProperty("compensation.db.username")));
+				replicaDataSource.setPassword(env.getProperty("compensation.db.replica.password",
+						env.getProperty("compensation.db.password")));
+				replicaDataSource.setMinimumIdle(5);
+				replicaDataSource.setMaximumPoolSize(10);
+				jdbcTransactionRecoverService.setReplicaJdbcTemplate(new JdbcTemplate(replicaDataSource));
+			}
 			return jdbcTransactionRecoverService;
 		}
 	}
@@ -0,0 +1,44 @@
+package com.li.tcc.common.annotation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * DurabilityEnum 事务日志持久化级别
+ *
+ * @author yuan.li
+ */
+public enum DurabilityEnum {
+
+	/**
+	 * 使用全局配置 TccConfig durability
+	 */
+	DEFAULT("default"),
+
+	/**
+	 * 异步写入, 不等待事务日志落盘
+	 */
+	ASYNC("async"),
+
+	/**
+	 * 组提交, try/confirm 等待事件所在的批次写入完成
+	 */
+	GROUP_COMMIT("groupCommit");
+
+	private final String value;
+
+	private DurabilityEnum(final String value) {
+		this.value = value;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public static DurabilityEnum getEnum(final String value) {
+		Optional<DurabilityEnum> durabilityEnum = Arrays.stream(DurabilityEnum.values())
+				.filter(v -> Objects.equals(v.getValue(), value)).findFirst();
+		return durabilityEnum.orElse(DurabilityEnum.ASYNC);
+	}
+}
@@ -42,4 +42,11 @@ public @interface Tcc {
 	 */
 	TccPatternEnum pattern() default TccPatternEnum.TCC;
 
+	/**
+	 * 事务日志持久化级别, DEFAULT 使用全局配置
+	 *
+	 * @return DurabilityEnum
+	 */
+	DurabilityEnum durability() default DurabilityEnum.DEFAULT;
+
 }
\ No newline at end of file
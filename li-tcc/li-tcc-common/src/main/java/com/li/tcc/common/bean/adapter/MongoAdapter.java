@@ -3,6 +3,7 @@ package com.li.tcc.common.bean.adapter;
 import org.bson.types.ObjectId;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * MongoAdapter
@@ -15,6 +16,11 @@ public class MongoAdapter extends CoordinatorRepositoryAdapter implements Serial
 
 	private ObjectId id;
 
+	/**
+	 * 追加的参与者, 每个元素为一个序列化后的参与者
+	 */
+	private List<byte[]> appendContents;
+
 	public ObjectId getId() {
 		return id;
 	}
@@ -23,4 +29,12 @@ public class MongoAdapter extends CoordinatorRepositoryAdapter implements Serial
 		this.id = id;
 	}
 
+	public List<byte[]> getAppendContents() {
+		return appendContents;
+	}
+
+	public void setAppendContents(List<byte[]> appendContents) {
+		this.appendContents = appendContents;
+	}
+
 }
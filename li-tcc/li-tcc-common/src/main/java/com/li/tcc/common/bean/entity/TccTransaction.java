@@ -1,6 +1,7 @@
 package com.li.tcc.common.bean.entity;
 
 import com.google.common.collect.Lists;
+import com.li.tcc.common.annotation.DurabilityEnum;
 import com.li.tcc.common.utils.IdWorkerUtils;
 
 import java.io.Serializable;
@@ -71,6 +72,11 @@ public class TccTransaction implements Serializable {
 	 */
 	private List<Participant> participants;
 
+	/**
+	 * 事务日志持久化级别, 只在内存中使用
+	 */
+	private transient DurabilityEnum durability;
+
 	public TccTransaction() {
 		this.transId = IdWorkerUtils.getInstance().createUUID();
 		this.createTime = new Date();
@@ -96,6 +102,29 @@ public class TccTransaction implements Serializable {
 		participants.add(participant);
 	}
 
+	/**
+	 * 浅拷贝, 参与者集合为独立的副本
+	 * 
+	 * @return TccTransaction
+	 */
+	public TccTransaction copy() {
+		TccTransaction tccTransaction = new TccTransaction(transId);
+		tccTransaction.setStatus(status);
+		tccTransaction.setRole(role);
+		tccTransaction.setRetriedCount(retriedCount);
+		tccTransaction.setCreateTime(createTime);
+		tccTransaction.setLastTime(lastTime);
+		tccTransaction.setVersion(version);
+		tccTransaction.setPattern(pattern);
+		tccTransaction.setTargetClass(targetClass);
+		tccTransaction.setTargetMethod(targetMethod);
+		tccTransaction.setDurability(durability);
+		if (participants != null) {
+			tccTransaction.getParticipants().addAll(participants);
+		}
+		return tccTransaction;
+	}
+
 	public String getTransId() {
 		return transId;
 	}
@@ -176,6 +205,14 @@ public class TccTransaction implements Serializable {
 		this.targetMethod = targetMethod;
 	}
 
+	public DurabilityEnum getDurability() {
+		return durability;
+	}
+
+	public void setDurability(DurabilityEnum durability) {
+		this.durability = durability;
+	}
+
 	public List<Participant> getParticipants() {
 		return participants;
 	}
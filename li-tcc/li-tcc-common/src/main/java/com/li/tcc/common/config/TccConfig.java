@@ -1,5 +1,7 @@
 package com.li.tcc.common.config;
 
+import java.util.List;
+
 /**
  * TccConfig tcc配置文件
  * 
@@ -41,6 +43,11 @@ public class TccConfig {
 	 */
 	private int recoverDelayTime = 60;
 
+	/**
+	 * 事务恢复时每页读取的事务数量
+	 */
+	private int recoverPageSize = 500;
+
 	/**
 	 * 补偿存储类型. RepositorySupportEnum
 	 */
@@ -51,11 +58,96 @@ public class TccConfig {
 	 */
 	private int bufferSize = 1024;
 
+	/**
+	 * disruptor 发布方式 PublishModeEnum, executor 线程池异步发布, direct 业务线程直接写入ringBuffer
+	 */
+	private String publishMode = "executor";
+
+	/**
+	 * disruptor 等待策略 WaitStrategyEnum, blocking sleeping yielding busySpin
+	 */
+	private String waitStrategy = "blocking";
+
+	/**
+	 * disruptor 生产者类型 multi single, single 只能在单线程发布时使用
+	 */
+	private String producerType = "multi";
+
+	/**
+	 * disruptor 分片数, 按transId hash分配到不同的handler线程, 同一事务的事件保持有序
+	 */
+	private int disruptorLanes = 1;
+
+	/**
+	 * 事务日志持久化级别 DurabilityEnum, async 异步写入, groupCommit 等待所在批次写入完成, 可被@Tcc覆盖
+	 */
+	private String durability = "async";
+
+	/**
+	 * groupCommit 等待写入的超时时间 单位毫秒
+	 */
+	private long durabilityTimeout = 3000;
+
+	/**
+	 * 是否并行执行各参与者的confirm/cancel
+	 */
+	private boolean parallelPhase = false;
+
+	/**
+	 * 并行执行confirm/cancel的最大线程数
+	 */
+	private int phaseThreadMax = Runtime.getRuntime().availableProcessors() << 1;
+
+	/**
+	 * 并行执行时单个参与者confirm/cancel的超时时间 单位毫秒
+	 */
+	private long participantTimeout = 10000;
+
+	/**
+	 * 发起方try成功且CONFIRMING状态落盘后即返回, confirm在独立线程池中异步执行
+	 */
+	private boolean asyncConfirm = false;
+
+	/**
+	 * 异步confirm的最大线程数
+	 */
+	private int confirmThreadMax = Runtime.getRuntime().availableProcessors() << 1;
+
+	/**
+	 * 参与方事务缓存的最大权重, 每个事务权重为1加上各参与者及其参数个数
+	 */
+	private long cacheMaxWeight = 100000;
+
+	/**
+	 * 是否开启堆外缓存, 按权重从堆内缓存淘汰的参与方事务序列化后保存在堆外
+	 */
+	private boolean offHeapCache = false;
+
+	/**
+	 * 堆外缓存大小 单位MB
+	 */
+	private int offHeapCacheSize = 256;
+
+	/**
+	 * 启动时是否将未完成的参与方事务预先加载到缓存
+	 */
+	private boolean cacheWarmUp = false;
+
+	/**
+	 * 启动时预加载缓存的最长时间 单位毫秒
+	 */
+	private long cacheWarmUpTimeout = 30000;
+
 	/**
 	 * db配置
 	 */
 	private TccDbConfig tccDbConfig;
 
+	/**
+	 * 分库保存事务日志时每个分库的db配置, 按transId的hash路由, 分库数量上线后不可修改
+	 */
+	private List<TccDbConfig> tccDbConfigs;
+
 	/**
 	 * mongo配置
 	 */
@@ -124,6 +216,14 @@ public class TccConfig {
 		this.recoverDelayTime = recoverDelayTime;
 	}
 
+	public int getRecoverPageSize() {
+		return recoverPageSize;
+	}
+
+	public void setRecoverPageSize(int recoverPageSize) {
+		this.recoverPageSize = recoverPageSize;
+	}
+
 	public String getRepositorySupport() {
 		return repositorySupport;
 	}
@@ -140,6 +240,134 @@ public class TccConfig {
 		this.bufferSize = bufferSize;
 	}
 
+	public String getPublishMode() {
+		return publishMode;
+	}
+
+	public void setPublishMode(String publishMode) {
+		this.publishMode = publishMode;
+	}
+
+	public String getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	public void setWaitStrategy(String waitStrategy) {
+		this.waitStrategy = waitStrategy;
+	}
+
+	public String getProducerType() {
+		return producerType;
+	}
+
+	public void setProducerType(String producerType) {
+		this.producerType = producerType;
+	}
+
+	public int getDisruptorLanes() {
+		return disruptorLanes;
+	}
+
+	public void setDisruptorLanes(int disruptorLanes) {
+		this.disruptorLanes = disruptorLanes;
+	}
+
+	public String getDurability() {
+		return durability;
+	}
+
+	public void setDurability(String durability) {
+		this.durability = durability;
+	}
+
+	public long getDurabilityTimeout() {
+		return durabilityTimeout;
+	}
+
+	public void setDurabilityTimeout(long durabilityTimeout) {
+		this.durabilityTimeout = durabilityTimeout;
+	}
+
+	public boolean isParallelPhase() {
+		return parallelPhase;
+	}
+
+	public void setParallelPhase(boolean parallelPhase) {
+		this.parallelPhase = parallelPhase;
+	}
+
+	public int getPhaseThreadMax() {
+		return phaseThreadMax;
+	}
+
+	public void setPhaseThreadMax(int phaseThreadMax) {
+		this.phaseThreadMax = phaseThreadMax;
+	}
+
+	public long getParticipantTimeout() {
+		return participantTimeout;
+	}
+
+	public void setParticipantTimeout(long participantTimeout) {
+		this.participantTimeout = participantTimeout;
+	}
+
+	public boolean isAsyncConfirm() {
+		return asyncConfirm;
+	}
+
+	public void setAsyncConfirm(boolean asyncConfirm) {
+		this.asyncConfirm = asyncConfirm;
+	}
+
+	public int getConfirmThreadMax() {
+		return confirmThreadMax;
+	}
+
+	public void setConfirmThreadMax(int confirmThreadMax) {
+		this.confirmThreadMax = confirmThreadMax;
+	}
+
+	public long getCacheMaxWeight() {
+		return cacheMaxWeight;
+	}
+
+	public void setCacheMaxWeight(long cacheMaxWeight) {
+		this.cacheMaxWeight = cacheMaxWeight;
+	}
+
+	public boolean isOffHeapCache() {
+		return offHeapCache;
+	}
+
+	public void setOffHeapCache(boolean offHeapCache) {
+		this.offHeapCache = offHeapCache;
+	}
+
+	public int getOffHeapCacheSize() {
+		return offHeapCacheSize;
+	}
+
+	public void setOffHeapCacheSize(int offHeapCacheSize) {
+		this.offHeapCacheSize = offHeapCacheSize;
+	}
+
+	public boolean isCacheWarmUp() {
+		return cacheWarmUp;
+	}
+
+	public void setCacheWarmUp(boolean cacheWarmUp) {
+		this.cacheWarmUp = cacheWarmUp;
+	}
+
+	public long getCacheWarmUpTimeout() {
+		return cacheWarmUpTimeout;
+	}
+
+	public void setCacheWarmUpTimeout(long cacheWarmUpTimeout) {
+		this.cacheWarmUpTimeout = cacheWarmUpTimeout;
+	}
+
 	public TccDbConfig getTccDbConfig() {
 		return tccDbConfig;
 	}
@@ -148,6 +376,14 @@ public class TccConfig {
 		this.tccDbConfig = tccDbConfig;
 	}
 
+	public List<TccDbConfig> getTccDbConfigs() {
+		return tccDbConfigs;
+	}
+
+	public void setTccDbConfigs(List<TccDbConfig> tccDbConfigs) {
+		this.tccDbConfigs = tccDbConfigs;
+	}
+
 	public TccMongoConfig getTccMongoConfig() {
 		return tccMongoConfig;
 	}
@@ -34,6 +34,22 @@ public class TccDbConfig {
 	 */
 	private String password;
 
+	/**
+	 * 只读副本的url, 配置后恢复扫描等只读查询走副本, 按id查询与认领仍走主库。
+	 * 连接池参数与主库相同, url参数也应与url一致
+	 */
+	private String replicaUrl;
+
+	/**
+	 * 只读副本的用户名, 不填写时同username
+	 */
+	private String replicaUsername;
+
+	/**
+	 * 只读副本的密码, 不填写时同password
+	 */
+	private String replicaPassword;
+
 	/**
 	 * 最大连接池数量
 	 */
@@ -96,6 +112,29 @@ public class TccDbConfig {
 	 */
 	private Map<String, Object> dataSourcePropertyMap;
 
+	/**
+	 * rows fetched per round trip by the scans of the recovery, mysql streams
+	 * row by row unless useCursorFetch=true is set on the url
+	 */
+	private int fetchSize = 500;
+
+	/**
+	 * prepared statements cached per connection by the mysql driver, 0 disables
+	 * the cache
+	 */
+	private int prepStmtCacheSize = 250;
+
+	/**
+	 * participants stored one row each in the table tcc_<app>_participant
+	 * instead of one blob of the transaction, enlisting is then an insert
+	 */
+	private boolean participantTable = false;
+
+	/**
+	 * 事件表模式(eventdb)下后台清理已删除事务事件的间隔 单位秒
+	 */
+	private int compactInterval = 60;
+
 	/**
 	 * You can use a existing DataSource or generate a new DataSource based on
 	 * the configuration
@@ -134,6 +173,30 @@ public class TccDbConfig {
 		this.password = password;
 	}
 
+	public String getReplicaUrl() {
+		return replicaUrl;
+	}
+
+	public void setReplicaUrl(String replicaUrl) {
+		this.replicaUrl = replicaUrl;
+	}
+
+	public String getReplicaUsername() {
+		return replicaUsername;
+	}
+
+	public void setReplicaUsername(String replicaUsername) {
+		this.replicaUsername = replicaUsername;
+	}
+
+	public String getReplicaPassword() {
+		return replicaPassword;
+	}
+
+	public void setReplicaPassword(String replicaPassword) {
+		this.replicaPassword = replicaPassword;
+	}
+
 	public int getMaxActive() {
 		return maxActive;
 	}
@@ -190,6 +253,38 @@ public class TccDbConfig {
 		this.dataSourcePropertyMap = dataSourcePropertyMap;
 	}
 
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	public void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	public int getPrepStmtCacheSize() {
+		return prepStmtCacheSize;
+	}
+
+	public void setPrepStmtCacheSize(int prepStmtCacheSize) {
+		this.prepStmtCacheSize = prepStmtCacheSize;
+	}
+
+	public boolean isParticipantTable() {
+		return participantTable;
+	}
+
+	public void setParticipantTable(boolean participantTable) {
+		this.participantTable = participantTable;
+	}
+
+	public int getCompactInterval() {
+		return compactInterval;
+	}
+
+	public void setCompactInterval(int compactInterval) {
+		this.compactInterval = compactInterval;
+	}
+
 	public DataSource getDataSource() {
 		return dataSource;
 	}
@@ -48,6 +48,21 @@ public class TccRedisConfig {
 
 	private int timeOut = 10000;
 
+	/**
+	 * redisasync 一个pipeline最多发送的写命令数
+	 */
+	private int pipelineSize = 1000;
+
+	/**
+	 * redisstream 事件流的近似最大长度, 超出后以 MAXLEN ~ 裁剪最早的事件
+	 */
+	private int streamMaxLen = 100000;
+
+	/**
+	 * redisstream 的分区数, 事务按 transId 分到各自的 {应用名:分区} slot, 首个节点启动后写入 redis 不再改变
+	 */
+	private int streamPartitions = 8;
+
 	public Boolean getCluster() {
 		return cluster;
 	}
@@ -200,4 +215,28 @@ public class TccRedisConfig {
 		this.timeOut = timeOut;
 	}
 
+	public int getPipelineSize() {
+		return pipelineSize;
+	}
+
+	public void setPipelineSize(int pipelineSize) {
+		this.pipelineSize = pipelineSize;
+	}
+
+	public int getStreamMaxLen() {
+		return streamMaxLen;
+	}
+
+	public void setStreamMaxLen(int streamMaxLen) {
+		this.streamMaxLen = streamMaxLen;
+	}
+
+	public int getStreamPartitions() {
+		return streamPartitions;
+	}
+
+	public void setStreamPartitions(int streamPartitions) {
+		this.streamPartitions = streamPartitions;
+	}
+
 }
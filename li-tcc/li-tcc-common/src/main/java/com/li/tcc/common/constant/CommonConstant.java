@@ -14,12 +14,28 @@ public final class CommonConstant {
 
 	public final static String DB_ORACLE = "oracle";
 
+	public final static String DB_POSTGRESQL = "postgresql";
+
 	public final static String PATH_SUFFIX = "/tcc";
 
 	public final static String DB_SUFFIX = "tcc_";
 
 	public final static String RECOVER_REDIS_KEY_PRE = "tcc:transaction:%s";
 
+	public final static String RECOVER_REDIS_PARTICIPANT_KEY_PRE = "tcc:participant:%s";
+
+	public final static String RECOVER_REDIS_INDEX_KEY = "tcc:index:%s";
+
+	public final static String RECOVER_REDIS_LAYOUT_KEY = "tcc:layout:%s";
+
+	public final static String RECOVER_REDIS_STREAM_KEY = "tcc:stream:%s";
+
+	public final static String RECOVER_REDIS_DUE_KEY = "tcc:due:%s";
+
+	public final static String RECOVER_REDIS_PARTITIONS_KEY = "tcc:partitions:%s";
+
+	public final static String PARTICIPANT_FILE_SUFFIX = ".participants";
+
 	public final static String TCC_TRANSACTION_CONTEXT = "TCC_TRANSACTION_CONTEXT";
 
 }
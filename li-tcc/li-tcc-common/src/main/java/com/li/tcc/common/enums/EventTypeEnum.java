@@ -25,7 +25,12 @@ public enum EventTypeEnum {
 	/**
 	 * Rollback coordinator action enum
 	 */
-	UPDATE_PARTICIPANT(3, "更新参与者");
+	UPDATE_PARTICIPANT(3, "更新参与者"),
+
+	/**
+	 * Append participant coordinator action enum
+	 */
+	APPEND_PARTICIPANT(4, "追加参与者");
 
 	private final Integer code;
 
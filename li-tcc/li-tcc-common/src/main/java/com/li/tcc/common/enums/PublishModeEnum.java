@@ -0,0 +1,41 @@
+package com.li.tcc.common.enums;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * disruptor PublishModeEnum
+ *
+ * @author yuan.li
+ */
+public enum PublishModeEnum {
+
+	/**
+	 * publish by thread pool, the business thread never blocks on the ring
+	 * buffer
+	 */
+	EXECUTOR("executor"),
+
+	/**
+	 * publish into the ring buffer from the business thread, blocks when the
+	 * ring buffer is full
+	 */
+	DIRECT("direct");
+
+	private final String value;
+
+	private PublishModeEnum(final String value) {
+		this.value = value;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public static PublishModeEnum getEnum(final String value) {
+		Optional<PublishModeEnum> publishModeEnum = Arrays.stream(PublishModeEnum.values())
+				.filter(v -> Objects.equals(v.getValue(), value)).findFirst();
+		return publishModeEnum.orElse(PublishModeEnum.EXECUTOR);
+	}
+}
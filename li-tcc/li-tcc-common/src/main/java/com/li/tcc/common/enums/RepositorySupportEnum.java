@@ -16,6 +16,16 @@ public enum RepositorySupportEnum {
 	 */
 	DB("db"),
 
+	/**
+	 * Db sharded by transId compensate cache type enum
+	 */
+	SHARDING_DB("shardingdb"),
+
+	/**
+	 * Db append only event log compensate cache type enum
+	 */
+	EVENT_DB("eventdb"),
+
 	/**
 	 * File compensate cache type enum
 	 */
@@ -26,6 +36,16 @@ public enum RepositorySupportEnum {
 	 */
 	REDIS("redis"),
 
+	/**
+	 * Redis pipelined by one writer thread compensate cache type enum
+	 */
+	REDIS_ASYNC("redisasync"),
+
+	/**
+	 * Redis stream event log compensate cache type enum
+	 */
+	REDIS_STREAM("redisstream"),
+
 	/**
 	 * Mongodb compensate cache type enum
 	 */
@@ -0,0 +1,50 @@
+package com.li.tcc.common.enums;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * disruptor WaitStrategyEnum
+ *
+ * @author yuan.li
+ */
+public enum WaitStrategyEnum {
+
+	/**
+	 * Blocking wait strategy enum, lowest cpu usage
+	 */
+	BLOCKING("blocking"),
+
+	/**
+	 * Sleeping wait strategy enum, spin then yield then park
+	 */
+	SLEEPING("sleeping"),
+
+	/**
+	 * Yielding wait strategy enum, spin then yield
+	 */
+	YIELDING("yielding"),
+
+	/**
+	 * Busy spin wait strategy enum, lowest latency, burns one core per
+	 * handler thread
+	 */
+	BUSY_SPIN("busySpin");
+
+	private final String value;
+
+	private WaitStrategyEnum(final String value) {
+		this.value = value;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public static WaitStrategyEnum getEnum(final String value) {
+		Optional<WaitStrategyEnum> waitStrategyEnum = Arrays.stream(WaitStrategyEnum.values())
+				.filter(v -> Objects.equals(v.getValue(), value)).findFirst();
+		return waitStrategyEnum.orElse(WaitStrategyEnum.BLOCKING);
+	}
+}
@@ -1,6 +1,9 @@
 package com.li.tcc.common.jedis;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * JedisClient
@@ -67,6 +70,17 @@ public interface JedisClient {
 	 */
 	Set<String> keys(String key);
 
+	/**
+	 * 以SCAN游标分页遍历匹配的key, 集群模式下遍历每个主节点, 同一个key可能被返回多次
+	 * 
+	 * @param pattern
+	 * @param count
+	 *            每次SCAN的COUNT
+	 * @param consumer
+	 *            接收每一页非空的key
+	 */
+	void scan(String pattern, int count, Consumer<List<String>> consumer);
+
 	/**
 	 * hash set值
 	 * 
@@ -130,4 +144,197 @@ public interface JedisClient {
 	 */
 	Set<String> zrange(String key, long start, long end);
 
+	/**
+	 * 批量set 操作
+	 * 
+	 * @param values
+	 *            key -> value
+	 */
+	void setBatch(Map<String, byte[]> values);
+
+	/**
+	 * 批量获取, 返回顺序与keys一致, 单机模式下为一次MGET, 集群模式下按节点pipeline
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	List<byte[]> mget(List<String> keys);
+
+	/**
+	 * 批量删除key, 集群模式下按节点pipeline
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	Long delBatch(List<String> keys);
+
+	/**
+	 * list 尾部追加
+	 * 
+	 * @param key
+	 * @param values
+	 * @return
+	 */
+	Long rpush(String key, byte[]... values);
+
+	/**
+	 * list 范围获取
+	 * 
+	 * @param key
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	List<byte[]> lrange(String key, long start, long end);
+
+	/**
+	 * 批量获取list全部元素, 返回顺序与keys一致
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	List<List<byte[]>> lrangeBatch(List<String> keys);
+
+	/**
+	 * hash 批量设置field
+	 * 
+	 * @param key
+	 * @param hash
+	 *            field -> value
+	 * @return
+	 */
+	String hmset(String key, Map<String, byte[]> hash);
+
+	/**
+	 * hash 获取全部field
+	 * 
+	 * @param key
+	 * @return field -> value, key不存在时为空
+	 */
+	Map<String, byte[]> hgetAll(String key);
+
+	/**
+	 * 批量获取hash全部field, 返回顺序与keys一致
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	List<Map<String, byte[]>> hgetAllBatch(List<String> keys);
+
+	/**
+	 * 覆盖写入hash并写入有序集合索引, 单机模式下在同一个事务中执行, 集群模式下先写索引
+	 * 
+	 * @param key
+	 * @param hash
+	 *            field -> value
+	 * @param indexKey
+	 *            有序集合
+	 * @param member
+	 * @param score
+	 */
+	void hmsetWithIndex(String key, Map<String, byte[]> hash, String indexKey, String member, double score);
+
+	/**
+	 * 批量覆盖写入hash并写入有序集合索引
+	 * 
+	 * @param hashes
+	 *            key -> hash
+	 * @param indexKey
+	 *            有序集合
+	 * @param scores
+	 *            member -> score
+	 */
+	void hmsetBatchWithIndex(Map<String, Map<String, byte[]>> hashes, String indexKey, Map<String, Double> scores);
+
+	/**
+	 * 执行lua脚本, 先以evalsha执行, 脚本未缓存时以eval执行
+	 * 
+	 * @param script
+	 * @param keys
+	 *            集群模式下必须在同一个slot
+	 * @param args
+	 * @return
+	 */
+	Object eval(String script, List<String> keys, List<byte[]> args);
+
+	/**
+	 * 批量执行lua脚本, 单机模式下在一个pipeline中执行, 集群模式下按第一个key路由
+	 * 
+	 * @param script
+	 * @param keys
+	 *            每次执行的KEYS, 同一次执行的key必须在同一个slot
+	 * @param args
+	 *            每次执行的ARGV, 与keys一一对应
+	 * @return 每次执行的结果, 顺序与keys一致
+	 */
+	List<Object> evalBatch(String script, List<List<String>> keys, List<List<byte[]>> args);
+
+	/**
+	 * key的类型
+	 * 
+	 * @param key
+	 * @return string, hash, list, zset 等, 不存在时为none
+	 */
+	String type(String key);
+
+	/**
+	 * 批量获取key的类型, 返回顺序与keys一致
+	 * 
+	 * @param keys
+	 * @return
+	 */
+	List<String> typeBatch(List<String> keys);
+
+	/**
+	 * 批量删除key并从有序集合索引移除, 集群模式下后移除索引
+	 * 
+	 * @param keys
+	 * @param indexKey
+	 *            有序集合
+	 * @param members
+	 * @return 删除的key数量
+	 */
+	Long delBatchWithIndex(List<String> keys, String indexKey, List<String> members);
+
+	/**
+	 * 有序集合添加
+	 * 
+	 * @param key
+	 * @param scores
+	 *            member -> score
+	 * @return
+	 */
+	Long zadd(String key, Map<String, Double> scores);
+
+	/**
+	 * 有序集合移除
+	 * 
+	 * @param key
+	 * @param members
+	 * @return
+	 */
+	Long zrem(String key, String... members);
+
+	/**
+	 * 按score分页获取有序集合, 按score升序
+	 * 
+	 * @param key
+	 * @param min
+	 *            包含边界, "(" 开头时不包含, 可为 -inf
+	 * @param max
+	 *            同min, 可为 +inf
+	 * @param offset
+	 * @param count
+	 * @return member -> score
+	 */
+	Map<String, Double> zrangeByScoreWithScores(String key, String min, String max, int offset, int count);
+
+	/**
+	 * 有序集合大小
+	 * 
+	 * @param key
+	 * @return
+	 */
+	Long zcard(String key);
+
 }
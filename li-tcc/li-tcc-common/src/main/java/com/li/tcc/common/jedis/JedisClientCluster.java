@@ -1,8 +1,39 @@
 package com.li.tcc.common.jedis;
 
+import com.google.common.hash.Hashing;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisNoReachableClusterNodeException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.SafeEncoder;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 
 /**
  * JedisClientCluster
@@ -11,8 +42,29 @@ import java.util.Set;
  */
 public class JedisClientCluster implements JedisClient {
 
+	/**
+	 * replace the hash KEYS[1] by the field value pairs of ARGV
+	 */
+	private static final String REPLACE_SCRIPT = "redis.call('del', KEYS[1]); "
+			+ "redis.call('hmset', KEYS[1], unpack(ARGV)); return 1";
+
+	/**
+	 * COUNT of the SCANs of keys
+	 */
+	private static final int SCAN_COUNT = 1000;
+
 	private JedisCluster jedisCluster;
 
+	/**
+	 * slot -> host:port of the master serving it, reloaded after a redirection
+	 */
+	private volatile String[] slotNodes;
+
+	/**
+	 * script -> sha1 of the script for evalsha
+	 */
+	private final Map<String, byte[]> scriptShas = new ConcurrentHashMap<>();
+
 	public JedisClientCluster(final JedisCluster jedisCluster) {
 		this.jedisCluster = jedisCluster;
 	}
@@ -27,9 +79,12 @@ public class JedisClientCluster implements JedisClient {
 		return jedisCluster.set(key.getBytes(), value);
 	}
 
+	/**
+	 * the keys may live in different slots
+	 */
 	@Override
 	public Long del(final String... keys) {
-		return jedisCluster.del(keys);
+		return delBatch(Arrays.asList(keys));
 	}
 
 	@Override
@@ -44,12 +99,39 @@ public class JedisClientCluster implements JedisClient {
 
 	@Override
 	public Set<byte[]> keys(final byte[] pattern) {
-		return jedisCluster.hkeys(pattern);
+		return keys(new String(pattern)).stream().map(String::getBytes).collect(Collectors.toSet());
 	}
 
+	/**
+	 * KEYS only sees the keys of one node, the masters are scanned instead
+	 */
 	@Override
 	public Set<String> keys(final String key) {
-		return jedisCluster.hkeys(key);
+		Set<String> keys = new HashSet<>();
+		scan(key, SCAN_COUNT, keys::addAll);
+		return keys;
+	}
+
+	@Override
+	public void scan(final String pattern, final int count, final Consumer<List<String>> consumer) {
+		final ScanParams params = new ScanParams().match(pattern).count(count);
+		for (String node : new LinkedHashSet<>(Arrays.asList(getSlotNodes()))) {
+			final JedisPool pool = Objects.isNull(node) ? null : jedisCluster.getClusterNodes().get(node);
+			if (Objects.isNull(pool)) {
+				continue;
+			}
+			String cursor = ScanParams.SCAN_POINTER_START;
+			do {
+				final ScanResult<String> result;
+				try (Jedis jedis = pool.getResource()) {
+					result = jedis.scan(cursor, params);
+				}
+				if (!result.getResult().isEmpty()) {
+					consumer.accept(result.getResult());
+				}
+				cursor = result.getStringCursor();
+			} while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+		}
 	}
 
 	@Override
@@ -87,4 +169,254 @@ public class JedisClientCluster implements JedisClient {
 		return jedisCluster.zrange(key, start, end);
 	}
 
+	@Override
+	public void setBatch(final Map<String, byte[]> values) {
+		final List<String> keys = new ArrayList<>(values.keySet());
+		pipelined(keys, (pipeline, i) -> pipeline.set(keys.get(i).getBytes(), values.get(keys.get(i))),
+				i -> jedisCluster.set(keys.get(i).getBytes(), values.get(keys.get(i))));
+	}
+
+	/**
+	 * MGET needs all keys in one slot, the GETs are pipelined per master
+	 * instead
+	 */
+	@Override
+	public List<byte[]> mget(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.get(keys.get(i).getBytes()),
+				i -> jedisCluster.get(keys.get(i).getBytes()));
+	}
+
+	@Override
+	public Long delBatch(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.del(keys.get(i)), i -> jedisCluster.del(keys.get(i)))
+				.stream().mapToLong(Long::longValue).sum();
+	}
+
+	@Override
+	public Long rpush(final String key, final byte[]... values) {
+		return jedisCluster.rpush(key.getBytes(), values);
+	}
+
+	@Override
+	public List<byte[]> lrange(final String key, final long start, final long end) {
+		return jedisCluster.lrange(key.getBytes(), start, end);
+	}
+
+	@Override
+	public List<List<byte[]>> lrangeBatch(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.lrange(keys.get(i).getBytes(), 0, -1),
+				i -> jedisCluster.lrange(keys.get(i).getBytes(), 0, -1));
+	}
+
+	@Override
+	public String hmset(final String key, final Map<String, byte[]> hash) {
+		return jedisCluster.hmset(key.getBytes(), JedisClientSingle.toBinary(hash));
+	}
+
+	@Override
+	public Map<String, byte[]> hgetAll(final String key) {
+		return JedisClientSingle.fromBinary(jedisCluster.hgetAll(key.getBytes()));
+	}
+
+	@Override
+	public List<Map<String, byte[]>> hgetAllBatch(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.hgetAll(keys.get(i).getBytes()),
+				i -> jedisCluster.hgetAll(keys.get(i).getBytes())).stream().map(JedisClientSingle::fromBinary)
+						.collect(Collectors.toList());
+	}
+
+	/**
+	 * the key and the index are in different slots, the index is written first
+	 * so that a stored hash is always indexed, the hash is replaced by a script
+	 * so that no reader sees it half written
+	 */
+	@Override
+	public void hmsetWithIndex(final String key, final Map<String, byte[]> hash, final String indexKey,
+			final String member, final double score) {
+		jedisCluster.zadd(indexKey, score, member);
+		eval(REPLACE_SCRIPT, Collections.singletonList(key), buildReplaceArgs(hash));
+	}
+
+	@Override
+	public void hmsetBatchWithIndex(final Map<String, Map<String, byte[]>> hashes, final String indexKey,
+			final Map<String, Double> scores) {
+		jedisCluster.zadd(indexKey, scores);
+		final List<String> keys = new ArrayList<>(hashes.keySet());
+		evalBatch(REPLACE_SCRIPT, keys.stream().map(Collections::singletonList).collect(Collectors.toList()),
+				keys.stream().map(key -> buildReplaceArgs(hashes.get(key))).collect(Collectors.toList()));
+	}
+
+	@Override
+	public Object eval(final String script, final List<String> keys, final List<byte[]> args) {
+		final List<byte[]> binaryKeys = keys.stream().map(String::getBytes).collect(Collectors.toList());
+		try {
+			return jedisCluster.evalsha(scriptSha(script), binaryKeys, args);
+		} catch (JedisNoScriptException e) {
+			return jedisCluster.eval(script.getBytes(StandardCharsets.UTF_8), binaryKeys, args);
+		}
+	}
+
+	@Override
+	public List<Object> evalBatch(final String script, final List<List<String>> keys,
+			final List<List<byte[]>> args) {
+		final byte[] binaryScript = script.getBytes(StandardCharsets.UTF_8);
+		return pipelined(keys.stream().map(slotKeys -> slotKeys.get(0)).collect(Collectors.toList()),
+				(pipeline, i) -> pipeline.eval(binaryScript,
+						keys.get(i).stream().map(String::getBytes).collect(Collectors.toList()), args.get(i)),
+				i -> eval(script, keys.get(i), args.get(i)));
+	}
+
+	@Override
+	public String type(final String key) {
+		return jedisCluster.type(key);
+	}
+
+	@Override
+	public List<String> typeBatch(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.type(keys.get(i)), i -> jedisCluster.type(keys.get(i)));
+	}
+
+	/**
+	 * the keys are deleted before the index, an index member without key is
+	 * skipped by the readers
+	 */
+	@Override
+	public Long delBatchWithIndex(final List<String> keys, final String indexKey, final List<String> members) {
+		final Long rows = delBatch(keys);
+		jedisCluster.zrem(indexKey, members.toArray(new String[0]));
+		return rows;
+	}
+
+	@Override
+	public Long zadd(final String key, final Map<String, Double> scores) {
+		return jedisCluster.zadd(key, scores);
+	}
+
+	@Override
+	public Long zrem(final String key, final String... members) {
+		return jedisCluster.zrem(key, members);
+	}
+
+	@Override
+	public Map<String, Double> zrangeByScoreWithScores(final String key, final String min, final String max,
+			final int offset, final int count) {
+		Map<String, Double> scores = new LinkedHashMap<>();
+		for (Tuple tuple : jedisCluster.zrangeByScoreWithScores(key, min, max, offset, count)) {
+			scores.put(tuple.getElement(), tuple.getScore());
+		}
+		return scores;
+	}
+
+	@Override
+	public Long zcard(final String key) {
+		return jedisCluster.zcard(key);
+	}
+
+	/**
+	 * send the commands of the keys served by one master in one pipeline to
+	 * that master. a command redirected because its slot moved, and the
+	 * commands of an unknown or unreachable master, are sent again through
+	 * JedisCluster and the slot map is reloaded on the next batch.
+	 *
+	 * @param command
+	 *            pipeline, index of the key -> response
+	 * @param single
+	 *            index of the key -> reply through JedisCluster
+	 * @return the replies in the order of keys
+	 */
+	private <T> List<T> pipelined(final List<String> keys, final BiFunction<Pipeline, Integer, Response<T>> command,
+			final IntFunction<T> single) {
+		List<T> results = new ArrayList<>(Collections.nCopies(keys.size(), null));
+		final String[] nodes = getSlotNodes();
+		Map<String, List<Integer>> byNode = new LinkedHashMap<>();
+		for (int i = 0; i < keys.size(); i++) {
+			final String node = nodes[JedisClusterCRC16.getSlot(keys.get(i))];
+			byNode.computeIfAbsent(Objects.isNull(node) ? "" : node, k -> new ArrayList<>()).add(i);
+		}
+		boolean moved = false;
+		for (Map.Entry<String, List<Integer>> entry : byNode.entrySet()) {
+			final List<Integer> indexes = entry.getValue();
+			final JedisPool pool = jedisCluster.getClusterNodes().get(entry.getKey());
+			List<Response<T>> responses = new ArrayList<>(indexes.size());
+			if (Objects.nonNull(pool)) {
+				try (Jedis jedis = pool.getResource()) {
+					Pipeline pipeline = jedis.pipelined();
+					for (Integer i : indexes) {
+						responses.add(command.apply(pipeline, i));
+					}
+					pipeline.sync();
+				} catch (JedisConnectionException e) {
+					responses.clear();
+				}
+			}
+			if (responses.isEmpty()) {
+				moved = true;
+				indexes.forEach(i -> results.set(i, single.apply(i)));
+				continue;
+			}
+			for (int j = 0; j < indexes.size(); j++) {
+				final int i = indexes.get(j);
+				try {
+					results.set(i, responses.get(j).get());
+				} catch (JedisRedirectionException e) {
+					moved = true;
+					results.set(i, single.apply(i));
+				}
+			}
+		}
+		if (moved) {
+			slotNodes = null;
+		}
+		return results;
+	}
+
+	private String[] getSlotNodes() {
+		String[] nodes = slotNodes;
+		if (Objects.isNull(nodes)) {
+			nodes = loadSlotNodes();
+			slotNodes = nodes;
+		}
+		return nodes;
+	}
+
+	/**
+	 * read CLUSTER SLOTS from the first reachable node
+	 *
+	 * @return slot -> host:port of its master, the key of getClusterNodes
+	 */
+	@SuppressWarnings("unchecked")
+	private String[] loadSlotNodes() {
+		for (JedisPool pool : jedisCluster.getClusterNodes().values()) {
+			try (Jedis jedis = pool.getResource()) {
+				String[] nodes = new String[JedisCluster.HASHSLOTS];
+				for (Object slots : jedis.clusterSlots()) {
+					final List<Object> range = (List<Object>) slots;
+					final List<Object> master = (List<Object>) range.get(2);
+					final HostAndPort hostAndPort = new HostAndPort(SafeEncoder.encode((byte[]) master.get(0)),
+							((Long) master.get(1)).intValue());
+					Arrays.fill(nodes, ((Long) range.get(0)).intValue(), ((Long) range.get(1)).intValue() + 1,
+							hostAndPort.toString());
+				}
+				return nodes;
+			} catch (JedisConnectionException e) {
+				// try the next node
+			}
+		}
+		throw new JedisNoReachableClusterNodeException("No reachable node in cluster");
+	}
+
+	private static List<byte[]> buildReplaceArgs(final Map<String, byte[]> hash) {
+		List<byte[]> args = new ArrayList<>(hash.size() * 2);
+		hash.forEach((field, value) -> {
+			args.add(field.getBytes(StandardCharsets.UTF_8));
+			args.add(value);
+		});
+		return args;
+	}
+
+	private byte[] scriptSha(final String script) {
+		return scriptShas.computeIfAbsent(script,
+				s -> Hashing.sha1().hashString(s, StandardCharsets.UTF_8).toString().getBytes());
+	}
+
 }
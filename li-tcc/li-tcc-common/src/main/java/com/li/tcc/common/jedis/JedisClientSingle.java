@@ -1,9 +1,28 @@
 package com.li.tcc.common.jedis;
 
+import com.google.common.hash.Hashing;
+
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * JedisClientSingle
@@ -14,6 +33,11 @@ public class JedisClientSingle implements JedisClient {
 
 	private JedisPool jedisPool;
 
+	/**
+	 * script -> sha1 of the script for evalsha
+	 */
+	private final Map<String, byte[]> scriptShas = new ConcurrentHashMap<>();
+
 	public JedisClientSingle(final JedisPool jedisPool) {
 		this.jedisPool = jedisPool;
 	}
@@ -67,6 +91,22 @@ public class JedisClientSingle implements JedisClient {
 		}
 	}
 
+	@Override
+	public void scan(final String pattern, final int count, final Consumer<List<String>> consumer) {
+		final ScanParams params = new ScanParams().match(pattern).count(count);
+		String cursor = ScanParams.SCAN_POINTER_START;
+		do {
+			final ScanResult<String> result;
+			try (Jedis jedis = jedisPool.getResource()) {
+				result = jedis.scan(cursor, params);
+			}
+			if (!result.getResult().isEmpty()) {
+				consumer.accept(result.getResult());
+			}
+			cursor = result.getStringCursor();
+		} while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+	}
+
 	@Override
 	public Long hset(final String key, final String item, final String value) {
 		try (Jedis jedis = jedisPool.getResource()) {
@@ -116,4 +156,221 @@ public class JedisClientSingle implements JedisClient {
 		}
 	}
 
+	@Override
+	public void setBatch(final Map<String, byte[]> values) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			Pipeline pipeline = jedis.pipelined();
+			values.forEach((key, value) -> pipeline.set(key.getBytes(), value));
+			pipeline.sync();
+		}
+	}
+
+	@Override
+	public List<byte[]> mget(final List<String> keys) {
+		if (keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.mget(keys.stream().map(String::getBytes).toArray(byte[][]::new));
+		}
+	}
+
+	@Override
+	public Long delBatch(final List<String> keys) {
+		if (keys.isEmpty()) {
+			return 0L;
+		}
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.del(keys.toArray(new String[0]));
+		}
+	}
+
+	@Override
+	public Long rpush(final String key, final byte[]... values) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.rpush(key.getBytes(), values);
+		}
+	}
+
+	@Override
+	public List<byte[]> lrange(final String key, final long start, final long end) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.lrange(key.getBytes(), start, end);
+		}
+	}
+
+	@Override
+	public List<List<byte[]>> lrangeBatch(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.lrange(keys.get(i).getBytes(), 0, -1));
+	}
+
+	@Override
+	public String hmset(final String key, final Map<String, byte[]> hash) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.hmset(key.getBytes(), toBinary(hash));
+		}
+	}
+
+	@Override
+	public Map<String, byte[]> hgetAll(final String key) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return fromBinary(jedis.hgetAll(key.getBytes()));
+		}
+	}
+
+	@Override
+	public List<Map<String, byte[]>> hgetAllBatch(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.hgetAll(keys.get(i).getBytes())).stream()
+				.map(JedisClientSingle::fromBinary).collect(Collectors.toList());
+	}
+
+	@Override
+	public void hmsetWithIndex(final String key, final Map<String, byte[]> hash, final String indexKey,
+			final String member, final double score) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			Transaction transaction = jedis.multi();
+			transaction.zadd(indexKey, score, member);
+			transaction.del(key);
+			transaction.hmset(key.getBytes(), toBinary(hash));
+			transaction.exec();
+		}
+	}
+
+	@Override
+	public void hmsetBatchWithIndex(final Map<String, Map<String, byte[]>> hashes, final String indexKey,
+			final Map<String, Double> scores) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			Transaction transaction = jedis.multi();
+			transaction.zadd(indexKey, scores);
+			hashes.forEach((key, hash) -> {
+				transaction.del(key);
+				transaction.hmset(key.getBytes(), toBinary(hash));
+			});
+			transaction.exec();
+		}
+	}
+
+	@Override
+	public Object eval(final String script, final List<String> keys, final List<byte[]> args) {
+		final List<byte[]> binaryKeys = keys.stream().map(String::getBytes).collect(Collectors.toList());
+		try (Jedis jedis = jedisPool.getResource()) {
+			try {
+				return jedis.evalsha(scriptSha(script), binaryKeys, args);
+			} catch (JedisNoScriptException e) {
+				return jedis.eval(script.getBytes(StandardCharsets.UTF_8), binaryKeys, args);
+			}
+		}
+	}
+
+	/**
+	 * the pipeline sends the script itself, evalsha cannot fall back inside a
+	 * pipeline
+	 */
+	@Override
+	public List<Object> evalBatch(final String script, final List<List<String>> keys,
+			final List<List<byte[]>> args) {
+		final byte[] binaryScript = script.getBytes(StandardCharsets.UTF_8);
+		return pipelined(keys, (pipeline, i) -> pipeline.eval(binaryScript,
+				keys.get(i).stream().map(String::getBytes).collect(Collectors.toList()), args.get(i)));
+	}
+
+	@Override
+	public String type(final String key) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.type(key);
+		}
+	}
+
+	@Override
+	public List<String> typeBatch(final List<String> keys) {
+		return pipelined(keys, (pipeline, i) -> pipeline.type(keys.get(i)));
+	}
+
+	@Override
+	public Long delBatchWithIndex(final List<String> keys, final String indexKey, final List<String> members) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			Transaction transaction = jedis.multi();
+			Response<Long> rows = transaction.del(keys.toArray(new String[0]));
+			transaction.zrem(indexKey, members.toArray(new String[0]));
+			transaction.exec();
+			return rows.get();
+		}
+	}
+
+	@Override
+	public Long zadd(final String key, final Map<String, Double> scores) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.zadd(key, scores);
+		}
+	}
+
+	@Override
+	public Long zrem(final String key, final String... members) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.zrem(key, members);
+		}
+	}
+
+	@Override
+	public Map<String, Double> zrangeByScoreWithScores(final String key, final String min, final String max,
+			final int offset, final int count) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			Map<String, Double> scores = new LinkedHashMap<>();
+			for (Tuple tuple : jedis.zrangeByScoreWithScores(key, min, max, offset, count)) {
+				scores.put(tuple.getElement(), tuple.getScore());
+			}
+			return scores;
+		}
+	}
+
+	@Override
+	public Long zcard(final String key) {
+		try (Jedis jedis = jedisPool.getResource()) {
+			return jedis.zcard(key);
+		}
+	}
+
+	/**
+	 * send the command of every key in one pipeline
+	 *
+	 * @param command
+	 *            pipeline, index of the key -> response
+	 * @return the replies in the order of keys
+	 */
+	private <T> List<T> pipelined(final List<?> keys, final BiFunction<Pipeline, Integer, Response<T>> command) {
+		if (keys.isEmpty()) {
+			return new ArrayList<>();
+		}
+		try (Jedis jedis = jedisPool.getResource()) {
+			Pipeline pipeline = jedis.pipelined();
+			List<Response<T>> responses = new ArrayList<>(keys.size());
+			for (int i = 0; i < keys.size(); i++) {
+				responses.add(command.apply(pipeline, i));
+			}
+			pipeline.sync();
+			List<T> results = new ArrayList<>(keys.size());
+			for (Response<T> response : responses) {
+				results.add(response.get());
+			}
+			return results;
+		}
+	}
+
+	private byte[] scriptSha(final String script) {
+		return scriptShas.computeIfAbsent(script,
+				s -> Hashing.sha1().hashString(s, StandardCharsets.UTF_8).toString().getBytes());
+	}
+
+	static Map<byte[], byte[]> toBinary(final Map<String, byte[]> hash) {
+		Map<byte[], byte[]> binary = new HashMap<>(hash.size() * 2);
+		hash.forEach((field, value) -> binary.put(field.getBytes(StandardCharsets.UTF_8), value));
+		return binary;
+	}
+
+	static Map<String, byte[]> fromBinary(final Map<byte[], byte[]> binary) {
+		Map<String, byte[]> hash = new HashMap<>(binary.size() * 2);
+		binary.forEach((field, value) -> hash.put(new String(field, StandardCharsets.UTF_8), value));
+		return hash;
+	}
+
 }
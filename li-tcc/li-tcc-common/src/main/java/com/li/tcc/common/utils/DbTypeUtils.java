@@ -12,7 +12,7 @@ public class DbTypeUtils {
 	 * check db type
 	 * 
 	 * @param driverClassName
-	 * @return mysql oracle
+	 * @return mysql oracle postgresql
 	 */
 	public static String buildByDriverClassName(final String driverClassName) {
 		String dbType = null;
@@ -20,6 +20,8 @@ public class DbTypeUtils {
 			dbType = CommonConstant.DB_MYSQL;
 		} else if (driverClassName.contains(CommonConstant.DB_ORACLE)) {
 			dbType = CommonConstant.DB_ORACLE;
+		} else if (driverClassName.contains(CommonConstant.DB_POSTGRESQL)) {
+			dbType = CommonConstant.DB_POSTGRESQL;
 		}
 		return dbType;
 	}
@@ -1,9 +1,21 @@
 package com.li.tcc.common.utils;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.li.tcc.common.exception.TccRuntimeException;
 
 /**
  * FileUtils
@@ -12,6 +24,11 @@ import java.nio.channels.FileChannel;
  */
 public class FileUtils {
 
+	/**
+	 * 批量写入时同时打开的文件数上限
+	 */
+	private static final int MAX_OPEN_FILES = 128;
+
 	/**
 	 * 写入文件
 	 * 
@@ -19,11 +36,14 @@ public class FileUtils {
 	 *            文件路径全称
 	 * @param contents
 	 *            内容
+	 * @throws TccRuntimeException
+	 *             写入失败
 	 */
 	public static void writeFile(final String fullFileName, final byte[] contents) {
 		RandomAccessFile raf = null;
 		try {
 			raf = new RandomAccessFile(fullFileName, "rw");
+			raf.setLength(contents.length);
 			try (FileChannel channel = raf.getChannel()) {
 				ByteBuffer buffer = ByteBuffer.allocate(contents.length);
 				buffer.put(contents);
@@ -34,14 +54,126 @@ public class FileUtils {
 				channel.force(true);
 			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new TccRuntimeException(e);
 		} finally {
 			try {
-				raf.close();
+				if (raf != null) {
+					raf.close();
+				}
 			} catch (IOException e) {
 				// TODO Auto-generated catch block
 				e.printStackTrace();
 			}
 		}
 	}
+
+	/**
+	 * 批量写入文件, 先写完一组文件再统一刷盘
+	 * 
+	 * @param files
+	 *            文件路径全称 -> 内容
+	 * @throws TccRuntimeException
+	 *             任一文件写入或刷盘失败
+	 */
+	public static void writeFiles(final Map<String, byte[]> files) {
+		List<FileChannel> channels = new ArrayList<>(Math.min(files.size(), MAX_OPEN_FILES));
+		try {
+			for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+				FileChannel channel = FileChannel.open(Paths.get(entry.getKey()), StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+				channels.add(channel);
+				ByteBuffer buffer = ByteBuffer.wrap(entry.getValue());
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				if (channels.size() >= MAX_OPEN_FILES) {
+					forceAndClose(channels);
+				}
+			}
+			forceAndClose(channels);
+		} catch (IOException e) {
+			throw new TccRuntimeException(e);
+		} finally {
+			for (FileChannel channel : channels) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 以 长度+内容 的格式追加记录并刷盘
+	 * 
+	 * @param fullFileName
+	 *            文件路径全称
+	 * @param records
+	 *            记录
+	 * @throws TccRuntimeException
+	 *             写入失败
+	 */
+	public static void appendRecords(final String fullFileName, final List<byte[]> records) {
+		int length = 0;
+		for (byte[] record : records) {
+			length += Integer.BYTES + record.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		for (byte[] record : records) {
+			buffer.putInt(record.length);
+			buffer.put(record);
+		}
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(Paths.get(fullFileName), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		} catch (IOException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	/**
+	 * 读取 appendRecords 写入的记录, 末尾不完整的记录将被忽略
+	 * 
+	 * @param fullFileName
+	 *            文件路径全称
+	 * @return 记录
+	 */
+	public static List<byte[]> readRecords(final String fullFileName) {
+		List<byte[]> records = new ArrayList<>();
+		File file = new File(fullFileName);
+		if (!file.exists()) {
+			return records;
+		}
+		try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (true) {
+				final int length = dis.readInt();
+				byte[] record = new byte[length];
+				dis.readFully(record);
+				records.add(record);
+			}
+		} catch (EOFException e) {
+			return records;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return records;
+	}
+
+	private static void forceAndClose(final List<FileChannel> channels) throws IOException {
+		try {
+			for (FileChannel channel : channels) {
+				channel.force(true);
+			}
+		} finally {
+			for (FileChannel channel : channels) {
+				channel.close();
+			}
+			channels.clear();
+		}
+	}
 }
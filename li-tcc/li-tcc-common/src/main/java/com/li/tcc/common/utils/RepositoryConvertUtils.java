@@ -8,8 +8,13 @@ import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.exception.TccException;
 import com.li.tcc.common.serializer.ObjectSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * RepositoryConvertUtils
@@ -18,8 +23,148 @@ import java.util.List;
  */
 public class RepositoryConvertUtils {
 
+	/**
+	 * fields of the redis hash of a transaction, numbers and dates in millis are
+	 * stored as decimal strings
+	 */
+	public static final String FIELD_TRANS_ID = "transId";
+
+	public static final String FIELD_STATUS = "status";
+
+	public static final String FIELD_ROLE = "role";
+
+	public static final String FIELD_RETRIED_COUNT = "retriedCount";
+
+	public static final String FIELD_CREATE_TIME = "createTime";
+
+	public static final String FIELD_LAST_TIME = "lastTime";
+
+	public static final String FIELD_VERSION = "version";
+
+	public static final String FIELD_PATTERN = "pattern";
+
+	public static final String FIELD_TARGET_CLASS = "targetClass";
+
+	public static final String FIELD_TARGET_METHOD = "targetMethod";
+
+	public static final String FIELD_CONFIRM_METHOD = "confirmMethod";
+
+	public static final String FIELD_CANCEL_METHOD = "cancelMethod";
+
+	public static final String FIELD_PARTICIPANTS = "participants";
+
 	public static byte[] convert(final TccTransaction tccTransaction, final ObjectSerializer objectSerializer)
 			throws TccException {
+		return objectSerializer.serialize(buildAdapter(tccTransaction, objectSerializer));
+	}
+
+	/**
+	 * 转换为redis hash
+	 * 
+	 * @param tccTransaction
+	 *            事务
+	 * @param objectSerializer
+	 *            序列化
+	 * @return field -> value
+	 * @throws TccException
+	 */
+	public static Map<String, byte[]> convertHash(final TccTransaction tccTransaction,
+			final ObjectSerializer objectSerializer) throws TccException {
+		final CoordinatorRepositoryAdapter adapter = buildAdapter(tccTransaction, objectSerializer);
+		Map<String, byte[]> hash = new HashMap<>(16);
+		putField(hash, FIELD_TRANS_ID, adapter.getTransId());
+		putField(hash, FIELD_STATUS, adapter.getStatus());
+		putField(hash, FIELD_ROLE, adapter.getRole());
+		putField(hash, FIELD_RETRIED_COUNT, adapter.getRetriedCount());
+		putField(hash, FIELD_CREATE_TIME, Objects.isNull(adapter.getCreateTime()) ? null
+				: adapter.getCreateTime().getTime());
+		putField(hash, FIELD_LAST_TIME, Objects.isNull(adapter.getLastTime()) ? null : adapter.getLastTime().getTime());
+		putField(hash, FIELD_VERSION, adapter.getVersion());
+		putField(hash, FIELD_PATTERN, adapter.getPattern());
+		putField(hash, FIELD_TARGET_CLASS, adapter.getTargetClass());
+		putField(hash, FIELD_TARGET_METHOD, adapter.getTargetMethod());
+		putField(hash, FIELD_CONFIRM_METHOD, adapter.getConfirmMethod());
+		putField(hash, FIELD_CANCEL_METHOD, adapter.getCancelMethod());
+		hash.put(FIELD_PARTICIPANTS, adapter.getContents());
+		return hash;
+	}
+
+	/**
+	 * redis hash 转换为adapter
+	 * 
+	 * @param hash
+	 *            field -> value
+	 * @return adapter, hash为空时返回null
+	 */
+	public static CoordinatorRepositoryAdapter transformAdapter(final Map<String, byte[]> hash) {
+		if (Objects.isNull(hash) || !hash.containsKey(FIELD_TRANS_ID)) {
+			return null;
+		}
+		CoordinatorRepositoryAdapter adapter = new CoordinatorRepositoryAdapter();
+		adapter.setTransId(getString(hash, FIELD_TRANS_ID));
+		adapter.setStatus(getInteger(hash, FIELD_STATUS));
+		adapter.setRole(getInteger(hash, FIELD_ROLE));
+		adapter.setRetriedCount(getInteger(hash, FIELD_RETRIED_COUNT));
+		adapter.setCreateTime(getDate(hash, FIELD_CREATE_TIME));
+		adapter.setLastTime(getDate(hash, FIELD_LAST_TIME));
+		adapter.setVersion(getInteger(hash, FIELD_VERSION));
+		adapter.setPattern(hash.containsKey(FIELD_PATTERN) ? getInteger(hash, FIELD_PATTERN) : null);
+		adapter.setTargetClass(getString(hash, FIELD_TARGET_CLASS));
+		adapter.setTargetMethod(getString(hash, FIELD_TARGET_METHOD));
+		adapter.setConfirmMethod(getString(hash, FIELD_CONFIRM_METHOD));
+		adapter.setCancelMethod(getString(hash, FIELD_CANCEL_METHOD));
+		adapter.setContents(hash.get(FIELD_PARTICIPANTS));
+		return adapter;
+	}
+
+	/**
+	 * redis hash 转换为事务
+	 * 
+	 * @param hash
+	 *            field -> value
+	 * @param objectSerializer
+	 *            序列化
+	 * @return 事务, hash为空时返回null
+	 * @throws TccException
+	 */
+	public static TccTransaction transformHash(final Map<String, byte[]> hash,
+			final ObjectSerializer objectSerializer) throws TccException {
+		final CoordinatorRepositoryAdapter adapter = transformAdapter(hash);
+		return Objects.isNull(adapter) ? null : buildTransaction(adapter, objectSerializer);
+	}
+
+	/**
+	 * @param value
+	 *            number or string
+	 * @return bytes of the string value
+	 */
+	public static byte[] toBytes(final Object value) {
+		return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void putField(final Map<String, byte[]> hash, final String field, final Object value) {
+		if (Objects.nonNull(value)) {
+			hash.put(field, toBytes(value));
+		}
+	}
+
+	private static String getString(final Map<String, byte[]> hash, final String field) {
+		final byte[] value = hash.get(field);
+		return Objects.isNull(value) ? null : new String(value, StandardCharsets.UTF_8);
+	}
+
+	private static int getInteger(final Map<String, byte[]> hash, final String field) {
+		final String value = getString(hash, field);
+		return Objects.isNull(value) ? 0 : Integer.parseInt(value);
+	}
+
+	private static Date getDate(final Map<String, byte[]> hash, final String field) {
+		final String value = getString(hash, field);
+		return Objects.isNull(value) ? null : new Date(Long.parseLong(value));
+	}
+
+	private static CoordinatorRepositoryAdapter buildAdapter(final TccTransaction tccTransaction,
+			final ObjectSerializer objectSerializer) throws TccException {
 		CoordinatorRepositoryAdapter adapter = new CoordinatorRepositoryAdapter();
 		adapter.setTransId(tccTransaction.getTransId());
 		adapter.setLastTime(tccTransaction.getLastTime());
@@ -37,15 +182,19 @@ public class RepositoryConvertUtils {
 			adapter.setCancelMethod(participant.getCancelTccInvocation().getMethodName());
 		}
 		adapter.setContents(objectSerializer.serialize(tccTransaction.getParticipants()));
-		return objectSerializer.serialize(adapter);
+		return adapter;
 	}
 
-	@SuppressWarnings("unchecked")
 	public static TccTransaction transformBean(final byte[] contents, final ObjectSerializer objectSerializer)
 			throws TccException {
+		return buildTransaction(objectSerializer.deSerialize(contents, CoordinatorRepositoryAdapter.class),
+				objectSerializer);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static TccTransaction buildTransaction(final CoordinatorRepositoryAdapter adapter,
+			final ObjectSerializer objectSerializer) throws TccException {
 		TccTransaction tccTransaction = new TccTransaction();
-		final CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(contents,
-				CoordinatorRepositoryAdapter.class);
 		List<Participant> participants = objectSerializer.deSerialize(adapter.getContents(), ArrayList.class);
 		tccTransaction.setLastTime(adapter.getLastTime());
 		tccTransaction.setRetriedCount(adapter.getRetriedCount());
@@ -61,4 +210,30 @@ public class RepositoryConvertUtils {
 		return tccTransaction;
 	}
 
+	/**
+	 * 合并追加的参与者
+	 * 
+	 * @param tccTransaction
+	 *            事务
+	 * @param appendContents
+	 *            序列化后的追加参与者
+	 * @param objectSerializer
+	 *            序列化
+	 * @throws TccException
+	 */
+	public static void mergeParticipants(final TccTransaction tccTransaction, final List<byte[]> appendContents,
+			final ObjectSerializer objectSerializer) throws TccException {
+		if (CollectionUtils.isEmpty(appendContents)) {
+			return;
+		}
+		List<Participant> participants = new ArrayList<>();
+		if (CollectionUtils.isNotEmpty(tccTransaction.getParticipants())) {
+			participants.addAll(tccTransaction.getParticipants());
+		}
+		for (byte[] appendContent : appendContents) {
+			participants.add(objectSerializer.deSerialize(appendContent, Participant.class));
+		}
+		tccTransaction.setParticipants(participants);
+	}
+
 }
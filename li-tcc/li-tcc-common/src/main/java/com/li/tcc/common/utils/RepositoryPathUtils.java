@@ -33,6 +33,49 @@ public class RepositoryPathUtils {
 		return String.format(CommonConstant.RECOVER_REDIS_KEY_PRE, applicationName);
 	}
 
+	public static String buildRedisParticipantKeyPrefix(final String applicationName) {
+		return String.format(CommonConstant.RECOVER_REDIS_PARTICIPANT_KEY_PRE, applicationName);
+	}
+
+	public static String buildRedisIndexKey(final String applicationName) {
+		return String.format(CommonConstant.RECOVER_REDIS_INDEX_KEY, applicationName);
+	}
+
+	public static String buildRedisLayoutKey(final String applicationName) {
+		return String.format(CommonConstant.RECOVER_REDIS_LAYOUT_KEY, applicationName);
+	}
+
+	public static String buildRedisStreamKey(final String applicationName) {
+		return String.format(CommonConstant.RECOVER_REDIS_STREAM_KEY, applicationName);
+	}
+
+	public static String buildRedisDueKey(final String applicationName) {
+		return String.format(CommonConstant.RECOVER_REDIS_DUE_KEY, applicationName);
+	}
+
+	public static String buildRedisPartitionsKey(final String applicationName) {
+		return String.format(CommonConstant.RECOVER_REDIS_PARTITIONS_KEY, applicationName);
+	}
+
+	/**
+	 * hash tag of a partition of the redisstream keys of the application
+	 */
+	public static String buildRedisPartitionTag(final String applicationName, final int partition) {
+		return "{" + applicationName + ":" + partition + "}";
+	}
+
+	/**
+	 * the partition of the transaction among the redisstream partitions
+	 */
+	public static int selectRedisPartition(final String transId, final int partitions) {
+		final int hash = transId.hashCode();
+		return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % partitions;
+	}
+
+	public static String getParticipantFileName(final String filePath, final String id) {
+		return getFullFileName(filePath, id) + CommonConstant.PARTICIPANT_FILE_SUFFIX;
+	}
+
 	public static String buildZookeeperPathPrefix(final String applicationName) {
 		return String.join("-", CommonConstant.PATH_SUFFIX, applicationName);
 	}
@@ -0,0 +1,262 @@
+package com.li.tcc.core.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.exception.TccException;
+import com.li.tcc.common.serializer.ObjectSerializer;
+import com.li.tcc.common.utils.LogUtil;
+
+/**
+ * serialized transactions in direct buffers, the tier below the heap cache of
+ * TccTransactionCacheManager.
+ *
+ * the store is split into segments, each one a direct buffer written append
+ * only with an index of transId to slot in insertion order. a full segment
+ * drops expired and then its oldest slots and compacts the live ones to the
+ * front, a dropped transaction is read from the repository again.
+ *
+ * @author yuan.li
+ */
+public final class OffHeapTransactionStore {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapTransactionStore.class);
+
+	private static final int SEGMENTS = 16;
+
+	private final Segment[] segments;
+
+	private final ObjectSerializer serializer;
+
+	private final long expireNanos;
+
+	/**
+	 * @param capacity
+	 *            bytes of all segments
+	 * @param expireSeconds
+	 *            a slot not taken in time is dropped
+	 * @param serializer
+	 *            ObjectSerializer
+	 */
+	public OffHeapTransactionStore(final long capacity, final int expireSeconds, final ObjectSerializer serializer) {
+		final int segmentCapacity = (int) Math.min(Integer.MAX_VALUE, Math.max(1, capacity / SEGMENTS));
+		this.segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(segmentCapacity);
+		}
+		this.serializer = serializer;
+		this.expireNanos = TimeUnit.SECONDS.toNanos(expireSeconds);
+	}
+
+	/**
+	 * store the transaction, replacing a stored one with the same transId
+	 *
+	 * @param tccTransaction
+	 *            TccTransaction
+	 */
+	public void put(final TccTransaction tccTransaction) {
+		final byte[] contents;
+		try {
+			contents = serializer.serialize(tccTransaction);
+		} catch (TccException e) {
+			LogUtil.error(LOGGER, "serialize tccTransaction exception:{}", e::getMessage);
+			return;
+		}
+		segmentFor(tccTransaction.getTransId()).put(tccTransaction.getTransId(), contents, System.nanoTime());
+	}
+
+	/**
+	 * remove and return the transaction
+	 *
+	 * @param transId
+	 *            transId
+	 * @return TccTransaction or null when not stored or expired
+	 */
+	public TccTransaction take(final String transId) {
+		final byte[] contents = segmentFor(transId).take(transId, System.nanoTime());
+		if (Objects.isNull(contents)) {
+			return null;
+		}
+		try {
+			return serializer.deSerialize(contents, TccTransaction.class);
+		} catch (TccException e) {
+			LogUtil.error(LOGGER, "deSerialize tccTransaction exception:{}", e::getMessage);
+			return null;
+		}
+	}
+
+	/**
+	 * remove the transaction
+	 *
+	 * @param transId
+	 *            transId
+	 */
+	public void remove(final String transId) {
+		segmentFor(transId).remove(transId);
+	}
+
+	/**
+	 * @return stored transactions, expired ones included until they are dropped
+	 */
+	public long size() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return transactions dropped for room or expiry
+	 */
+	public long evictionCount() {
+		long evictionCount = 0;
+		for (Segment segment : segments) {
+			evictionCount += segment.evictionCount();
+		}
+		return evictionCount;
+	}
+
+	private Segment segmentFor(final String transId) {
+		final int hash = transId.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+	}
+
+	private final class Segment {
+
+		private final ByteBuffer buffer;
+
+		private final int capacity;
+
+		private final LinkedHashMap<String, Slot> index = new LinkedHashMap<>();
+
+		private int position;
+
+		private int liveBytes;
+
+		private long evictionCount;
+
+		private Segment(final int capacity) {
+			this.buffer = ByteBuffer.allocateDirect(capacity);
+			this.capacity = capacity;
+		}
+
+		private synchronized void put(final String transId, final byte[] contents, final long now) {
+			remove(transId);
+			if (contents.length > capacity) {
+				evictionCount++;
+				return;
+			}
+			if (capacity - position < contents.length) {
+				makeRoom(contents.length, now);
+			}
+			buffer.position(position);
+			buffer.put(contents);
+			index.put(transId, new Slot(position, contents.length, now));
+			position += contents.length;
+			liveBytes += contents.length;
+		}
+
+		private synchronized byte[] take(final String transId, final long now) {
+			final Slot slot = index.remove(transId);
+			if (Objects.isNull(slot)) {
+				return null;
+			}
+			liveBytes -= slot.length;
+			if (slot.isExpired(now)) {
+				evictionCount++;
+				return null;
+			}
+			final byte[] contents = new byte[slot.length];
+			buffer.position(slot.offset);
+			buffer.get(contents);
+			return contents;
+		}
+
+		private synchronized void remove(final String transId) {
+			final Slot slot = index.remove(transId);
+			if (Objects.nonNull(slot)) {
+				liveBytes -= slot.length;
+			}
+		}
+
+		private synchronized int size() {
+			return index.size();
+		}
+
+		private synchronized long evictionCount() {
+			return evictionCount;
+		}
+
+		/**
+		 * drop expired slots, then the oldest until a quarter of the segment is
+		 * free besides the new contents, and compact
+		 */
+		private void makeRoom(final int length, final long now) {
+			final int target = Math.max(0, capacity - length - (capacity >> 2));
+			final Iterator<Map.Entry<String, Slot>> iterator = index.entrySet().iterator();
+			while (iterator.hasNext()) {
+				final Slot slot = iterator.next().getValue();
+				if (slot.isExpired(now) || liveBytes > target) {
+					iterator.remove();
+					liveBytes -= slot.length;
+					evictionCount++;
+				}
+			}
+			compact();
+		}
+
+		/**
+		 * slots are in offset order, so moving each one down never overwrites a
+		 * slot not yet moved
+		 */
+		private void compact() {
+			int write = 0;
+			byte[] copy = new byte[0];
+			for (Slot slot : index.values()) {
+				if (slot.offset != write) {
+					if (copy.length < slot.length) {
+						copy = new byte[slot.length];
+					}
+					buffer.position(slot.offset);
+					buffer.get(copy, 0, slot.length);
+					buffer.position(write);
+					buffer.put(copy, 0, slot.length);
+					slot.offset = write;
+				}
+				write += slot.length;
+			}
+			position = write;
+		}
+	}
+
+	private final class Slot {
+
+		private int offset;
+
+		private final int length;
+
+		private final long createTime;
+
+		private Slot(final int offset, final int length, final long createTime) {
+			this.offset = offset;
+			this.length = length;
+			this.createTime = createTime;
+		}
+
+		private boolean isExpired(final long now) {
+			return now - createTime > expireNanos;
+		}
+	}
+}
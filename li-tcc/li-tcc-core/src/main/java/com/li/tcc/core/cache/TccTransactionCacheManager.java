@@ -1,58 +1,193 @@
 package com.li.tcc.core.cache;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.Weigher;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.li.tcc.common.bean.entity.Participant;
+import com.li.tcc.common.bean.entity.TccInvocation;
 import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.enums.TccRoleEnum;
+import com.li.tcc.common.serializer.ObjectSerializer;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.core.concurrent.threadpool.LiThreadFactory;
 import com.li.tcc.core.coordinator.CoordinatorService;
 import com.li.tcc.core.helper.SpringBeanUtils;
 
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * use google guava cache
+ * use google guava cache, transactions of the participant side by transId.
+ * 
+ * the weight of a transaction is its participants and their arguments, entries
+ * expire after recoverDelayTime without access, from then on the recovery
+ * owns the transaction. a miss reads the repository, a transaction the
+ * repository does not have is not cached.
+ * 
+ * with offHeapCache, transactions evicted for weight are kept serialized in an
+ * OffHeapTransactionStore and moved back to the heap on their next access, so
+ * the heap cache can stay a small hot set. removed transIds are remembered for
+ * a short while, so an eviction racing with the remove does not put the
+ * transaction back into the store.
  * 
  * @author yuan.li
  */
 public final class TccTransactionCacheManager {
 
-	private static final int MAX_COUNT = 10000;
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(TccTransactionCacheManager.class);
 
-	private static final LoadingCache<String, TccTransaction> LOADING_CACHE = CacheBuilder.newBuilder()
-			.maximumWeight(MAX_COUNT).weigher((Weigher<String, TccTransaction>) (string, tccTransaction) -> getSize())
-			.build(new CacheLoader<String, TccTransaction>() {
-				@Override
-				public TccTransaction load(final String key) {
-					return cacheTccTransaction(key);
-				}
-			});
+	private static final TccTransactionCacheManager TCC_TRANSACTION_CACHE_MANAGER = new TccTransactionCacheManager();
 
-	private static CoordinatorService coordinatorService = SpringBeanUtils.getInstance().getBean(
-			CoordinatorService.class);
+	/**
+	 * seconds a removed transId is remembered, far longer than an eviction
+	 * takes to reach the store
+	 */
+	private static final int REMOVED_EXPIRE_SECONDS = 10;
 
-	private static final TccTransactionCacheManager TCC_TRANSACTION_CACHE_MANAGER = new TccTransactionCacheManager();
+	private volatile Cache<String, TccTransaction> cache = buildCache(new TccConfig(), null, null);
+
+	private volatile OffHeapTransactionStore offHeapStore;
+
+	private volatile Cache<String, Boolean> removedKeys;
+
+	private CoordinatorService coordinatorService;
 
 	private TccTransactionCacheManager() {
 
 	}
 
 	/**
-	 * @return
+	 * @return TccTransactionCacheManager
 	 */
 	public static TccTransactionCacheManager getInstance() {
 		return TCC_TRANSACTION_CACHE_MANAGER;
 	}
 
-	private static int getSize() {
-		return (int) LOADING_CACHE.size();
+	/**
+	 * rebuild the cache with the configured weight and expiry
+	 *
+	 * @param tccConfig
+	 *            cacheMaxWeight, recoverDelayTime, offHeapCache and
+	 *            offHeapCacheSize
+	 * @param serializer
+	 *            serializer of the off-heap store
+	 */
+	public void start(final TccConfig tccConfig, final ObjectSerializer serializer) {
+		OffHeapTransactionStore store = null;
+		Cache<String, Boolean> removed = null;
+		if (tccConfig.isOffHeapCache()) {
+			store = new OffHeapTransactionStore((long) tccConfig.getOffHeapCacheSize() << 20,
+					Math.max(1, tccConfig.getRecoverDelayTime()), serializer);
+			removed = CacheBuilder.newBuilder().expireAfterWrite(REMOVED_EXPIRE_SECONDS, TimeUnit.SECONDS).build();
+		}
+		offHeapStore = store;
+		removedKeys = removed;
+		cache = buildCache(tccConfig, store, removed);
 	}
 
-	private static TccTransaction cacheTccTransaction(final String key) {
-		return Optional.ofNullable(coordinatorService.findByTransId(key)).orElse(new TccTransaction());
+	private static Cache<String, TccTransaction> buildCache(final TccConfig tccConfig,
+			final OffHeapTransactionStore store, final Cache<String, Boolean> removed) {
+		CacheBuilder<String, TccTransaction> builder = CacheBuilder.newBuilder()
+				.maximumWeight(tccConfig.getCacheMaxWeight())
+				.weigher((String key, TccTransaction tccTransaction) -> weigh(tccTransaction))
+				.expireAfterAccess(Math.max(1, tccConfig.getRecoverDelayTime()), TimeUnit.SECONDS).recordStats();
+		if (Objects.nonNull(store)) {
+			// only weight evictions move down, an expired transaction belongs to the recovery
+			builder = builder.removalListener((RemovalNotification<String, TccTransaction> notification) -> {
+				final String key = notification.getKey();
+				if (notification.getCause() == RemovalCause.SIZE && Objects.isNull(removed.getIfPresent(key))) {
+					store.put(notification.getValue());
+					// a remove between the check and the put did not see the transaction in the store
+					if (Objects.nonNull(removed.getIfPresent(key))) {
+						store.remove(key);
+					}
+				}
+			});
+		}
+		return builder.build();
+	}
+
+	/**
+	 * load the transactions of the participant role from the repository before
+	 * the rpc services are exported, so confirm and cancel after a restart find
+	 * them cached. the load stops at cacheWarmUpTimeout and startup goes on.
+	 *
+	 * @param tccConfig
+	 *            cacheWarmUp and cacheWarmUpTimeout
+	 */
+	public void warmUp(final TccConfig tccConfig) {
+		if (!tccConfig.isCacheWarmUp()) {
+			return;
+		}
+		final AtomicBoolean stopped = new AtomicBoolean(false);
+		final LongAdder count = new LongAdder();
+		final Thread thread = LiThreadFactory.create("li-cache-warm-up", true).newThread(() -> {
+			try {
+				getCoordinatorService().scan(TccRoleEnum.PROVIDER.getCode(), tccTransaction -> {
+					// after the timeout a confirm may already have removed it, the scan ends and frees its connection
+					if (stopped.get()) {
+						throw WarmUpStoppedException.INSTANCE;
+					}
+					cache.asMap().putIfAbsent(tccTransaction.getTransId(), tccTransaction);
+					count.increment();
+				});
+			} catch (WarmUpStoppedException e) {
+				LogUtil.debug(LOGGER, "cache warm up stopped, loaded:{}", count::sum);
+			} catch (Exception e) {
+				LogUtil.error(LOGGER, "cache warm up exception:{}", e::getMessage);
+			}
+		});
+		thread.start();
+		try {
+			thread.join(tccConfig.getCacheWarmUpTimeout());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		stopped.set(true);
+		if (thread.isAlive()) {
+			LogUtil.warn(LOGGER, "cache warm up timeout, loaded:{}", count::sum);
+		} else {
+			LogUtil.info(LOGGER, "cache warm up loaded:{}", count::sum);
+		}
+	}
+
+	/**
+	 * one for the transaction, one for every participant and its arguments
+	 */
+	private static int weigh(final TccTransaction tccTransaction) {
+		int weight = 1;
+		final List<Participant> participants = tccTransaction.getParticipants();
+		if (Objects.isNull(participants)) {
+			return weight;
+		}
+		for (Participant participant : participants) {
+			weight += 1 + argsLength(participant.getConfirmTccInvocation())
+					+ argsLength(participant.getCancelTccInvocation());
+		}
+		return weight;
+	}
+
+	private static int argsLength(final TccInvocation tccInvocation) {
+		if (Objects.isNull(tccInvocation) || Objects.isNull(tccInvocation.getArgs())) {
+			return 0;
+		}
+		return tccInvocation.getArgs().length;
 	}
 
 	/**
@@ -61,24 +196,39 @@ public final class TccTransactionCacheManager {
 	 * @param tccTransaction
 	 */
 	public void cacheTccTransaction(final TccTransaction tccTransaction) {
-		LOADING_CACHE.put(tccTransaction.getTransId(), tccTransaction);
+		cache.put(tccTransaction.getTransId(), tccTransaction);
 	}
 
 	/**
-	 * get TccTransaction
+	 * get TccTransaction, concurrent misses of one key read the repository once
 	 * 
 	 * @param key
 	 *            this guava key
-	 * @return
+	 * @return TccTransaction or null when the repository does not have it
 	 */
 	public TccTransaction getTccTransaction(final String key) {
 		try {
-			return LOADING_CACHE.get(key);
-		} catch (ExecutionException e) {
-			return new TccTransaction();
+			return cache.get(key, () -> load(key));
+		} catch (InvalidCacheLoadException e) {
+			// not found, a null load is not cached
+			return null;
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			LogUtil.error(LOGGER, "load tccTransaction exception:{}", e::getCause);
+			return null;
 		}
 	}
 
+	private TccTransaction load(final String key) {
+		final OffHeapTransactionStore store = offHeapStore;
+		if (Objects.nonNull(store)) {
+			final TccTransaction tccTransaction = store.take(key);
+			if (Objects.nonNull(tccTransaction)) {
+				return tccTransaction;
+			}
+		}
+		return getCoordinatorService().findByTransId(key);
+	}
+
 	/**
 	 * remove guava cache by key
 	 * 
@@ -87,8 +237,54 @@ public final class TccTransactionCacheManager {
 	 */
 	public void removeByKey(final String key) {
 		if (StringUtils.isNotEmpty(key)) {
-			LOADING_CACHE.invalidate(key);
+			final OffHeapTransactionStore store = offHeapStore;
+			final Cache<String, Boolean> removed = removedKeys;
+			if (Objects.nonNull(removed)) {
+				// marked first, so an eviction of the key in flight does not revive it
+				removed.put(key, Boolean.TRUE);
+			}
+			cache.invalidate(key);
+			if (Objects.nonNull(store)) {
+				store.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * hit, miss, load and eviction counts since start
+	 *
+	 * @return CacheStats
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * @return transactions in the off-heap store, 0 when it is disabled
+	 */
+	public long offHeapSize() {
+		final OffHeapTransactionStore store = offHeapStore;
+		return Objects.isNull(store) ? 0 : store.size();
+	}
+
+	private CoordinatorService getCoordinatorService() {
+		if (Objects.isNull(coordinatorService)) {
+			coordinatorService = SpringBeanUtils.getInstance().getBean(CoordinatorService.class);
 		}
+		return coordinatorService;
 	}
 
+	/**
+	 * thrown by the warm up consumer after the timeout to end the scan
+	 */
+	private static final class WarmUpStoppedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final WarmUpStoppedException INSTANCE = new WarmUpStoppedException();
+
+		private WarmUpStoppedException() {
+			super(null, null, false, false);
+		}
+	}
 }
@@ -1,5 +1,11 @@
 package com.li.tcc.core.coordinator;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.config.TccConfig;
 
@@ -58,6 +64,15 @@ public interface CoordinatorService {
 	 */
 	int updateParticipant(TccTransaction tccTransaction);
 
+	/**
+	 * append the participants enlisted since the last write
+	 * 
+	 * @param tccTransaction
+	 * @param participants
+	 * @return rows
+	 */
+	int appendParticipant(TccTransaction tccTransaction, List<Participant> participants);
+
 	/**
 	 * update TccTransaction status
 	 * 
@@ -69,4 +84,55 @@ public interface CoordinatorService {
 	 */
 	int updateStatus(String id, Integer status);
 
+	/**
+	 * batch save tccTransaction
+	 * 
+	 * @param tccTransactions
+	 * @return rows
+	 */
+	int batchSave(List<TccTransaction> tccTransactions);
+
+	/**
+	 * batch remove transaction
+	 * 
+	 * @param ids
+	 *            transaction pk list
+	 * @return rows
+	 */
+	int batchRemove(List<String> ids);
+
+	/**
+	 * batch update Participant field
+	 * 
+	 * @param tccTransactions
+	 * @return rows
+	 */
+	int batchUpdateParticipant(List<TccTransaction> tccTransactions);
+
+	/**
+	 * batch update TccTransaction status
+	 * 
+	 * @param statuses
+	 *            pk -> status
+	 * @return rows
+	 */
+	int batchUpdateStatus(Map<String, Integer> statuses);
+
+	/**
+	 * wait for the writes issued by the calling thread
+	 * 
+	 * @return completed once the writes are stored
+	 */
+	CompletableFuture<Void> flush();
+
+	/**
+	 * stream the transactions of a role
+	 * 
+	 * @param role
+	 *            TccRoleEnum
+	 * @param consumer
+	 *            may be called from several threads
+	 */
+	void scan(int role, Consumer<TccTransaction> consumer);
+
 }
@@ -1,15 +1,22 @@
 package com.li.tcc.core.coordinator.impl;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.config.TccConfig;
 import com.li.tcc.core.coordinator.CoordinatorService;
 import com.li.tcc.core.helper.SpringBeanUtils;
 import com.li.tcc.core.schedule.ScheduledService;
 import com.li.tcc.core.service.RpcApplicationService;
+import com.li.tcc.core.service.executor.LiPhaseExecutor;
 import com.li.tcc.core.spi.CoordinatorRepository;
 
 /**
@@ -24,9 +31,13 @@ public class CoordinatorServiceImpl implements CoordinatorService {
 
 	private final RpcApplicationService rpcApplicationService;
 
+	private final LiPhaseExecutor liPhaseExecutor;
+
 	@Autowired
-	public CoordinatorServiceImpl(final RpcApplicationService rpcApplicationService) {
+	public CoordinatorServiceImpl(final RpcApplicationService rpcApplicationService,
+			final LiPhaseExecutor liPhaseExecutor) {
 		this.rpcApplicationService = rpcApplicationService;
+		this.liPhaseExecutor = liPhaseExecutor;
 	}
 
 	@Override
@@ -34,7 +45,7 @@ public class CoordinatorServiceImpl implements CoordinatorService {
 		final String repositorySuffix = buildRepositorySuffix(tccConfig.getRepositorySuffix());
 		coordinatorRepository = SpringBeanUtils.getInstance().getBean(CoordinatorRepository.class);
 		coordinatorRepository.init(repositorySuffix, tccConfig);
-		new ScheduledService(tccConfig, coordinatorRepository).scheduledRollBack();
+		new ScheduledService(tccConfig, coordinatorRepository, liPhaseExecutor).scheduledRollBack();
 	}
 
 	@Override
@@ -66,11 +77,46 @@ public class CoordinatorServiceImpl implements CoordinatorService {
 		return coordinatorRepository.updateParticipant(tccTransaction);
 	}
 
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		return coordinatorRepository.appendParticipant(tccTransaction, participants);
+	}
+
 	@Override
 	public int updateStatus(final String id, final Integer status) {
 		return coordinatorRepository.updateStatus(id, status);
 	}
 
+	@Override
+	public int batchSave(final List<TccTransaction> tccTransactions) {
+		return coordinatorRepository.batchCreate(tccTransactions);
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		return coordinatorRepository.batchRemove(ids);
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		return coordinatorRepository.batchUpdateParticipant(tccTransactions);
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		return coordinatorRepository.batchUpdateStatus(statuses);
+	}
+
+	@Override
+	public CompletableFuture<Void> flush() {
+		return coordinatorRepository.flush();
+	}
+
+	@Override
+	public void scan(final int role, final Consumer<TccTransaction> consumer) {
+		coordinatorRepository.scan(role, consumer);
+	}
+
 	private String buildRepositorySuffix(final String repositorySuffix) {
 		if (StringUtils.isNoneBlank(repositorySuffix)) {
 			return repositorySuffix;
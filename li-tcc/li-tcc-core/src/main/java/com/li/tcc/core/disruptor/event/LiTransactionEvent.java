@@ -1,7 +1,9 @@
 package com.li.tcc.core.disruptor.event;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
 
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 
 /**
@@ -17,11 +19,23 @@ public class LiTransactionEvent implements Serializable {
 
 	private int type;
 
+	/**
+	 * the enlisted participant of APPEND_PARTICIPANT
+	 */
+	private Participant participant;
+
+	/**
+	 * completed when the batch of this event is written, only for group commit
+	 */
+	private transient CompletableFuture<Void> future;
+
 	/**
 	 * help gc
 	 */
 	public void clear() {
 		tccTransaction = null;
+		participant = null;
+		future = null;
 	}
 
 	public TccTransaction getTccTransaction() {
@@ -39,4 +53,20 @@ public class LiTransactionEvent implements Serializable {
 	public void setType(int type) {
 		this.type = type;
 	}
+
+	public Participant getParticipant() {
+		return participant;
+	}
+
+	public void setParticipant(Participant participant) {
+		this.participant = participant;
+	}
+
+	public CompletableFuture<Void> getFuture() {
+		return future;
+	}
+
+	public void setFuture(CompletableFuture<Void> future) {
+		this.future = future;
+	}
 }
@@ -1,37 +1,237 @@
 package com.li.tcc.core.disruptor.handler;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.enums.EventTypeEnum;
+import com.li.tcc.common.utils.LogUtil;
 import com.li.tcc.core.coordinator.CoordinatorService;
 import com.li.tcc.core.disruptor.event.LiTransactionEvent;
 import com.lmax.disruptor.EventHandler;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
-
 /**
- * Disroptor handler
+ * Disroptor handler, one instance per disruptor lane.
+ * 
+ * events of one disruptor batch are merged by transId and written when
+ * endOfBatch arrives through the batch api of the repository, a transaction
+ * saved and deleted in the same batch never reaches the repository. group
+ * commit futures are completed once the writes of the batch are stored, which
+ * for a repository writing without waiting happens on its writer thread.
  * 
  * @author yuan.li
  */
-@Component
 public class LiTransactionEventHandler implements EventHandler<LiTransactionEvent> {
 
-	@Autowired
-	private CoordinatorService coordinatorService;
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(LiTransactionEventHandler.class);
+
+	private final CoordinatorService coordinatorService;
+
+	/**
+	 * pending writes of the current batch, in first seen order
+	 */
+	private final Map<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+
+	/**
+	 * group commit futures of transactions saved and deleted in the same batch
+	 */
+	private final List<CompletableFuture<Void>> elidedFutures = new ArrayList<>();
+
+	public LiTransactionEventHandler(final CoordinatorService coordinatorService) {
+		this.coordinatorService = coordinatorService;
+	}
 
 	@Override
 	public void onEvent(final LiTransactionEvent liTransactionEvent, final long sequence, final boolean endOfBatch) {
-		if (liTransactionEvent.getType() == EventTypeEnum.SAVE.getCode()) {
-			coordinatorService.save(liTransactionEvent.getTccTransaction());
-		} else if (liTransactionEvent.getType() == EventTypeEnum.UPDATE_PARTICIPANT.getCode()) {
-			coordinatorService.updateParticipant(liTransactionEvent.getTccTransaction());
-		} else if (liTransactionEvent.getType() == EventTypeEnum.UPDATE_STATUS.getCode()) {
-			final TccTransaction tccTransaction = liTransactionEvent.getTccTransaction();
-			coordinatorService.updateStatus(tccTransaction.getTransId(), tccTransaction.getStatus());
-		} else if (liTransactionEvent.getType() == EventTypeEnum.DELETE.getCode()) {
-			coordinatorService.remove(liTransactionEvent.getTccTransaction().getTransId());
-		}
+		merge(liTransactionEvent.getTccTransaction(), liTransactionEvent.getType(),
+				liTransactionEvent.getParticipant(), liTransactionEvent.getFuture());
 		liTransactionEvent.clear();
+		if (endOfBatch) {
+			flush();
+		}
+	}
+
+	private void merge(final TccTransaction tccTransaction, final int type, final Participant participant,
+			final CompletableFuture<Void> future) {
+		if (Objects.isNull(tccTransaction)) {
+			return;
+		}
+		final String transId = tccTransaction.getTransId();
+		final PendingWrite pendingWrite = pendingWrites.computeIfAbsent(transId, k -> new PendingWrite());
+		if (Objects.nonNull(future)) {
+			pendingWrite.addFuture(future);
+		}
+		if (type == EventTypeEnum.SAVE.getCode()) {
+			// a copy made by the publisher, owned by this handler
+			pendingWrite.tccTransaction = tccTransaction;
+			pendingWrite.save = true;
+		} else if (pendingWrite.save) {
+			mergeIntoSave(pendingWrite, tccTransaction, type, participant);
+		} else {
+			pendingWrite.tccTransaction = tccTransaction;
+			if (type == EventTypeEnum.UPDATE_PARTICIPANT.getCode()) {
+				// a full write covers every appended participant
+				pendingWrite.updateParticipant = true;
+				pendingWrite.appendParticipants.clear();
+			} else if (type == EventTypeEnum.APPEND_PARTICIPANT.getCode()) {
+				if (!pendingWrite.updateParticipant && Objects.nonNull(participant)) {
+					pendingWrite.appendParticipants.add(participant);
+				}
+			} else if (type == EventTypeEnum.UPDATE_STATUS.getCode()) {
+				pendingWrite.status = tccTransaction.getStatus();
+			} else if (type == EventTypeEnum.DELETE.getCode()) {
+				pendingWrite.delete = true;
+				pendingWrite.updateParticipant = false;
+				pendingWrite.appendParticipants.clear();
+				pendingWrite.status = null;
+			}
+		}
+	}
+
+	private void mergeIntoSave(final PendingWrite pendingWrite, final TccTransaction tccTransaction, final int type,
+			final Participant participant) {
+		final TccTransaction saveTransaction = pendingWrite.tccTransaction;
+		if (type == EventTypeEnum.UPDATE_PARTICIPANT.getCode()) {
+			saveTransaction.setParticipants(new ArrayList<>(tccTransaction.getParticipants()));
+		} else if (type == EventTypeEnum.APPEND_PARTICIPANT.getCode()) {
+			if (Objects.nonNull(participant)) {
+				saveTransaction.registerParticipant(participant);
+			}
+		} else if (type == EventTypeEnum.UPDATE_STATUS.getCode()) {
+			saveTransaction.setStatus(tccTransaction.getStatus());
+		} else if (type == EventTypeEnum.DELETE.getCode()) {
+			pendingWrites.remove(tccTransaction.getTransId());
+			if (Objects.nonNull(pendingWrite.futures)) {
+				elidedFutures.addAll(pendingWrite.futures);
+			}
+		}
+	}
+
+	private void flush() {
+		final List<PendingWrite> removes = new ArrayList<>();
+		final List<PendingWrite> saves = new ArrayList<>();
+		final List<PendingWrite> participants = new ArrayList<>();
+		final List<PendingWrite> appends = new ArrayList<>();
+		final List<PendingWrite> statuses = new ArrayList<>();
+		for (PendingWrite pendingWrite : pendingWrites.values()) {
+			if (pendingWrite.delete) {
+				removes.add(pendingWrite);
+			} else if (pendingWrite.save) {
+				saves.add(pendingWrite);
+			} else {
+				if (pendingWrite.updateParticipant) {
+					participants.add(pendingWrite);
+				} else if (!pendingWrite.appendParticipants.isEmpty()) {
+					appends.add(pendingWrite);
+				}
+				if (Objects.nonNull(pendingWrite.status)) {
+					statuses.add(pendingWrite);
+				}
+			}
+		}
+		if (!removes.isEmpty()) {
+			write(removes, () -> coordinatorService.batchRemove(
+					removes.stream().map(p -> p.tccTransaction.getTransId()).collect(Collectors.toList())));
+		}
+		if (!saves.isEmpty()) {
+			write(saves, () -> coordinatorService
+					.batchSave(saves.stream().map(p -> p.tccTransaction).collect(Collectors.toList())));
+		}
+		if (!participants.isEmpty()) {
+			write(participants, () -> coordinatorService.batchUpdateParticipant(
+					participants.stream().map(p -> p.tccTransaction).collect(Collectors.toList())));
+		}
+		for (PendingWrite pendingWrite : appends) {
+			write(Collections.singletonList(pendingWrite), () -> coordinatorService
+					.appendParticipant(pendingWrite.tccTransaction, pendingWrite.appendParticipants));
+		}
+		if (!statuses.isEmpty()) {
+			final Map<String, Integer> statusMap = new LinkedHashMap<>();
+			statuses.forEach(p -> statusMap.put(p.tccTransaction.getTransId(), p.status));
+			write(statuses, () -> coordinatorService.batchUpdateStatus(statusMap));
+		}
+		final List<PendingWrite> written = new ArrayList<>(pendingWrites.values());
+		final List<CompletableFuture<Void>> elided = new ArrayList<>(elidedFutures);
+		pendingWrites.clear();
+		elidedFutures.clear();
+		coordinatorService.flush().whenComplete((v, e) -> {
+			written.forEach(pendingWrite -> pendingWrite.complete(e));
+			elided.forEach(future -> future.complete(null));
+		});
+	}
+
+	private void write(final List<PendingWrite> group, final Runnable batchWrite) {
+		try {
+			batchWrite.run();
+		} catch (Exception e) {
+			LogUtil.error(LOGGER, "write transaction log exception:{}", () -> e);
+			group.forEach(pendingWrite -> pendingWrite.error = e);
+		}
+	}
+
+	/**
+	 * merged events of one transaction
+	 */
+	private static final class PendingWrite {
+
+		private TccTransaction tccTransaction;
+
+		private boolean save;
+
+		private boolean delete;
+
+		private boolean updateParticipant;
+
+		private final List<Participant> appendParticipants = new ArrayList<>();
+
+		private Integer status;
+
+		/**
+		 * group commit futures of the merged events
+		 */
+		private List<CompletableFuture<Void>> futures;
+
+		private Throwable error;
+
+		private void addFuture(final CompletableFuture<Void> future) {
+			if (Objects.isNull(futures)) {
+				futures = new ArrayList<>();
+			}
+			futures.add(future);
+		}
+
+		/**
+		 * @param flushError
+		 *            error of the writes of the batch not yet stored when their
+		 *            write returned
+		 */
+		private void complete(final Throwable flushError) {
+			if (Objects.isNull(futures)) {
+				return;
+			}
+			if (Objects.isNull(error)) {
+				error = flushError;
+			}
+			for (CompletableFuture<Void> future : futures) {
+				if (Objects.isNull(error)) {
+					future.complete(null);
+				} else {
+					future.completeExceptionally(error);
+				}
+			}
+		}
 	}
 }
@@ -1,23 +1,41 @@
 package com.li.tcc.core.disruptor.publisher;
 
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.li.tcc.common.annotation.DurabilityEnum;
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.enums.EventTypeEnum;
+import com.li.tcc.common.enums.PublishModeEnum;
+import com.li.tcc.common.enums.WaitStrategyEnum;
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.core.coordinator.CoordinatorService;
 import com.li.tcc.core.concurrent.threadpool.LiThreadFactory;
 import com.li.tcc.core.disruptor.event.LiTransactionEvent;
 import com.li.tcc.core.disruptor.factory.LiTransactionEventFactory;
 import com.li.tcc.core.disruptor.handler.LiTransactionEventHandler;
-import com.li.tcc.core.disruptor.translator.LiTransactionEventTranslator;
 import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 
@@ -29,37 +47,66 @@ import com.lmax.disruptor.dsl.ProducerType;
 @Component
 public class LiTransactionEventPublisher implements DisposableBean {
 
-	private static final int MAX_THREAD = Runtime.getRuntime().availableProcessors() << 1;
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(LiTransactionEventPublisher.class);
+
+	private Executor[] executors;
 
-	private Executor executor;
+	private Disruptor<LiTransactionEvent>[] disruptors;
 
-	private Disruptor<LiTransactionEvent> disruptor;
+	private RingBuffer<LiTransactionEvent>[] ringBuffers;
 
-	private final LiTransactionEventHandler liTransactionEventHandler;
+	private final CoordinatorService coordinatorService;
+
+	private DurabilityEnum durability;
+
+	private long durabilityTimeout;
 
 	@Autowired
-	public LiTransactionEventPublisher(LiTransactionEventHandler liTransactionEventHandler) {
-		this.liTransactionEventHandler = liTransactionEventHandler;
+	public LiTransactionEventPublisher(final CoordinatorService coordinatorService) {
+		this.coordinatorService = coordinatorService;
 	}
 
 	/**
-	 * disruptor start
+	 * disruptor start, every lane has its own ring buffer and handler thread
 	 *
-	 * @param bufferSize
-	 *            this is disruptor buffer size
+	 * @param tccConfig
+	 *            bufferSize, publishMode, waitStrategy, producerType and
+	 *            disruptorLanes
 	 */
-	public void start(final int bufferSize) {
-		disruptor = new Disruptor<>(new LiTransactionEventFactory(), bufferSize, r -> {
-			AtomicInteger index = new AtomicInteger(1);
-			return new Thread(null, r, "disruptor-thread-" + index.getAndIncrement());
-		}, ProducerType.MULTI, new BlockingWaitStrategy());
-
-		executor = new ThreadPoolExecutor(MAX_THREAD, MAX_THREAD, 0, TimeUnit.MILLISECONDS,
-				new LinkedBlockingQueue<>(), LiThreadFactory.create("li-log-disruptor", false),
-				new ThreadPoolExecutor.AbortPolicy());
-
-		disruptor.handleEventsWith(liTransactionEventHandler);
-		disruptor.start();
+	@SuppressWarnings("unchecked")
+	public void start(final TccConfig tccConfig) {
+		durability = DurabilityEnum.getEnum(tccConfig.getDurability());
+		durabilityTimeout = tccConfig.getDurabilityTimeout();
+		final ProducerType producerType = buildProducerType(tccConfig.getProducerType());
+		final WaitStrategyEnum waitStrategyEnum = WaitStrategyEnum.getEnum(tccConfig.getWaitStrategy());
+		final int lanes = Math.max(1, tccConfig.getDisruptorLanes());
+		disruptors = new Disruptor[lanes];
+		ringBuffers = new RingBuffer[lanes];
+		for (int i = 0; i < lanes; i++) {
+			final String threadName = "disruptor-thread-" + i;
+			final Disruptor<LiTransactionEvent> disruptor = new Disruptor<>(new LiTransactionEventFactory(),
+					tccConfig.getBufferSize(), (ThreadFactory) r -> new Thread(null, r, threadName), producerType,
+					buildWaitStrategy(waitStrategyEnum));
+			disruptor.handleEventsWith(new LiTransactionEventHandler(coordinatorService));
+			disruptors[i] = disruptor;
+			ringBuffers[i] = disruptor.start();
+		}
+
+		final PublishModeEnum publishMode = PublishModeEnum.getEnum(tccConfig.getPublishMode());
+		if (publishMode == PublishModeEnum.EXECUTOR) {
+			// one publish thread per lane, so events of one transaction are not reordered by the hop
+			executors = new Executor[lanes];
+			for (int i = 0; i < lanes; i++) {
+				executors[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+						LiThreadFactory.create("li-log-disruptor", false), new ThreadPoolExecutor.AbortPolicy());
+			}
+		} else if (producerType == ProducerType.SINGLE) {
+			LogUtil.warn(LOGGER, () -> "disruptor producerType single with publishMode direct is only safe "
+					+ "when one thread publishes events");
+		}
 	}
 
 	/**
@@ -71,15 +118,143 @@ public class LiTransactionEventPublisher implements DisposableBean {
 	 *            EventTypeEnum
 	 */
 	public void publishEvent(final TccTransaction tccTransaction, final int type) {
-		executor.execute(() -> {
-			final RingBuffer<LiTransactionEvent> ringBuffer = disruptor.getRingBuffer();
-			ringBuffer.publishEvent(new LiTransactionEventTranslator(type), tccTransaction);
-		});
+		publishEvent(tccTransaction, type, null);
+	}
+
+	/**
+	 * publish disruptor event, a saved transaction is copied so that participants
+	 * enlisted later are only written by their own APPEND_PARTICIPANT event.
+	 * 
+	 * with group commit every event but DELETE blocks until the handler has
+	 * written the batch containing it.
+	 *
+	 * @param tccTransaction
+	 *            TccTransaction
+	 * @param type
+	 *            EventTypeEnum
+	 * @param participant
+	 *            the enlisted participant of APPEND_PARTICIPANT
+	 */
+	public void publishEvent(final TccTransaction tccTransaction, final int type, final Participant participant) {
+		publish(tccTransaction, type, participant, isGroupCommit(tccTransaction, type));
+	}
+
+	/**
+	 * publish disruptor event and wait until it is written, whatever the
+	 * durability of the transaction
+	 *
+	 * @param tccTransaction
+	 *            TccTransaction
+	 * @param type
+	 *            EventTypeEnum
+	 */
+	public void publishEventAndWait(final TccTransaction tccTransaction, final int type) {
+		publish(tccTransaction, type, null, true);
+	}
+
+	private void publish(final TccTransaction tccTransaction, final int type, final Participant participant,
+			final boolean await) {
+		if (Objects.isNull(tccTransaction)) {
+			return;
+		}
+		final TccTransaction eventTransaction = type == EventTypeEnum.SAVE.getCode() ? tccTransaction.copy()
+				: tccTransaction;
+		final CompletableFuture<Void> future = await ? new CompletableFuture<>() : null;
+		final int lane = selectLane(tccTransaction.getTransId());
+		final RingBuffer<LiTransactionEvent> ringBuffer = ringBuffers[lane];
+		if (Objects.isNull(executors)) {
+			publish(ringBuffer, eventTransaction, type, participant, future);
+		} else {
+			executors[lane].execute(() -> publish(ringBuffer, eventTransaction, type, participant, future));
+		}
+		if (Objects.nonNull(future)) {
+			awaitFlush(tccTransaction, future);
+		}
+	}
+
+	/**
+	 * fill the claimed slot in place, without the argument array and boxing of
+	 * a vararg translator
+	 */
+	private void publish(final RingBuffer<LiTransactionEvent> ringBuffer, final TccTransaction tccTransaction,
+			final int type, final Participant participant, final CompletableFuture<Void> future) {
+		final long sequence = ringBuffer.next();
+		try {
+			final LiTransactionEvent event = ringBuffer.get(sequence);
+			event.setTccTransaction(tccTransaction);
+			event.setType(type);
+			event.setParticipant(participant);
+			event.setFuture(future);
+		} finally {
+			ringBuffer.publish(sequence);
+		}
+	}
+
+	private boolean isGroupCommit(final TccTransaction tccTransaction, final int type) {
+		if (Objects.isNull(tccTransaction) || type == EventTypeEnum.DELETE.getCode()) {
+			return false;
+		}
+		final DurabilityEnum transactionDurability = tccTransaction.getDurability();
+		if (Objects.isNull(transactionDurability) || transactionDurability == DurabilityEnum.DEFAULT) {
+			return durability == DurabilityEnum.GROUP_COMMIT;
+		}
+		return transactionDurability == DurabilityEnum.GROUP_COMMIT;
+	}
+
+	private void awaitFlush(final TccTransaction tccTransaction, final CompletableFuture<Void> future) {
+		try {
+			future.get(durabilityTimeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TccRuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new TccRuntimeException("write transaction log fail, transId:" + tccTransaction.getTransId(),
+					e.getCause());
+		} catch (TimeoutException e) {
+			throw new TccRuntimeException("write transaction log timeout, transId:" + tccTransaction.getTransId());
+		}
 	}
 
 	@Override
 	public void destroy() {
-		disruptor.shutdown();
+		if (Objects.isNull(disruptors)) {
+			return;
+		}
+		for (Disruptor<LiTransactionEvent> disruptor : disruptors) {
+			disruptor.shutdown();
+		}
+	}
+
+	/**
+	 * the same transId always goes to the same lane, so its events keep their
+	 * publish order
+	 */
+	private int selectLane(final String transId) {
+		if (ringBuffers.length == 1) {
+			return 0;
+		}
+		final int hash = transId.hashCode();
+		return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % ringBuffers.length;
+	}
+
+	private ProducerType buildProducerType(final String producerType) {
+		if (ProducerType.SINGLE.name().equalsIgnoreCase(producerType)) {
+			return ProducerType.SINGLE;
+		}
+		return ProducerType.MULTI;
+	}
+
+	private WaitStrategy buildWaitStrategy(final WaitStrategyEnum waitStrategyEnum) {
+		switch (waitStrategyEnum) {
+		case SLEEPING:
+			return new SleepingWaitStrategy();
+		case YIELDING:
+			return new YieldingWaitStrategy();
+		case BUSY_SPIN:
+			return new BusySpinWaitStrategy();
+		default:
+			return new BlockingWaitStrategy();
+		}
 	}
 
 }
@@ -41,10 +41,201 @@ public class SqlHelper {
 					.append("  `invocation` BLOB ,").append("  `role` int(2) NOT NULL,").append("  `pattern` int(2),")
 					.append("  PRIMARY KEY (`trans_id`))");
 			break;
+		case CommonConstant.DB_POSTGRESQL:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (")
+					.append("  trans_id varchar(64) NOT NULL,").append("  target_class varchar(256) ,")
+					.append("  target_method varchar(128) ,").append("  confirm_method varchar(128) ,")
+					.append("  cancel_method varchar(128) ,").append("  retried_count int NOT NULL,")
+					.append("  create_time timestamp NOT NULL,").append("  last_time timestamp NOT NULL,")
+					.append("  version int NOT NULL,").append("  status int NOT NULL,")
+					.append("  invocation bytea,").append("  role int NOT NULL,").append("  pattern int,")
+					.append("  PRIMARY KEY (trans_id))");
+			break;
+		default:
+			throw new RuntimeException("dbType not support ! The current support mysql oracle postgresql");
+		}
+		return createTableSql.toString();
+	}
+
+	/**
+	 * create table sql of the participants, one row per participant ordered by
+	 * seq within the transaction
+	 *
+	 * @param driverClassName
+	 * @param tableName
+	 *            participant table
+	 * @return sql
+	 */
+	public static String buildCreateParticipantTableSql(final String driverClassName, final String tableName) {
+		StringBuilder createTableSql = new StringBuilder();
+		String dbType = DbTypeUtils.buildByDriverClassName(driverClassName);
+		switch (dbType) {
+		case CommonConstant.DB_MYSQL:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS `").append(tableName).append("` (")
+					.append("  `trans_id` varchar(64) NOT NULL,").append("  `seq` bigint NOT NULL,")
+					.append("  `invocation` longblob NOT NULL,").append("  PRIMARY KEY (`trans_id`,`seq`))");
+			break;
+		case CommonConstant.DB_ORACLE:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS `").append(tableName).append("` (")
+					.append("  `trans_id` varchar(64) NOT NULL,").append("  `seq` number(19) NOT NULL,")
+					.append("  `invocation` BLOB NOT NULL,").append("  PRIMARY KEY (`trans_id`,`seq`))");
+			break;
+		case CommonConstant.DB_POSTGRESQL:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (")
+					.append("  trans_id varchar(64) NOT NULL,").append("  seq bigint NOT NULL,")
+					.append("  invocation bytea NOT NULL,").append("  PRIMARY KEY (trans_id, seq))");
+			break;
+		default:
+			throw new RuntimeException("dbType not support ! The current support mysql oracle postgresql");
+		}
+		return createTableSql.toString();
+	}
+
+	/**
+	 * create table sql of the append only event log, the unique key on
+	 * (trans_id, version) lets only one event write each version
+	 *
+	 * @param driverClassName
+	 * @param tableName
+	 *            event table
+	 * @return sql
+	 */
+	public static String buildCreateEventTableSql(final String driverClassName, final String tableName) {
+		StringBuilder createTableSql = new StringBuilder();
+		String dbType = DbTypeUtils.buildByDriverClassName(driverClassName);
+		switch (dbType) {
+		case CommonConstant.DB_MYSQL:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS `").append(tableName).append("` (")
+					.append("  `trans_id` varchar(64) NOT NULL,").append("  `seq` bigint NOT NULL,")
+					.append("  `type` tinyint NOT NULL,").append("  `target_class` varchar(256) ,")
+					.append("  `target_method` varchar(128) ,").append("  `retried_count` tinyint ,")
+					.append("  `create_time` datetime ,").append("  `last_time` datetime ,")
+					.append("  `version` int ,").append("  `status` tinyint ,").append("  `role` tinyint ,")
+					.append("  `pattern` tinyint ,").append("  `invocation` longblob ,")
+					.append("  PRIMARY KEY (`trans_id`,`seq`),").append("  UNIQUE KEY (`trans_id`,`version`))");
+			break;
+		case CommonConstant.DB_ORACLE:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS `").append(tableName).append("` (")
+					.append("  `trans_id` varchar(64) NOT NULL,").append("  `seq` number(19) NOT NULL,")
+					.append("  `type` int(2) NOT NULL,").append("  `target_class` varchar(256) ,")
+					.append("  `target_method` varchar(128) ,").append("  `retried_count` int(3) ,")
+					.append("  `create_time` date ,").append("  `last_time` date ,").append("  `version` int(6) ,")
+					.append("  `status` int(2) ,").append("  `role` int(2) ,").append("  `pattern` int(2) ,")
+					.append("  `invocation` BLOB ,").append("  PRIMARY KEY (`trans_id`,`seq`))");
+			break;
+		case CommonConstant.DB_POSTGRESQL:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (")
+					.append("  trans_id varchar(64) NOT NULL,").append("  seq bigint NOT NULL,")
+					.append("  type int NOT NULL,").append("  target_class varchar(256) ,")
+					.append("  target_method varchar(128) ,").append("  retried_count int ,")
+					.append("  create_time timestamp ,").append("  last_time timestamp ,").append("  version int ,")
+					.append("  status int ,").append("  role int ,").append("  pattern int ,")
+					.append("  invocation bytea ,").append("  PRIMARY KEY (trans_id, seq),")
+					.append("  UNIQUE (trans_id, version))");
+			break;
+		default:
+			throw new RuntimeException("dbType not support ! The current support mysql oracle postgresql");
+		}
+		return createTableSql.toString();
+	}
+
+	/**
+	 * create table sql of the current last_time of every transaction of the
+	 * event log, written with its snapshot, claim and delete events
+	 *
+	 * @param driverClassName
+	 * @param tableName
+	 *            head table
+	 * @return sql
+	 */
+	public static String buildCreateEventHeadTableSql(final String driverClassName, final String tableName) {
+		StringBuilder createTableSql = new StringBuilder();
+		String dbType = DbTypeUtils.buildByDriverClassName(driverClassName);
+		switch (dbType) {
+		case CommonConstant.DB_MYSQL:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS `").append(tableName).append("` (")
+					.append("  `trans_id` varchar(64) NOT NULL,").append("  `last_time` datetime NOT NULL,")
+					.append("  PRIMARY KEY (`trans_id`))");
+			break;
+		case CommonConstant.DB_ORACLE:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS `").append(tableName).append("` (")
+					.append("  `trans_id` varchar(64) NOT NULL,").append("  `last_time` date NOT NULL,")
+					.append("  PRIMARY KEY (`trans_id`))");
+			break;
+		case CommonConstant.DB_POSTGRESQL:
+			createTableSql.append("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (")
+					.append("  trans_id varchar(64) NOT NULL,").append("  last_time timestamp NOT NULL,")
+					.append("  PRIMARY KEY (trans_id))");
+			break;
 		default:
-			throw new RuntimeException("dbType not support ! The current support mysql oracle");
+			throw new RuntimeException("dbType not support ! The current support mysql oracle postgresql");
 		}
 		return createTableSql.toString();
 	}
 
+	/**
+	 * index of the recovery scan, ordered the same as its keyset paging
+	 *
+	 * @param indexName
+	 * @param tableName
+	 * @return sql
+	 */
+	public static String buildCreateIndexSql(final String indexName, final String tableName) {
+		return "CREATE INDEX " + indexName + " ON " + tableName + " (last_time, trans_id)";
+	}
+
+	/**
+	 * index of the orphan compaction of the event table, ordered the same as
+	 * its keyset paging
+	 *
+	 * @param indexName
+	 * @param tableName
+	 * @return sql
+	 */
+	public static String buildCreateSeqIndexSql(final String indexName, final String tableName) {
+		return "CREATE INDEX " + indexName + " ON " + tableName + " (seq, trans_id)";
+	}
+
+	/**
+	 * unique key on (trans_id, version) of the event table on oracle, the
+	 * events without a version are left out of the index
+	 *
+	 * @param indexName
+	 * @param tableName
+	 * @return sql
+	 */
+	public static String buildCreateVersionIndexSql(final String indexName, final String tableName) {
+		return "CREATE UNIQUE INDEX " + indexName + " ON " + tableName
+				+ " (CASE WHEN version IS NULL THEN NULL ELSE trans_id END, version)";
+	}
+
+	/**
+	 * lock the first rows of an ordered query and skip rows locked by others,
+	 * mysql 8 and postgresql only
+	 *
+	 * @param sql
+	 *            ordered select
+	 * @return sql
+	 */
+	public static String buildSkipLockedSql(final String sql) {
+		return sql + " limit ? for update skip locked";
+	}
+
+	/**
+	 * limit an ordered query to its first rows, the row count is the last
+	 * parameter
+	 *
+	 * @param driverClassName
+	 * @param sql
+	 *            ordered select
+	 * @return sql
+	 */
+	public static String buildLimitSql(final String driverClassName, final String sql) {
+		String dbType = DbTypeUtils.buildByDriverClassName(driverClassName);
+		if (CommonConstant.DB_ORACLE.equals(dbType)) {
+			return "select * from (" + sql + ") where rownum <= ?";
+		}
+		return sql + " limit ?";
+	}
+
 }
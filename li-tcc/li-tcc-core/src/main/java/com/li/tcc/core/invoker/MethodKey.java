@@ -0,0 +1,46 @@
+package com.li.tcc.core.invoker;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * (targetClass, methodName, parameterTypes) key of the invoker and method
+ * caches.
+ * 
+ * @author yuan.li
+ */
+final class MethodKey {
+
+	private final Class<?> targetClass;
+
+	private final String methodName;
+
+	private final Class<?>[] parameterTypes;
+
+	private final int hashCode;
+
+	MethodKey(final Class<?> targetClass, final String methodName, final Class<?>[] parameterTypes) {
+		this.targetClass = targetClass;
+		this.methodName = methodName;
+		this.parameterTypes = parameterTypes;
+		this.hashCode = Objects.hash(targetClass, methodName) * 31 + Arrays.hashCode(parameterTypes);
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof MethodKey)) {
+			return false;
+		}
+		MethodKey that = (MethodKey) o;
+		return targetClass == that.targetClass && Objects.equals(methodName, that.methodName)
+				&& Arrays.equals(parameterTypes, that.parameterTypes);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+}
@@ -0,0 +1,33 @@
+package com.li.tcc.core.invoker;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * resolved target of a TccInvocation, the bean is already bound to the handle
+ * 
+ * @author yuan.li
+ */
+public final class TccInvoker {
+
+	/**
+	 * (Object[])Object, spreads the args into the target method
+	 */
+	private final MethodHandle methodHandle;
+
+	TccInvoker(final MethodHandle methodHandle) {
+		this.methodHandle = methodHandle;
+	}
+
+	/**
+	 * invoke target method
+	 *
+	 * @param args
+	 *            args of the method
+	 * @return return value, null for void
+	 * @throws Throwable
+	 *             thrown by the target method
+	 */
+	public Object invoke(final Object[] args) throws Throwable {
+		return (Object) methodHandle.invokeExact(args);
+	}
+}
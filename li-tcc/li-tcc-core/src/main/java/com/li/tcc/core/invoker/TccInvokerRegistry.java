@@ -0,0 +1,108 @@
+package com.li.tcc.core.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.reflect.MethodUtils;
+
+import com.li.tcc.common.bean.entity.TccInvocation;
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.core.helper.SpringBeanUtils;
+
+/**
+ * resolves the spring bean and the method of a TccInvocation once, keyed by
+ * (targetClass, methodName, parameterTypes), and reuses them for every
+ * confirm/cancel.
+ * 
+ * @author yuan.li
+ */
+public final class TccInvokerRegistry {
+
+	private static final TccInvokerRegistry TCC_INVOKER_REGISTRY = new TccInvokerRegistry();
+
+	private final ConcurrentMap<MethodKey, TccInvoker> invokers = new ConcurrentHashMap<>();
+
+	private TccInvokerRegistry() {
+
+	}
+
+	/**
+	 * @return TccInvokerRegistry
+	 */
+	public static TccInvokerRegistry getInstance() {
+		return TCC_INVOKER_REGISTRY;
+	}
+
+	/**
+	 * invoke the method of the TccInvocation on its spring bean
+	 *
+	 * @param tccInvocation
+	 *            TccInvocation
+	 * @throws Exception
+	 *             thrown by the target method, or NoSuchMethodException
+	 */
+	public void invoke(final TccInvocation tccInvocation) throws Exception {
+		if (Objects.isNull(tccInvocation)) {
+			return;
+		}
+		final Object[] args = Objects.isNull(tccInvocation.getArgs()) ? new Object[0] : tccInvocation.getArgs();
+		try {
+			getInvoker(tccInvocation).invoke(args);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	/**
+	 * get or resolve the invoker
+	 *
+	 * @param tccInvocation
+	 *            TccInvocation
+	 * @return TccInvoker
+	 * @throws NoSuchMethodException
+	 *             no accessible method matches
+	 */
+	public TccInvoker getInvoker(final TccInvocation tccInvocation) throws NoSuchMethodException {
+		final MethodKey key = new MethodKey(tccInvocation.getTargetClass(), tccInvocation.getMethodName(),
+				tccInvocation.getParameterTypes());
+		TccInvoker invoker = invokers.get(key);
+		if (Objects.isNull(invoker)) {
+			invoker = resolve(tccInvocation);
+			final TccInvoker exist = invokers.putIfAbsent(key, invoker);
+			if (Objects.nonNull(exist)) {
+				invoker = exist;
+			}
+		}
+		return invoker;
+	}
+
+	@SuppressWarnings("unchecked")
+	private TccInvoker resolve(final TccInvocation tccInvocation) throws NoSuchMethodException {
+		final Object bean = SpringBeanUtils.getInstance().getBean(tccInvocation.getTargetClass());
+		final Class<?>[] parameterTypes = Objects.isNull(tccInvocation.getParameterTypes()) ? new Class<?>[0]
+				: tccInvocation.getParameterTypes();
+		// same lookup as MethodUtils.invokeMethod, on the bean class so proxies work
+		final Method method = MethodUtils.getMatchingAccessibleMethod(bean.getClass(),
+				tccInvocation.getMethodName(), parameterTypes);
+		if (Objects.isNull(method)) {
+			throw new NoSuchMethodException("No such accessible method: " + tccInvocation.getMethodName()
+					+ "() on object: " + bean.getClass().getName());
+		}
+		try {
+			method.setAccessible(true);
+			final int count = method.getParameterCount();
+			final MethodHandle methodHandle = MethodHandles.lookup().unreflect(method).bindTo(bean)
+					.asType(MethodType.genericMethodType(count)).asSpreader(Object[].class, count);
+			return new TccInvoker(methodHandle);
+		} catch (IllegalAccessException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.li.tcc.core.invoker;
+
+import java.lang.reflect.Method;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.li.tcc.common.annotation.DurabilityEnum;
+import com.li.tcc.common.annotation.PropagationEnum;
+import com.li.tcc.common.annotation.Tcc;
+import com.li.tcc.common.annotation.TccPatternEnum;
+
+/**
+ * immutable view of a method annotated with @Tcc, resolved once.
+ * 
+ * @author yuan.li
+ */
+public final class TccMethodDescriptor {
+
+	private final Class<?> targetClass;
+
+	private final Method method;
+
+	private final Class<?>[] parameterTypes;
+
+	private final PropagationEnum propagation;
+
+	private final TccPatternEnum pattern;
+
+	private final DurabilityEnum durability;
+
+	/**
+	 * null when not configured
+	 */
+	private final String confirmMethod;
+
+	/**
+	 * null when not configured
+	 */
+	private final String cancelMethod;
+
+	TccMethodDescriptor(final Class<?> targetClass, final Method method, final Tcc tcc) {
+		this.targetClass = targetClass;
+		this.method = method;
+		this.parameterTypes = method.getParameterTypes();
+		this.propagation = tcc.propagation();
+		this.pattern = tcc.pattern();
+		this.durability = tcc.durability();
+		this.confirmMethod = StringUtils.isBlank(tcc.confirmMethod()) ? null : tcc.confirmMethod();
+		this.cancelMethod = StringUtils.isBlank(tcc.cancelMethod()) ? null : tcc.cancelMethod();
+	}
+
+	public Class<?> getTargetClass() {
+		return targetClass;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public String getMethodName() {
+		return method.getName();
+	}
+
+	/**
+	 * shared, must not be modified
+	 *
+	 * @return parameter types of the method
+	 */
+	public Class<?>[] getParameterTypes() {
+		return parameterTypes;
+	}
+
+	public PropagationEnum getPropagation() {
+		return propagation;
+	}
+
+	public TccPatternEnum getPattern() {
+		return pattern;
+	}
+
+	public DurabilityEnum getDurability() {
+		return durability;
+	}
+
+	public String getConfirmMethod() {
+		return confirmMethod;
+	}
+
+	public String getCancelMethod() {
+		return cancelMethod;
+	}
+
+	/**
+	 * rpc participants confirm through the same remote method when no confirm
+	 * method is configured
+	 *
+	 * @return confirm method name
+	 */
+	public String getRpcConfirmMethod() {
+		return confirmMethod == null ? getMethodName() : confirmMethod;
+	}
+
+	/**
+	 * rpc participants cancel through the same remote method when no cancel
+	 * method is configured
+	 *
+	 * @return cancel method name
+	 */
+	public String getRpcCancelMethod() {
+		return cancelMethod == null ? getMethodName() : cancelMethod;
+	}
+
+	@Override
+	public String toString() {
+		return targetClass.getName() + "." + getMethodName();
+	}
+}
@@ -0,0 +1,128 @@
+package com.li.tcc.core.invoker;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.ReflectionUtils;
+
+import com.li.tcc.common.annotation.Tcc;
+
+/**
+ * methods annotated with @Tcc, registered from the spring beans when the
+ * context is refreshed and looked up on every transaction and rpc call. a
+ * method not seen at startup is resolved once on first use, misses are cached
+ * as well.
+ * 
+ * @author yuan.li
+ */
+public final class TccMethodRegistry {
+
+	private static final TccMethodRegistry TCC_METHOD_REGISTRY = new TccMethodRegistry();
+
+	private final Set<Class<?>> registeredClasses = ConcurrentHashMap.newKeySet();
+
+	private final ConcurrentMap<Method, Optional<TccMethodDescriptor>> byMethod = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<MethodKey, Optional<TccMethodDescriptor>> bySignature = new ConcurrentHashMap<>();
+
+	private TccMethodRegistry() {
+
+	}
+
+	/**
+	 * @return TccMethodRegistry
+	 */
+	public static TccMethodRegistry getInstance() {
+		return TCC_METHOD_REGISTRY;
+	}
+
+	/**
+	 * register the @Tcc methods of the class, including inherited ones
+	 *
+	 * @param clazz
+	 *            bean class or interface
+	 * @return descriptors registered by this call, empty when the class was
+	 *         registered before
+	 */
+	public List<TccMethodDescriptor> register(final Class<?> clazz) {
+		if (!registeredClasses.add(clazz)) {
+			return Collections.emptyList();
+		}
+		List<TccMethodDescriptor> descriptors = new ArrayList<>();
+		for (Method method : ReflectionUtils.getUniqueDeclaredMethods(clazz)) {
+			final Tcc tcc = method.getAnnotation(Tcc.class);
+			if (Objects.isNull(tcc)) {
+				continue;
+			}
+			final TccMethodDescriptor descriptor = new TccMethodDescriptor(clazz, method, tcc);
+			byMethod.put(method, Optional.of(descriptor));
+			bySignature.put(new MethodKey(clazz, method.getName(), descriptor.getParameterTypes()),
+					Optional.of(descriptor));
+			descriptors.add(descriptor);
+		}
+		return descriptors;
+	}
+
+	/**
+	 * find the descriptor of a method
+	 *
+	 * @param method
+	 *            method
+	 * @return descriptor or null when the method has no @Tcc
+	 */
+	public TccMethodDescriptor get(final Method method) {
+		Optional<TccMethodDescriptor> descriptor = byMethod.get(method);
+		if (Objects.isNull(descriptor)) {
+			descriptor = Optional.ofNullable(method.getAnnotation(Tcc.class))
+					.map(tcc -> new TccMethodDescriptor(method.getDeclaringClass(), method, tcc));
+			final Optional<TccMethodDescriptor> exist = byMethod.putIfAbsent(method, descriptor);
+			if (Objects.nonNull(exist)) {
+				descriptor = exist;
+			}
+		}
+		return descriptor.orElse(null);
+	}
+
+	/**
+	 * find the descriptor of a method declared by the class, used where only the
+	 * signature is known such as a dubbo invocation
+	 *
+	 * @param clazz
+	 *            class or interface
+	 * @param methodName
+	 *            method name
+	 * @param parameterTypes
+	 *            parameter types
+	 * @return descriptor or null when there is no such @Tcc method
+	 */
+	public TccMethodDescriptor get(final Class<?> clazz, final String methodName, final Class<?>[] parameterTypes) {
+		final MethodKey key = new MethodKey(clazz, methodName, parameterTypes);
+		Optional<TccMethodDescriptor> descriptor = bySignature.get(key);
+		if (Objects.isNull(descriptor)) {
+			descriptor = resolve(clazz, methodName, parameterTypes);
+			final Optional<TccMethodDescriptor> exist = bySignature.putIfAbsent(key, descriptor);
+			if (Objects.nonNull(exist)) {
+				descriptor = exist;
+			}
+		}
+		return descriptor.orElse(null);
+	}
+
+	private Optional<TccMethodDescriptor> resolve(final Class<?> clazz, final String methodName,
+			final Class<?>[] parameterTypes) {
+		try {
+			final Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
+			return Optional.ofNullable(method.getAnnotation(Tcc.class))
+					.map(tcc -> new TccMethodDescriptor(clazz, method, tcc));
+		} catch (NoSuchMethodException e) {
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.li.tcc.core.invoker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.common.utils.LogUtil;
+
+/**
+ * registers the @Tcc methods of every bean and its interfaces into
+ * TccMethodRegistry when the context is refreshed, and fails the startup when
+ * a confirm or cancel method does not exist.
+ * 
+ * @author yuan.li
+ */
+@Component
+public class TccMethodScanner implements ApplicationListener<ContextRefreshedEvent> {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(TccMethodScanner.class);
+
+	@Override
+	public void onApplicationEvent(final ContextRefreshedEvent event) {
+		final ApplicationContext applicationContext = event.getApplicationContext();
+		List<TccMethodDescriptor> descriptors = new ArrayList<>();
+		for (String beanName : applicationContext.getBeanDefinitionNames()) {
+			Class<?> beanType;
+			try {
+				beanType = applicationContext.getType(beanName);
+			} catch (BeansException e) {
+				continue;
+			}
+			if (Objects.isNull(beanType)) {
+				continue;
+			}
+			final Class<?> userClass = ClassUtils.getUserClass(beanType);
+			descriptors.addAll(TccMethodRegistry.getInstance().register(userClass));
+			for (Class<?> anInterface : ClassUtils.getAllInterfacesForClassAsSet(userClass)) {
+				descriptors.addAll(TccMethodRegistry.getInstance().register(anInterface));
+			}
+		}
+		List<String> errors = new ArrayList<>();
+		for (TccMethodDescriptor descriptor : descriptors) {
+			validate(descriptor, descriptor.getConfirmMethod(), errors);
+			validate(descriptor, descriptor.getCancelMethod(), errors);
+		}
+		if (!errors.isEmpty()) {
+			throw new TccRuntimeException("misconfigured @Tcc method: " + String.join(", ", errors));
+		}
+		LogUtil.info(LOGGER, "registered @Tcc methods:{}", descriptors::size);
+	}
+
+	private void validate(final TccMethodDescriptor descriptor, final String methodName, final List<String> errors) {
+		if (Objects.isNull(methodName)) {
+			return;
+		}
+		// same lookup as TccInvokerRegistry uses at confirm/cancel time
+		if (Objects.isNull(MethodUtils.getMatchingAccessibleMethod(descriptor.getTargetClass(), methodName,
+				descriptor.getParameterTypes()))) {
+			errors.add(descriptor + " -> " + methodName + " not found");
+		}
+	}
+}
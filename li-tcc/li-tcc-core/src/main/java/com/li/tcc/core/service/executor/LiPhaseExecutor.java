@@ -0,0 +1,188 @@
+package com.li.tcc.core.service.executor;
+
+import com.google.common.collect.Lists;
+import com.li.tcc.common.bean.context.TccTransactionContext;
+import com.li.tcc.common.bean.entity.Participant;
+import com.li.tcc.common.bean.entity.TccInvocation;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.enums.TccActionEnum;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.core.concurrent.threadlocal.TransactionContextLocal;
+import com.li.tcc.core.concurrent.threadpool.LiThreadFactory;
+import com.li.tcc.core.invoker.TccInvokerRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * executes the confirm or cancel phase of the participants, one after another
+ * or in parallel when parallelPhase is enabled. with asyncConfirm the confirm
+ * phase of a starter runs on its own pool.
+ *
+ * @author yuan.li
+ */
+@Component
+public class LiPhaseExecutor implements DisposableBean {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(LiPhaseExecutor.class);
+
+	private static final int QUEUE_SIZE = 1024;
+
+	private ExecutorService executorService;
+
+	private ExecutorService confirmExecutorService;
+
+	private long participantTimeout;
+
+	/**
+	 * create the worker pool when parallelPhase is enabled and the confirm pool
+	 * when asyncConfirm is enabled
+	 *
+	 * @param tccConfig
+	 *            parallelPhase, phaseThreadMax, participantTimeout, asyncConfirm
+	 *            and confirmThreadMax
+	 */
+	public void start(final TccConfig tccConfig) {
+		if (tccConfig.isAsyncConfirm()) {
+			final int confirmThreadMax = Math.max(1, tccConfig.getConfirmThreadMax());
+			// caller runs when full, the starter then confirms synchronously
+			confirmExecutorService = new ThreadPoolExecutor(confirmThreadMax, confirmThreadMax, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(QUEUE_SIZE), LiThreadFactory.create("li-confirm", true),
+					new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+		if (!tccConfig.isParallelPhase()) {
+			return;
+		}
+		participantTimeout = tccConfig.getParticipantTimeout();
+		final int threadMax = Math.max(1, tccConfig.getPhaseThreadMax());
+		// caller runs when full, a burst of phases slows down instead of failing
+		executorService = new ThreadPoolExecutor(threadMax, threadMax, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_SIZE), LiThreadFactory.create("li-phase", true),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * execute confirm or cancel of every participant
+	 *
+	 * @param participants
+	 *            participants
+	 * @param action
+	 *            TccActionEnum CONFIRMING or CANCELING
+	 * @return participants that failed or timed out
+	 */
+	public List<Participant> execute(final List<Participant> participants, final TccActionEnum action) {
+		if (Objects.isNull(executorService) || participants.size() <= 1) {
+			return executeSequential(participants, action);
+		}
+		return executeParallel(participants, action);
+	}
+
+	/**
+	 * @return true when asyncConfirm is enabled
+	 */
+	public boolean isAsyncConfirm() {
+		return Objects.nonNull(confirmExecutorService);
+	}
+
+	/**
+	 * run the confirm of a starter on the confirm pool
+	 *
+	 * @param confirm
+	 *            confirm task
+	 */
+	public void submitConfirm(final Runnable confirm) {
+		confirmExecutorService.execute(confirm);
+	}
+
+	private List<Participant> executeSequential(final List<Participant> participants, final TccActionEnum action) {
+		List<Participant> failList = Lists.newArrayListWithCapacity(participants.size());
+		for (Participant participant : participants) {
+			try {
+				TransactionContextLocal.getInstance().set(buildContext(participant, action));
+				TccInvokerRegistry.getInstance().invoke(selectInvocation(participant, action));
+			} catch (Throwable e) {
+				LogUtil.error(LOGGER, "execute " + action.getDesc() + " exception:{}", () -> e);
+				failList.add(participant);
+			}
+		}
+		return failList;
+	}
+
+	private List<Participant> executeParallel(final List<Participant> participants, final TccActionEnum action) {
+		List<Future<?>> futures = Lists.newArrayListWithCapacity(participants.size());
+		for (Participant participant : participants) {
+			futures.add(executorService.submit(() -> {
+				final TccTransactionContext previous = TransactionContextLocal.getInstance().get();
+				TransactionContextLocal.getInstance().set(buildContext(participant, action));
+				try {
+					TccInvokerRegistry.getInstance().invoke(selectInvocation(participant, action));
+					return null;
+				} finally {
+					// restore, the task may run on the caller thread
+					if (Objects.isNull(previous)) {
+						TransactionContextLocal.getInstance().remove();
+					} else {
+						TransactionContextLocal.getInstance().set(previous);
+					}
+				}
+			}));
+		}
+		// the participants run at the same time, so they share one deadline
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(participantTimeout);
+		List<Participant> failList = Lists.newArrayListWithCapacity(participants.size());
+		for (int i = 0; i < futures.size(); i++) {
+			final Future<?> future = futures.get(i);
+			try {
+				future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (ExecutionException e) {
+				LogUtil.error(LOGGER, "execute " + action.getDesc() + " exception:{}", e::getCause);
+				failList.add(participants.get(i));
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				LogUtil.error(LOGGER, "execute " + action.getDesc() + " timeout:{}", () -> participantTimeout);
+				failList.add(participants.get(i));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failList.add(participants.get(i));
+			}
+		}
+		return failList;
+	}
+
+	private TccTransactionContext buildContext(final Participant participant, final TccActionEnum action) {
+		TccTransactionContext context = new TccTransactionContext();
+		context.setAction(action.getCode());
+		context.setTransId(participant.getTransId());
+		return context;
+	}
+
+	private TccInvocation selectInvocation(final Participant participant, final TccActionEnum action) {
+		return action == TccActionEnum.CONFIRMING ? participant.getConfirmTccInvocation()
+				: participant.getCancelTccInvocation();
+	}
+
+	@Override
+	public void destroy() {
+		if (Objects.nonNull(executorService)) {
+			executorService.shutdown();
+		}
+		if (Objects.nonNull(confirmExecutorService)) {
+			confirmExecutorService.shutdown();
+		}
+	}
+}
@@ -1,7 +1,5 @@
 package com.li.tcc.core.service.executor;
 
-import com.google.common.collect.Lists;
-import com.li.tcc.common.annotation.Tcc;
 import com.li.tcc.common.annotation.TccPatternEnum;
 import com.li.tcc.common.bean.context.TccTransactionContext;
 import com.li.tcc.common.bean.entity.Participant;
@@ -15,11 +13,11 @@ import com.li.tcc.common.utils.LogUtil;
 import com.li.tcc.core.cache.TccTransactionCacheManager;
 import com.li.tcc.core.concurrent.threadlocal.TransactionContextLocal;
 import com.li.tcc.core.disruptor.publisher.LiTransactionEventPublisher;
-import com.li.tcc.core.helper.SpringBeanUtils;
+import com.li.tcc.core.invoker.TccMethodDescriptor;
+import com.li.tcc.core.invoker.TccMethodRegistry;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
@@ -27,7 +25,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -54,9 +51,13 @@ public class LiTransactionExecutor {
 
 	private LiTransactionEventPublisher liTransactionEventPublisher;
 
+	private LiPhaseExecutor liPhaseExecutor;
+
 	@Autowired
-	public LiTransactionExecutor(final LiTransactionEventPublisher liTransactionEventPublisher) {
+	public LiTransactionExecutor(final LiTransactionEventPublisher liTransactionEventPublisher,
+			final LiPhaseExecutor liPhaseExecutor) {
 		this.liTransactionEventPublisher = liTransactionEventPublisher;
+		this.liPhaseExecutor = liPhaseExecutor;
 	}
 
 	public static ThreadLocal<TccTransaction> instance() {
@@ -141,6 +142,19 @@ public class LiTransactionExecutor {
 		liTransactionEventPublisher.publishEvent(tccTransaction, EventTypeEnum.UPDATE_PARTICIPANT.getCode());
 	}
 
+	/**
+	 * append the enlisted Participant by disruptor
+	 *
+	 * @param tccTransaction
+	 *            TccTransaction
+	 * @param participant
+	 *            Participant
+	 */
+	public void appendParticipant(final TccTransaction tccTransaction, final Participant participant) {
+		liTransactionEventPublisher.publishEvent(tccTransaction, EventTypeEnum.APPEND_PARTICIPANT.getCode(),
+				participant);
+	}
+
 	/**
 	 * acquired by threadLocal
 	 *
@@ -162,7 +176,7 @@ public class LiTransactionExecutor {
 		}
 		Optional.ofNullable(getCurrentTransaction()).ifPresent(c -> {
 			c.registerParticipant(participant);
-			updateParticipant(c);
+			appendParticipant(c, participant);
 		});
 	}
 
@@ -181,7 +195,7 @@ public class LiTransactionExecutor {
 		final TccTransaction tccTransaction = TccTransactionCacheManager.getInstance().getTccTransaction(transId);
 		Optional.ofNullable(tccTransaction).ifPresent(c -> {
 			c.registerParticipant(participant);
-			updateParticipant(c);
+			appendParticipant(c, participant);
 		});
 	}
 
@@ -201,24 +215,50 @@ public class LiTransactionExecutor {
 		}
 		currentTransaction.setStatus(TccActionEnum.CONFIRMING.getCode());
 		updateStatus(currentTransaction);
+		executeConfirm(currentTransaction);
+	}
+
+	/**
+	 * confirm of the starter. with asyncConfirm the CONFIRMING status is written
+	 * before returning and the participants are confirmed on the confirm pool, a
+	 * failed confirm is left to the recovery schedule. otherwise the same as
+	 * confirm.
+	 *
+	 * @param currentTransaction
+	 *            TccTransaction
+	 */
+	public void asyncConfirm(final TccTransaction currentTransaction) {
+		if (!liPhaseExecutor.isAsyncConfirm()) {
+			confirm(currentTransaction);
+			return;
+		}
+		if (Objects.isNull(currentTransaction) || CollectionUtils.isEmpty(currentTransaction.getParticipants())) {
+			return;
+		}
+		currentTransaction.setStatus(TccActionEnum.CONFIRMING.getCode());
+		try {
+			liTransactionEventPublisher.publishEventAndWait(currentTransaction, EventTypeEnum.UPDATE_STATUS.getCode());
+		} catch (TccRuntimeException e) {
+			// the recovery could not see the decision, so confirm now
+			LogUtil.warn(LOGGER, "write confirming status fail, confirm synchronously:{}", e::getMessage);
+			executeConfirm(currentTransaction);
+			return;
+		}
+		TransactionContextLocal.getInstance().remove();
+		liPhaseExecutor.submitConfirm(() -> {
+			try {
+				executeConfirm(currentTransaction);
+			} catch (Exception e) {
+				LogUtil.error(LOGGER, "async confirm fail, wait for recovery:{}", e::getMessage);
+			}
+		});
+	}
+
+	private void executeConfirm(final TccTransaction currentTransaction) {
 		final List<Participant> participants = currentTransaction.getParticipants();
-		List<Participant> failList = Lists.newArrayListWithCapacity(participants.size());
-		boolean success = true;
 		if (CollectionUtils.isNotEmpty(participants)) {
-			for (Participant participant : participants) {
-				try {
-					TccTransactionContext context = new TccTransactionContext();
-					context.setAction(TccActionEnum.CONFIRMING.getCode());
-					context.setTransId(participant.getTransId());
-					TransactionContextLocal.getInstance().set(context);
-					executeParticipantMethod(participant.getConfirmTccInvocation());
-				} catch (Exception e) {
-					LogUtil.error(LOGGER, "execute confirm :{}", () -> e);
-					success = false;
-					failList.add(participant);
-				}
-			}
-			executeHandler(success, currentTransaction, failList);
+			final List<Participant> failList = liPhaseExecutor.execute(participants, TccActionEnum.CONFIRMING);
+			executeHandler(failList.isEmpty(), currentTransaction, failList);
 		}
 	}
 
@@ -243,23 +283,9 @@ public class LiTransactionExecutor {
 		currentTransaction.setStatus(TccActionEnum.CANCELING.getCode());
 		// update cancel
 		updateStatus(currentTransaction);
-		boolean success = true;
-		List<Participant> failList = Lists.newArrayListWithCapacity(participants.size());
 		if (CollectionUtils.isNotEmpty(participants)) {
-			for (Participant participant : participants) {
-				try {
-					TccTransactionContext context = new TccTransactionContext();
-					context.setAction(TccActionEnum.CANCELING.getCode());
-					context.setTransId(participant.getTransId());
-					TransactionContextLocal.getInstance().set(context);
-					executeParticipantMethod(participant.getCancelTccInvocation());
-				} catch (Throwable e) {
-					LogUtil.error(LOGGER, "execute cancel ex:{}", () -> e);
-					success = false;
-					failList.add(participant);
-				}
-			}
-			executeHandler(success, currentTransaction, failList);
+			final List<Participant> failList = liPhaseExecutor.execute(participants, TccActionEnum.CANCELING);
+			executeHandler(failList.isEmpty(), currentTransaction, failList);
 		}
 	}
 
@@ -288,18 +314,6 @@ public class LiTransactionExecutor {
 		return participants;
 	}
 
-	@SuppressWarnings("rawtypes")
-	private void executeParticipantMethod(final TccInvocation tccInvocation) throws Exception {
-		if (Objects.nonNull(tccInvocation)) {
-			final Class clazz = tccInvocation.getTargetClass();
-			final String method = tccInvocation.getMethodName();
-			final Object[] args = tccInvocation.getArgs();
-			final Class[] parameterTypes = tccInvocation.getParameterTypes();
-			final Object bean = SpringBeanUtils.getInstance().getBean(clazz);
-			MethodUtils.invokeMethod(bean, method, args, parameterTypes);
-		}
-	}
-
 	/**
 	 * jude transaction is running
 	 *
@@ -323,23 +337,22 @@ public class LiTransactionExecutor {
 		tccTransaction.setStatus(TccActionEnum.PRE_TRY.getCode());
 		tccTransaction.setRole(role);
 		MethodSignature signature = (MethodSignature) point.getSignature();
-		Method method = signature.getMethod();
+		final TccMethodDescriptor descriptor = TccMethodRegistry.getInstance().get(signature.getMethod());
 		Class<?> clazz = point.getTarget().getClass();
 		Object[] args = point.getArgs();
-		final Tcc tcc = method.getAnnotation(Tcc.class);
-		final TccPatternEnum pattern = tcc.pattern();
 		tccTransaction.setTargetClass(clazz.getName());
-		tccTransaction.setTargetMethod(method.getName());
-		tccTransaction.setPattern(pattern.getCode());
+		tccTransaction.setTargetMethod(descriptor.getMethodName());
+		tccTransaction.setPattern(descriptor.getPattern().getCode());
+		tccTransaction.setDurability(descriptor.getDurability());
 		TccInvocation confirmInvocation = null;
-		String confirmMethodName = tcc.confirmMethod();
-		String cancelMethodName = tcc.cancelMethod();
-		if (StringUtils.isNoneBlank(confirmMethodName)) {
-			confirmInvocation = new TccInvocation(clazz, confirmMethodName, method.getParameterTypes(), args);
+		if (Objects.nonNull(descriptor.getConfirmMethod())) {
+			confirmInvocation = new TccInvocation(clazz, descriptor.getConfirmMethod(),
+					descriptor.getParameterTypes(), args);
 		}
 		TccInvocation cancelInvocation = null;
-		if (StringUtils.isNoneBlank(cancelMethodName)) {
-			cancelInvocation = new TccInvocation(clazz, cancelMethodName, method.getParameterTypes(), args);
+		if (Objects.nonNull(descriptor.getCancelMethod())) {
+			cancelInvocation = new TccInvocation(clazz, descriptor.getCancelMethod(), descriptor.getParameterTypes(),
+					args);
 		}
 		final Participant participant = new Participant(tccTransaction.getTransId(), confirmInvocation,
 				cancelInvocation);
@@ -44,8 +44,8 @@ public class StarterLiTransactionHandler implements LiTransactionHandler {
 					liTransactionExecutor.cancel(liTransactionExecutor.getCurrentTransaction());
 					throw throwable;
 				}
-				// execute confirm
-				liTransactionExecutor.confirm(liTransactionExecutor.getCurrentTransaction());
+				// execute confirm, asynchronously when asyncConfirm is enabled
+				liTransactionExecutor.asyncConfirm(liTransactionExecutor.getCurrentTransaction());
 			} else if (context.getAction() == TccActionEnum.CONFIRMING.getCode()) {
 				// execute confirm
 				liTransactionExecutor.confirm(liTransactionExecutor.getCurrentTransaction());
@@ -12,10 +12,12 @@ import com.li.tcc.common.serializer.KryoSerializer;
 import com.li.tcc.common.serializer.ObjectSerializer;
 import com.li.tcc.common.utils.LogUtil;
 import com.li.tcc.common.utils.ServiceBootstrap;
+import com.li.tcc.core.cache.TccTransactionCacheManager;
 import com.li.tcc.core.coordinator.CoordinatorService;
 import com.li.tcc.core.disruptor.publisher.LiTransactionEventPublisher;
 import com.li.tcc.core.helper.SpringBeanUtils;
 import com.li.tcc.core.service.LiInitService;
+import com.li.tcc.core.service.executor.LiPhaseExecutor;
 import com.li.tcc.core.spi.CoordinatorRepository;
 import com.li.tcc.core.spi.repository.JdbcCoordinatorRepository;
 
@@ -40,11 +42,14 @@ public class LiInitServiceImpl implements LiInitService {
 
 	private final LiTransactionEventPublisher liTransactionEventPublisher;
 
+	private final LiPhaseExecutor liPhaseExecutor;
+
 	@Autowired
 	public LiInitServiceImpl(final CoordinatorService coordinatorService,
-			final LiTransactionEventPublisher liTransactionEventPublisher) {
+			final LiTransactionEventPublisher liTransactionEventPublisher, final LiPhaseExecutor liPhaseExecutor) {
 		this.coordinatorService = coordinatorService;
 		this.liTransactionEventPublisher = liTransactionEventPublisher;
+		this.liPhaseExecutor = liPhaseExecutor;
 	}
 
 	/**
@@ -57,9 +62,13 @@ public class LiInitServiceImpl implements LiInitService {
 	public void initialization(final TccConfig tccConfig) {
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> LOGGER.info("li shutdown now")));
 		try {
-			loadSpiSupport(tccConfig);
-			liTransactionEventPublisher.start(tccConfig.getBufferSize());
+			final ObjectSerializer serializer = loadSpiSupport(tccConfig);
+			liTransactionEventPublisher.start(tccConfig);
+			liPhaseExecutor.start(tccConfig);
+			TccTransactionCacheManager.getInstance().start(tccConfig, serializer);
 			coordinatorService.start(tccConfig);
+			// before dubbo or spring cloud exports the services on context refresh
+			TccTransactionCacheManager.getInstance().warmUp(tccConfig);
 		} catch (Exception ex) {
 			LogUtil.error(LOGGER, " li init exception:{}", ex::getMessage);
 			// 非正常关闭
@@ -73,8 +82,9 @@ public class LiInitServiceImpl implements LiInitService {
 	 *
 	 * @param tccConfig
 	 *            TccConfig
+	 * @return the serializer of the repository
 	 */
-	private void loadSpiSupport(final TccConfig tccConfig) {
+	private ObjectSerializer loadSpiSupport(final TccConfig tccConfig) {
 		// spi serialize
 		final SerializeEnum serializeEnum = SerializeEnum.getEnum(tccConfig.getSerializer());
 		final ServiceLoader<ObjectSerializer> objectSerializers = ServiceBootstrap.loadAll(ObjectSerializer.class);
@@ -93,5 +103,6 @@ public class LiInitServiceImpl implements LiInitService {
 		repository.setSerializer(serializer);
 		// 将CoordinatorRepository实现注入到spring容器
 		SpringBeanUtils.getInstance().registerBean(CoordinatorRepository.class.getName(), repository);
+		return serializer;
 	}
 }
@@ -1,22 +1,19 @@
 package com.li.tcc.core.service.rollback;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import com.li.tcc.common.bean.context.TccTransactionContext;
 import com.li.tcc.common.bean.entity.Participant;
-import com.li.tcc.common.bean.entity.TccInvocation;
 import com.li.tcc.common.enums.TccActionEnum;
 import com.li.tcc.common.utils.LogUtil;
 import com.li.tcc.core.concurrent.threadlocal.TransactionContextLocal;
-import com.li.tcc.core.helper.SpringBeanUtils;
+import com.li.tcc.core.invoker.TccInvokerRegistry;
 import com.li.tcc.core.service.LiRollbackService;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -25,7 +22,7 @@ import java.util.concurrent.CompletableFuture;
  * @author yuan.li
  */
 @Component
-@SuppressWarnings({ "rawtypes", "unchecked" })
+@SuppressWarnings("rawtypes")
 public class AsyncLiRollbackServiceImpl implements LiRollbackService {
 
 	/**
@@ -50,7 +47,7 @@ public class AsyncLiRollbackServiceImpl implements LiRollbackService {
 							context.setTransId(participant.getTransId());
 							TransactionContextLocal.getInstance().set(context);
 							try {
-								executeParticipantMethod(participant.getCancelTccInvocation());
+								TccInvokerRegistry.getInstance().invoke(participant.getCancelTccInvocation());
 							} catch (Exception e) {
 								LogUtil.error(LOGGER, "执行cancel方法异常：{}", e::getMessage);
 								e.printStackTrace();
@@ -66,16 +63,4 @@ public class AsyncLiRollbackServiceImpl implements LiRollbackService {
 		}
 
 	}
-
-	private void executeParticipantMethod(final TccInvocation tccInvocation) throws Exception {
-		if (Objects.nonNull(tccInvocation)) {
-			final Class clazz = tccInvocation.getTargetClass();
-			final String method = tccInvocation.getMethodName();
-			final Object[] args = tccInvocation.getArgs();
-			final Class[] parameterTypes = tccInvocation.getParameterTypes();
-			final Object bean = SpringBeanUtils.getInstance().getBean(clazz);
-			LogUtil.debug(LOGGER, "开始执行：{}", () -> clazz.getName() + " ;" + method);
-			MethodUtils.invokeMethod(bean, method, args, parameterTypes);
-		}
-	}
 }
@@ -2,7 +2,13 @@ package com.li.tcc.core.spi;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.config.TccConfig;
 import com.li.tcc.common.serializer.ObjectSerializer;
@@ -54,6 +60,20 @@ public interface CoordinatorRepository {
 	 */
 	int updateParticipant(TccTransaction tccTransaction);
 
+	/**
+	 * append participants, a repository that supports it only writes the new
+	 * participants, the default rewrites all participants of the transaction
+	 *
+	 * @param tccTransaction
+	 *            TccTransaction
+	 * @param participants
+	 *            the participants enlisted since the last write
+	 * @return rows 1 success 0 fail
+	 */
+	default int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		return updateParticipant(tccTransaction);
+	}
+
 	/**
 	 * update status
 	 * 
@@ -65,6 +85,78 @@ public interface CoordinatorRepository {
 	 */
 	int updateStatus(String id, Integer status);
 
+	/**
+	 * batch create TccTransaction
+	 *
+	 * @param tccTransactions
+	 *            TccTransaction list
+	 * @return rows
+	 */
+	default int batchCreate(final List<TccTransaction> tccTransactions) {
+		int rows = 0;
+		for (TccTransaction tccTransaction : tccTransactions) {
+			rows += create(tccTransaction);
+		}
+		return rows;
+	}
+
+	/**
+	 * batch delete TccTransaction
+	 *
+	 * @param ids
+	 *            pk list
+	 * @return rows
+	 */
+	default int batchRemove(final List<String> ids) {
+		int rows = 0;
+		for (String id : ids) {
+			rows += remove(id);
+		}
+		return rows;
+	}
+
+	/**
+	 * batch update participants
+	 *
+	 * @param tccTransactions
+	 *            TccTransaction list
+	 * @return rows
+	 */
+	default int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		int rows = 0;
+		for (TccTransaction tccTransaction : tccTransactions) {
+			rows += updateParticipant(tccTransaction);
+		}
+		return rows;
+	}
+
+	/**
+	 * batch update status
+	 *
+	 * @param statuses
+	 *            pk -> status
+	 * @return rows
+	 */
+	default int batchUpdateStatus(final Map<String, Integer> statuses) {
+		int rows = 0;
+		for (Map.Entry<String, Integer> entry : statuses.entrySet()) {
+			rows += updateStatus(entry.getKey(), entry.getValue());
+		}
+		return rows;
+	}
+
+	/**
+	 * wait for the writes issued by the calling thread, a repository that
+	 * returns from its writes before they are stored completes the future once
+	 * they are acknowledged or fails it with the first write error. the default
+	 * writes before returning and is always completed.
+	 *
+	 * @return completed once the writes issued by the thread are stored
+	 */
+	default CompletableFuture<Void> flush() {
+		return CompletableFuture.completedFuture(null);
+	}
+
 	/**
 	 * get by id
 	 *
@@ -90,6 +182,72 @@ public interface CoordinatorRepository {
 	 */
 	List<TccTransaction> listAllByDelay(Date date);
 
+	/**
+	 * page through the transactions last updated before the date, the default
+	 * filters and pages listAllByDelay.
+	 *
+	 * @param date
+	 *            延迟后的时间
+	 * @param pageSize
+	 *            transactions per page
+	 * @param filter
+	 *            applied before the participants are needed, the
+	 *            participants of the tested transaction may not be loaded
+	 * @param consumer
+	 *            receives every non empty page of transactions passing the
+	 *            filter
+	 */
+	default void scanByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		final List<TccTransaction> tccTransactions = listAllByDelay(date).stream().filter(filter)
+				.collect(Collectors.toList());
+		for (int i = 0; i < tccTransactions.size(); i += pageSize) {
+			consumer.accept(tccTransactions.subList(i, Math.min(i + pageSize, tccTransactions.size())));
+		}
+	}
+
+	/**
+	 * claim the transactions last updated before the date for recovery, a
+	 * claimed transaction has its retriedCount increased, lastTime set to now
+	 * and its version increased, so no other node claims it again before the
+	 * next delay. the default claims every transaction of scanByDelay through
+	 * the optimistic version check of update.
+	 *
+	 * @param date
+	 *            延迟后的时间
+	 * @param pageSize
+	 *            transactions claimed at a time
+	 * @param filter
+	 *            same as scanByDelay
+	 * @param consumer
+	 *            receives every non empty page of claimed transactions
+	 */
+	default void claimByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		scanByDelay(date, pageSize, filter, page -> {
+			final List<TccTransaction> claimed = page.stream().filter(tccTransaction -> {
+				tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
+				return update(tccTransaction) > 0;
+			}).collect(Collectors.toList());
+			if (!claimed.isEmpty()) {
+				consumer.accept(claimed);
+			}
+		});
+	}
+
+	/**
+	 * stream the transactions of a role without holding them all in memory, the
+	 * consumer may be called from several threads. the default filters listAll.
+	 *
+	 * @param role
+	 *            TccRoleEnum
+	 * @param consumer
+	 *            receives every transaction of the role
+	 */
+	default void scan(final int role, final Consumer<TccTransaction> consumer) {
+		listAll().stream().filter(tccTransaction -> tccTransaction.getRole() == role).forEach(consumer);
+	}
+
 	/**
 	 * init
 	 *
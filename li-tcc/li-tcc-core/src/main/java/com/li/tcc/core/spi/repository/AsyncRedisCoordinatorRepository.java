@@ -0,0 +1,244 @@
+package com.li.tcc.core.spi.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.li.tcc.common.bean.entity.Participant;
+import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.enums.RepositorySupportEnum;
+import com.li.tcc.common.exception.TccException;
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.common.utils.RepositoryConvertUtils;
+import com.li.tcc.common.utils.RepositoryPathUtils;
+
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+/**
+ * redis impl writing without waiting. every write of the disruptor is one
+ * command queued to a RedisPipelineWriter and returns at once with rows 1, so
+ * the writes of all threads share one connection and one round trip per
+ * pipeline. flush completes once the writes of the calling thread are stored.
+ * reads, update and the recovery claims wait on the pool like the redis impl,
+ * a read may miss a write still queued. cluster mode has no single connection,
+ * its writes wait like the redis impl.
+ *
+ * @author yuan.li
+ */
+public class AsyncRedisCoordinatorRepository extends RedisCoordinatorRepository {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRedisCoordinatorRepository.class);
+
+	/**
+	 * replace the hash KEYS[1] by the field value pairs of ARGV[3..] and index
+	 * the member ARGV[2] with the score ARGV[1] in KEYS[2]
+	 */
+	private static final String CREATE_SCRIPT = "redis.call('zadd', KEYS[2], ARGV[1], ARGV[2]); "
+			+ "redis.call('del', KEYS[1]); redis.call('hmset', KEYS[1], unpack(ARGV, 3)); return 1";
+
+	/**
+	 * delete the hash KEYS[1] and the appended participants KEYS[3], remove the
+	 * member ARGV[1] from the index KEYS[2]
+	 */
+	private static final String REMOVE_SCRIPT = "local rows = redis.call('del', KEYS[1]); "
+			+ "redis.call('del', KEYS[3]); redis.call('zrem', KEYS[2], ARGV[1]); return rows";
+
+	/**
+	 * set the participants of the hash KEYS[1] if it exists and delete the
+	 * appended participants KEYS[2]
+	 */
+	private static final String PARTICIPANT_SCRIPT = "if redis.call('exists', KEYS[1]) == 0 then return 0 end; "
+			+ "redis.call('hmset', KEYS[1], unpack(ARGV)); redis.call('del', KEYS[2]); return 1";
+
+	private RedisPipelineWriter writer;
+
+	private final ThreadLocal<PendingWrites> pendingWrites = ThreadLocal.withInitial(PendingWrites::new);
+
+	@Override
+	public int create(final TccTransaction tccTransaction) {
+		if (Objects.isNull(writer)) {
+			return super.create(tccTransaction);
+		}
+		try {
+			final String transId = tccTransaction.getTransId();
+			List<byte[]> args = new ArrayList<>();
+			args.add(RepositoryConvertUtils.toBytes(tccTransaction.getLastTime().getTime()));
+			args.add(RepositoryConvertUtils.toBytes(transId));
+			args.addAll(buildArgs(null, RepositoryConvertUtils.convertHash(tccTransaction, objectSerializer)));
+			return submit(CREATE_SCRIPT, Arrays.asList(RepositoryPathUtils.buildRedisKey(keyPrefix, transId), indexKey),
+					args);
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int remove(final String id) {
+		if (Objects.isNull(writer)) {
+			return super.remove(id);
+		}
+		return submit(REMOVE_SCRIPT,
+				Arrays.asList(RepositoryPathUtils.buildRedisKey(keyPrefix, id), indexKey, buildParticipantKey(id)),
+				Collections.singletonList(RepositoryConvertUtils.toBytes(id)));
+	}
+
+	@Override
+	public int updateParticipant(final TccTransaction tccTransaction) {
+		if (Objects.isNull(writer)) {
+			return super.updateParticipant(tccTransaction);
+		}
+		final String transId = tccTransaction.getTransId();
+		try {
+			final byte[] participants = objectSerializer.serialize(tccTransaction.getParticipants());
+			return submit(PARTICIPANT_SCRIPT,
+					Arrays.asList(RepositoryPathUtils.buildRedisKey(keyPrefix, transId), buildParticipantKey(transId)),
+					buildArgs(null, Collections.singletonMap(RepositoryConvertUtils.FIELD_PARTICIPANTS, participants)));
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		if (Objects.isNull(writer)) {
+			return super.appendParticipant(tccTransaction, participants);
+		}
+		try {
+			final byte[] key = buildParticipantKey(tccTransaction.getTransId()).getBytes();
+			byte[][] values = new byte[participants.size()][];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = objectSerializer.serialize(participants.get(i));
+			}
+			return submit("rpush " + new String(key), pipeline -> pipeline.rpush(key, values));
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int updateStatus(final String id, final Integer status) {
+		if (Objects.isNull(writer)) {
+			return super.updateStatus(id, status);
+		}
+		return submit(HSET_SCRIPT, Collections.singletonList(RepositoryPathUtils.buildRedisKey(keyPrefix, id)),
+				buildArgs(null, Collections.singletonMap(RepositoryConvertUtils.FIELD_STATUS,
+						RepositoryConvertUtils.toBytes(status))));
+	}
+
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		if (Objects.isNull(writer)) {
+			return super.batchCreate(tccTransactions);
+		}
+		tccTransactions.forEach(this::create);
+		return tccTransactions.size();
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		if (Objects.isNull(writer)) {
+			return super.batchRemove(ids);
+		}
+		ids.forEach(this::remove);
+		return ids.size();
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		if (Objects.isNull(writer)) {
+			return super.batchUpdateParticipant(tccTransactions);
+		}
+		int rows = 0;
+		for (TccTransaction tccTransaction : tccTransactions) {
+			rows += updateParticipant(tccTransaction);
+		}
+		return rows;
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		if (Objects.isNull(writer)) {
+			return super.batchUpdateStatus(statuses);
+		}
+		statuses.forEach(this::updateStatus);
+		return statuses.size();
+	}
+
+	@Override
+	public CompletableFuture<Void> flush() {
+		final PendingWrites pending = pendingWrites.get();
+		final CompletableFuture<Object> last = pending.last;
+		if (Objects.isNull(last)) {
+			return CompletableFuture.completedFuture(null);
+		}
+		pending.last = null;
+		// the writer completes the futures in submit order, every earlier error is recorded once last completes
+		return last.handle((reply, e) -> {
+			final Throwable error = Objects.nonNull(e) ? e : pending.error;
+			pending.error = null;
+			if (Objects.nonNull(error)) {
+				throw new TccRuntimeException(error);
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public void init(final String modelName, final TccConfig tccConfig) {
+		super.init(modelName, tccConfig);
+		if (Objects.isNull(jedisPool)) {
+			LogUtil.warn(LOGGER, () -> "redisasync 不支持集群模式, 写入将同步执行");
+			return;
+		}
+		writer = new RedisPipelineWriter(jedisPool, tccConfig.getTccRedisConfig().getPipelineSize());
+	}
+
+	@Override
+	public String getScheme() {
+		return RepositorySupportEnum.REDIS_ASYNC.getSupport();
+	}
+
+	private int submit(final String script, final List<String> keys, final List<byte[]> args) {
+		final byte[] binaryScript = script.getBytes(StandardCharsets.UTF_8);
+		final List<byte[]> binaryKeys = keys.stream().map(String::getBytes).collect(Collectors.toList());
+		return submit("eval " + keys.get(0), pipeline -> pipeline.eval(binaryScript, binaryKeys, args));
+	}
+
+	private int submit(final String name, final Function<Pipeline, Response<?>> command) {
+		final PendingWrites pending = pendingWrites.get();
+		final CompletableFuture<Object> future = writer.submit(name, command);
+		future.whenComplete((reply, e) -> {
+			if (Objects.nonNull(e)) {
+				pending.error = e;
+			}
+		});
+		pending.last = future;
+		return ROWS;
+	}
+
+	/**
+	 * writes submitted by a thread since its last flush
+	 */
+	private static final class PendingWrites {
+
+		private CompletableFuture<Object> last;
+
+		private volatile Throwable error;
+	}
+}
@@ -0,0 +1,980 @@
+package com.li.tcc.core.spi.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.li.tcc.common.bean.entity.Participant;
+import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.config.TccDbConfig;
+import com.li.tcc.common.constant.CommonConstant;
+import com.li.tcc.common.enums.RepositorySupportEnum;
+import com.li.tcc.common.exception.TccException;
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.common.serializer.ObjectSerializer;
+import com.li.tcc.common.utils.DbTypeUtils;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.common.utils.RepositoryPathUtils;
+import com.li.tcc.core.concurrent.threadpool.LiThreadFactory;
+import com.li.tcc.core.helper.SqlHelper;
+import com.li.tcc.core.spi.CoordinatorRepository;
+
+/**
+ * jdbc impl on an append only event table tcc_<app>_event, every change of a
+ * transaction is inserted as an event keyed by (trans_id, seq) and no row is
+ * ever updated. the state of a transaction is folded from its events in seq
+ * order, a snapshot event replaces it and the others change their columns.
+ *
+ * update and claim write the next version, the unique key on (trans_id,
+ * version) rejects a second writer of the same version, so they keep the
+ * optimistic check of the jdbc impl. seq is ordered by the clock and ends with
+ * a random id of the node, events of one transaction written by several nodes
+ * need synchronized clocks. an event whose seq was taken by another node in
+ * the same milli is written again with the next seq.
+ *
+ * the head table tcc_<app>_event_head keeps the last_time of every
+ * transaction, written in the database transaction of its snapshot, claim and
+ * delete events. the scans page it in keyset order and fold only the events
+ * of the transactions of a page.
+ *
+ * a removed transaction is a delete event, its events are deleted by the
+ * compactor every compactInterval seconds. the compactor also deletes the
+ * events older than one compactInterval of the transactions without a head
+ * row, the events written after a transaction was removed and compacted. it
+ * pages the events in seq order on their seq index from where the last
+ * compaction stopped.
+ *
+ * @author yuan.li
+ */
+public class EventJdbcCoordinatorRepository implements CoordinatorRepository {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EventJdbcCoordinatorRepository.class);
+
+	private static final String EVENT_COLUMNS = "trans_id,seq,type,target_class,target_method,retried_count,"
+			+ "create_time,last_time,version,status,role,pattern,invocation";
+
+	/**
+	 * the whole transaction
+	 */
+	private static final int SNAPSHOT = 1;
+
+	private static final int STATUS = 2;
+
+	/**
+	 * all participants
+	 */
+	private static final int PARTICIPANTS = 3;
+
+	private static final int APPEND_PARTICIPANTS = 4;
+
+	/**
+	 * retried_count, last_time and version of a claim
+	 */
+	private static final int CLAIM = 5;
+
+	private static final int DELETE = 6;
+
+	/**
+	 * millis of the clock are shifted by this, the lower bits count events
+	 * written in the same milli and hold the node id
+	 */
+	private static final int SEQ_SHIFT = 20;
+
+	/**
+	 * lowest bits of seq
+	 */
+	private static final int NODE_BITS = 12;
+
+	/**
+	 * writes of an event whose seq is taken
+	 */
+	private static final int INSERT_ATTEMPTS = 3;
+
+	private static final int COMPACT_BATCH = 500;
+
+	/**
+	 * transactions folded at a time by listAll and scan
+	 */
+	private static final int PAGE_SIZE = 500;
+
+	/**
+	 * seq without the node id
+	 */
+	private final AtomicLong clock = new AtomicLong();
+
+	private long nodeId;
+
+	/**
+	 * transactions removed and not compacted yet
+	 */
+	private final Queue<String> removedIds = new ConcurrentLinkedQueue<>();
+
+	private DataSource dataSource;
+
+	private ObjectSerializer serializer;
+
+	private String insertSql;
+
+	private String selectByIdSql;
+
+	private String selectByIdsSql;
+
+	private String selectVersionSql;
+
+	private String headInsertSql;
+
+	private String headRemoveSql;
+
+	private String headClaimSql;
+
+	private String headFirstPageSql;
+
+	private String headNextPageSql;
+
+	private String headDelayFirstPageSql;
+
+	private String headDelayNextPageSql;
+
+	private String selectRemovedSql;
+
+	private String compactSql;
+
+	private String orphanPageSql;
+
+	private String selectHeadIdsSql;
+
+	private String compactOrphanSql;
+
+	/**
+	 * (seq, trans_id) of the last event checked for orphans, used by the
+	 * compact thread only
+	 */
+	private long orphanSeq = -1;
+
+	private String orphanTransId = "";
+
+	private long compactIntervalMillis;
+
+	private ScheduledExecutorService compactExecutorService;
+
+	@Override
+	public void setSerializer(final ObjectSerializer serializer) {
+		this.serializer = serializer;
+	}
+
+	@Override
+	public int create(final TccTransaction tccTransaction) {
+		try {
+			return insert(buildSnapshot(tccTransaction));
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int remove(final String id) {
+		final int rows = insert(buildEvent(id, DELETE));
+		if (rows > 0) {
+			removedIds.add(id);
+		}
+		return rows;
+	}
+
+	@Override
+	public int update(final TccTransaction tccTransaction) {
+		final Integer currentVersion = tccTransaction.getVersion();
+		tccTransaction.setLastTime(new Date());
+		tccTransaction.setVersion(currentVersion + 1);
+		return create(tccTransaction);
+	}
+
+	@Override
+	public int updateParticipant(final TccTransaction tccTransaction) {
+		try {
+			final Object[] event = buildEvent(tccTransaction.getTransId(), PARTICIPANTS);
+			event[12] = serializer.serialize(tccTransaction.getParticipants());
+			return insert(event);
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		try {
+			final Object[] event = buildEvent(tccTransaction.getTransId(), APPEND_PARTICIPANTS);
+			event[12] = serializer.serialize(new CopyOnWriteArrayList<>(participants));
+			return insert(event);
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int updateStatus(final String id, final Integer status) {
+		final Object[] event = buildEvent(id, STATUS);
+		event[9] = status;
+		return insert(event);
+	}
+
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		List<Object[]> events = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				events.add(buildSnapshot(tccTransaction));
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		return insertBatch(events);
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		final int rows = insertBatch(ids.stream().map(id -> buildEvent(id, DELETE)).collect(Collectors.toList()));
+		// the delete events written before a failure removed their head rows, the orphan compaction takes them
+		removedIds.addAll(ids);
+		return rows;
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		List<Object[]> events = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				final Object[] event = buildEvent(tccTransaction.getTransId(), PARTICIPANTS);
+				event[12] = serializer.serialize(tccTransaction.getParticipants());
+				events.add(event);
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		return insertBatch(events);
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		return insertBatch(statuses.entrySet().stream().map(entry -> {
+			final Object[] event = buildEvent(entry.getKey(), STATUS);
+			event[9] = entry.getValue();
+			return event;
+		}).collect(Collectors.toList()));
+	}
+
+	@Override
+	public TccTransaction findById(final String id) {
+		List<TccTransaction> list = new ArrayList<>(1);
+		fold(selectByIdSql, list::add, id);
+		return list.isEmpty() ? null : list.get(0);
+	}
+
+	@Override
+	public List<TccTransaction> listAll() {
+		List<TccTransaction> list = new ArrayList<>();
+		scanAll(list::add);
+		return list;
+	}
+
+	@Override
+	public List<TccTransaction> listAllByDelay(final Date date) {
+		List<TccTransaction> list = new ArrayList<>();
+		scanByDelay(date, PAGE_SIZE, tccTransaction -> true, list::addAll);
+		return list;
+	}
+
+	@Override
+	public void scan(final int role, final Consumer<TccTransaction> consumer) {
+		scanAll(tccTransaction -> {
+			if (tccTransaction.getRole() == role) {
+				consumer.accept(tccTransaction);
+			}
+		});
+	}
+
+	/**
+	 * pages the head table in (last_time, trans_id) order on its index
+	 */
+	@Override
+	public void scanByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		Date lastTime = null;
+		String lastTransId = null;
+		while (true) {
+			final List<TccTransaction> heads = Objects.isNull(lastTime)
+					? selectHeads(headDelayFirstPageSql, date, pageSize)
+					: selectHeads(headDelayNextPageSql, date, lastTime, lastTime, lastTransId, pageSize);
+			if (heads.isEmpty()) {
+				return;
+			}
+			final TccTransaction last = heads.get(heads.size() - 1);
+			lastTime = last.getLastTime();
+			lastTransId = last.getTransId();
+			final List<TccTransaction> page = foldHeads(heads).stream()
+					.filter(tccTransaction -> tccTransaction.getLastTime().before(date)).filter(filter)
+					.collect(Collectors.toList());
+			if (!page.isEmpty()) {
+				consumer.accept(page);
+			}
+			if (heads.size() < pageSize) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * a claim is an event of the next version, only one node inserts it
+	 */
+	@Override
+	public void claimByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		scanByDelay(date, pageSize, filter, page -> {
+			final Date now = new Date();
+			final List<TccTransaction> claimed = page.stream().filter(tccTransaction -> {
+				final Object[] event = buildEvent(tccTransaction.getTransId(), CLAIM);
+				event[5] = tccTransaction.getRetriedCount() + 1;
+				event[7] = now;
+				event[8] = tccTransaction.getVersion() + 1;
+				if (insert(event) > 0) {
+					tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
+					tccTransaction.setLastTime(now);
+					tccTransaction.setVersion(tccTransaction.getVersion() + 1);
+					return true;
+				}
+				return false;
+			}).collect(Collectors.toList());
+			if (!claimed.isEmpty()) {
+				consumer.accept(claimed);
+			}
+		});
+	}
+
+	@Override
+	public void init(final String modelName, final TccConfig tccConfig) {
+		final TccDbConfig tccDbConfig = tccConfig.getTccDbConfig();
+		final String dbType = DbTypeUtils.buildByDriverClassName(tccDbConfig.getDriverClassName());
+		dataSource = JdbcCoordinatorRepository.buildDataSource(tccDbConfig, dbType, tccDbConfig.getUrl(),
+				tccDbConfig.getUsername(), tccDbConfig.getPassword());
+		final String tableName = RepositoryPathUtils.buildDbTableName(modelName) + "_event";
+		final String headTableName = tableName + "_head";
+		buildSql(tccDbConfig.getDriverClassName(), tableName, headTableName);
+		execute(SqlHelper.buildCreateEventTableSql(tccDbConfig.getDriverClassName(), tableName));
+		execute(SqlHelper.buildCreateEventHeadTableSql(tccDbConfig.getDriverClassName(), headTableName));
+		if (CommonConstant.DB_ORACLE.equals(dbType)) {
+			// oracle indexes (trans_id, null) keys, a unique key would reject the events without a version
+			final String indexName = "idx_" + tableName + "_version";
+			JdbcCoordinatorRepository.createIndexIfAbsent(dataSource, tableName, indexName,
+					SqlHelper.buildCreateVersionIndexSql(indexName, tableName));
+		}
+		JdbcCoordinatorRepository.createIndexIfAbsent(dataSource, tableName, "idx_" + tableName + "_seq",
+				SqlHelper.buildCreateSeqIndexSql("idx_" + tableName + "_seq", tableName));
+		JdbcCoordinatorRepository.createIndexIfAbsent(dataSource, headTableName, "idx_" + headTableName + "_last_time");
+		nodeId = ThreadLocalRandom.current().nextInt(1 << NODE_BITS);
+		// deletes of the last run that were not compacted
+		compactExecutorService = Executors.newSingleThreadScheduledExecutor(
+				LiThreadFactory.create("li-event-compact", true));
+		compactExecutorService.execute(this::loadRemoved);
+		final int compactInterval = Math.max(1, tccDbConfig.getCompactInterval());
+		compactIntervalMillis = TimeUnit.SECONDS.toMillis(compactInterval);
+		compactExecutorService.scheduleWithFixedDelay(this::compact, compactInterval, compactInterval,
+				TimeUnit.SECONDS);
+	}
+
+	@Override
+	public String getScheme() {
+		return RepositorySupportEnum.EVENT_DB.getSupport();
+	}
+
+	private void buildSql(final String driverClassName, final String tableName, final String headTableName) {
+		insertSql = "insert into " + tableName + "(" + EVENT_COLUMNS + ") values(?,?,?,?,?,?,?,?,?,?,?,?,?)";
+		selectByIdSql = "select " + EVENT_COLUMNS + " from " + tableName + " where trans_id = ? order by seq";
+		// completed with a placeholder for each transId of the page
+		selectByIdsSql = "select " + EVENT_COLUMNS + " from " + tableName + " where trans_id in (";
+		selectVersionSql = "select 1 from " + tableName + " where trans_id = ? and version = ?";
+		selectRemovedSql = "select trans_id from " + tableName + " where type = " + DELETE;
+		compactSql = "delete from " + tableName + " where trans_id = ?";
+		orphanPageSql = SqlHelper.buildLimitSql(driverClassName, "select trans_id,seq from " + tableName
+				+ " where seq < ? and (seq > ? or (seq = ? and trans_id > ?)) order by seq, trans_id");
+		// completed with a placeholder for each transId of the page
+		selectHeadIdsSql = "select trans_id from " + headTableName + " where trans_id in (";
+		compactOrphanSql = "delete from " + tableName + " where trans_id = ? and seq = ?";
+		headInsertSql = "insert into " + headTableName + "(trans_id,last_time) values(?,?)";
+		headRemoveSql = "delete from " + headTableName + " where trans_id = ?";
+		headClaimSql = "update " + headTableName + " set last_time = ? where trans_id = ?";
+		headFirstPageSql = SqlHelper.buildLimitSql(driverClassName,
+				"select trans_id,last_time from " + headTableName + " order by trans_id");
+		headNextPageSql = SqlHelper.buildLimitSql(driverClassName,
+				"select trans_id,last_time from " + headTableName + " where trans_id > ? order by trans_id");
+		headDelayFirstPageSql = SqlHelper.buildLimitSql(driverClassName, "select trans_id,last_time from "
+				+ headTableName + " where last_time < ? order by last_time, trans_id");
+		headDelayNextPageSql = SqlHelper.buildLimitSql(driverClassName, "select trans_id,last_time from "
+				+ headTableName + " where last_time < ? and (last_time > ? or (last_time = ? and trans_id > ?))"
+				+ " order by last_time, trans_id");
+	}
+
+	/**
+	 * ordered by the clock, unique on this node and ending with its id
+	 */
+	private long nextSeq() {
+		final long now = System.currentTimeMillis() << (SEQ_SHIFT - NODE_BITS);
+		return clock.updateAndGet(previous -> Math.max(previous + 1, now)) << NODE_BITS | nodeId;
+	}
+
+	/**
+	 * params in the order of EVENT_COLUMNS, the columns the event does not
+	 * change are null
+	 */
+	private Object[] buildEvent(final String transId, final int type) {
+		final Object[] event = new Object[13];
+		event[0] = transId;
+		event[1] = nextSeq();
+		event[2] = type;
+		return event;
+	}
+
+	private Object[] buildSnapshot(final TccTransaction tccTransaction) throws TccException {
+		final Object[] event = buildEvent(tccTransaction.getTransId(), SNAPSHOT);
+		event[3] = tccTransaction.getTargetClass();
+		event[4] = tccTransaction.getTargetMethod();
+		event[5] = tccTransaction.getRetriedCount();
+		event[6] = tccTransaction.getCreateTime();
+		event[7] = tccTransaction.getLastTime();
+		event[8] = tccTransaction.getVersion();
+		event[9] = tccTransaction.getStatus();
+		event[10] = tccTransaction.getRole();
+		event[11] = tccTransaction.getPattern();
+		event[12] = serializer.serialize(tccTransaction.getParticipants());
+		return event;
+	}
+
+	/**
+	 * apply the event of the current row
+	 *
+	 * @return the transaction after the event, null when deleted or not saved
+	 */
+	private TccTransaction apply(final TccTransaction tccTransaction, final ResultSet rs) throws SQLException {
+		final int type = rs.getInt(3);
+		if (type == SNAPSHOT) {
+			TccTransaction snapshot = new TccTransaction();
+			snapshot.setTransId(rs.getString(1));
+			snapshot.setTargetClass(rs.getString(4));
+			snapshot.setTargetMethod(rs.getString(5));
+			snapshot.setRetriedCount(rs.getInt(6));
+			snapshot.setCreateTime(rs.getTimestamp(7));
+			snapshot.setLastTime(rs.getTimestamp(8));
+			snapshot.setVersion(rs.getInt(9));
+			snapshot.setStatus(rs.getInt(10));
+			snapshot.setRole(rs.getInt(11));
+			final int pattern = rs.getInt(12);
+			snapshot.setPattern(rs.wasNull() ? null : pattern);
+			snapshot.setParticipants(deSerializeParticipants(rs.getBytes(13)));
+			return snapshot;
+		}
+		if (type == DELETE || Objects.isNull(tccTransaction)) {
+			return null;
+		}
+		if (type == STATUS) {
+			tccTransaction.setStatus(rs.getInt(10));
+		} else if (type == PARTICIPANTS) {
+			tccTransaction.setParticipants(deSerializeParticipants(rs.getBytes(13)));
+		} else if (type == APPEND_PARTICIPANTS) {
+			tccTransaction.getParticipants().addAll(deSerializeParticipants(rs.getBytes(13)));
+		} else if (type == CLAIM) {
+			tccTransaction.setRetriedCount(rs.getInt(6));
+			tccTransaction.setLastTime(rs.getTimestamp(8));
+			tccTransaction.setVersion(rs.getInt(9));
+		}
+		return tccTransaction;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Participant> deSerializeParticipants(final byte[] bytes) {
+		if (Objects.isNull(bytes)) {
+			return new CopyOnWriteArrayList<>();
+		}
+		try {
+			return serializer.deSerialize(bytes, CopyOnWriteArrayList.class);
+		} catch (TccException e) {
+			LogUtil.error(LOGGER, "deSerialize participants exception:{}", e::getMessage);
+			return new CopyOnWriteArrayList<>();
+		}
+	}
+
+	/**
+	 * page through the head table in trans_id order and pass every folded
+	 * transaction to the consumer
+	 */
+	private void scanAll(final Consumer<TccTransaction> consumer) {
+		String lastTransId = null;
+		while (true) {
+			final List<TccTransaction> heads = Objects.isNull(lastTransId) ? selectHeads(headFirstPageSql, PAGE_SIZE)
+					: selectHeads(headNextPageSql, lastTransId, PAGE_SIZE);
+			if (heads.isEmpty()) {
+				return;
+			}
+			lastTransId = heads.get(heads.size() - 1).getTransId();
+			foldHeads(heads).forEach(consumer);
+			if (heads.size() < PAGE_SIZE) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return transactions with the transId and lastTime of their head rows
+	 */
+	private List<TccTransaction> selectHeads(final String sql, final Object... params) {
+		List<TccTransaction> heads = new ArrayList<>();
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			setParams(ps, params);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					TccTransaction head = new TccTransaction();
+					head.setTransId(rs.getString(1));
+					head.setLastTime(rs.getTimestamp(2));
+					heads.add(head);
+				}
+			}
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "select heads exception:{}", e::getMessage);
+		}
+		return heads;
+	}
+
+	/**
+	 * fold the events of the transactions of a page only
+	 *
+	 * @return the folded transactions in the order of the heads
+	 */
+	private List<TccTransaction> foldHeads(final List<TccTransaction> heads) {
+		StringBuilder sql = new StringBuilder(selectByIdsSql);
+		for (int i = 0; i < heads.size(); i++) {
+			sql.append(i == 0 ? "?" : ",?");
+		}
+		sql.append(") order by trans_id, seq");
+		Map<String, TccTransaction> folded = new HashMap<>(heads.size());
+		fold(sql.toString(), tccTransaction -> folded.put(tccTransaction.getTransId(), tccTransaction),
+				heads.stream().map(TccTransaction::getTransId).toArray());
+		return heads.stream().map(head -> folded.get(head.getTransId())).filter(Objects::nonNull)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * read events ordered by trans_id and seq and pass every folded transaction
+	 * that is not deleted to the consumer
+	 */
+	private void fold(final String sql, final Consumer<TccTransaction> consumer, final Object... params) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			setParams(ps, params);
+			try (ResultSet rs = ps.executeQuery()) {
+				String transId = null;
+				TccTransaction tccTransaction = null;
+				while (rs.next()) {
+					final String rowTransId = rs.getString(1);
+					if (!rowTransId.equals(transId)) {
+						if (Objects.nonNull(tccTransaction)) {
+							consumer.accept(tccTransaction);
+						}
+						transId = rowTransId;
+						tccTransaction = null;
+					}
+					tccTransaction = apply(tccTransaction, rs);
+				}
+				if (Objects.nonNull(tccTransaction)) {
+					consumer.accept(tccTransaction);
+				}
+			}
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "fold events exception:{}", e::getMessage);
+		}
+	}
+
+	/**
+	 * a duplicate key of an event with a version is another writer of the
+	 * version when the version is written, any other one is a seq taken by
+	 * another node and the event is written again with the next seq
+	 *
+	 * @return FAIL_ROWS when another writer took the version first
+	 * @throws TccRuntimeException
+	 *             when the event could not be written
+	 */
+	private int insert(final Object[] event) {
+		SQLException failure = null;
+		for (int attempt = 0; attempt < INSERT_ATTEMPTS; attempt++) {
+			try {
+				return insertOnce(event);
+			} catch (SQLException e) {
+				failure = e;
+				if (!isDuplicateKey(e)) {
+					break;
+				}
+				if (Objects.nonNull(event[8]) && versionWritten(event)) {
+					LogUtil.debug(LOGGER, "event of version {} already written", () -> event[8]);
+					return FAIL_ROWS;
+				}
+				event[1] = nextSeq();
+			}
+		}
+		final SQLException last = failure;
+		LogUtil.error(LOGGER, "insert event exception:{}", last::getMessage);
+		throw new TccRuntimeException(last);
+	}
+
+	/**
+	 * an event changing the head row is inserted in one database transaction
+	 * with it
+	 */
+	private int insertOnce(final Object[] event) throws SQLException {
+		final boolean head = changesHead(event);
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			if (head) {
+				connection.setAutoCommit(false);
+			}
+			final int rows;
+			try (PreparedStatement ps = connection.prepareStatement(insertSql)) {
+				setParams(ps, event);
+				rows = ps.executeUpdate();
+			}
+			if (head) {
+				writeHeads(connection, Collections.singletonList(event));
+				connection.commit();
+			}
+			return rows;
+		} catch (SQLException e) {
+			if (head) {
+				rollback(connection);
+			}
+			throw e;
+		} finally {
+			close(connection, head);
+		}
+	}
+
+	private boolean versionWritten(final Object[] event) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(selectVersionSql)) {
+			setParams(ps, event[0], event[8]);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next();
+			}
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "select event version exception:{}", e::getMessage);
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	/**
+	 * insert the events on one connection and commit once, replayed one by one
+	 * when the batch fails. an event failing again is thrown once the others
+	 * are written.
+	 */
+	private int insertBatch(final List<Object[]> events) {
+		if (events.isEmpty()) {
+			return FAIL_ROWS;
+		}
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			try (PreparedStatement ps = connection.prepareStatement(insertSql)) {
+				for (Object[] event : events) {
+					setParams(ps, event);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+			writeHeads(connection, events);
+			connection.commit();
+			return events.size();
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "insert events exception:{}", e::getMessage);
+			rollback(connection);
+		} finally {
+			close(connection, true);
+		}
+		TccRuntimeException failure = null;
+		int rows = 0;
+		for (Object[] event : events) {
+			try {
+				rows += insert(event);
+			} catch (TccRuntimeException e) {
+				failure = e;
+			}
+		}
+		if (Objects.nonNull(failure)) {
+			throw failure;
+		}
+		return rows;
+	}
+
+	private boolean changesHead(final Object[] event) {
+		final int type = (int) event[2];
+		return type == SNAPSHOT || type == CLAIM || type == DELETE;
+	}
+
+	/**
+	 * a snapshot replaces the head row, a claim moves its last_time and a
+	 * delete removes it
+	 */
+	private void writeHeads(final Connection connection, final List<Object[]> events) throws SQLException {
+		try (PreparedStatement remove = connection.prepareStatement(headRemoveSql);
+				PreparedStatement insert = connection.prepareStatement(headInsertSql);
+				PreparedStatement claim = connection.prepareStatement(headClaimSql)) {
+			boolean removes = false;
+			boolean inserts = false;
+			boolean claims = false;
+			for (Object[] event : events) {
+				final int type = (int) event[2];
+				if (type == SNAPSHOT || type == DELETE) {
+					remove.setString(1, (String) event[0]);
+					remove.addBatch();
+					removes = true;
+				}
+				if (type == SNAPSHOT) {
+					setParams(insert, event[0], event[7]);
+					insert.addBatch();
+					inserts = true;
+				} else if (type == CLAIM) {
+					setParams(claim, event[7], event[0]);
+					claim.addBatch();
+					claims = true;
+				}
+			}
+			if (removes) {
+				remove.executeBatch();
+			}
+			if (inserts) {
+				insert.executeBatch();
+			}
+			if (claims) {
+				claim.executeBatch();
+			}
+		}
+	}
+
+	private void execute(final String sql) {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.executeUpdate();
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "execute sql exception:{}", e::getMessage);
+		}
+	}
+
+	private void loadRemoved() {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(selectRemovedSql);
+				ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				removedIds.add(rs.getString(1));
+			}
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "load removed transactions exception:{}", e::getMessage);
+		}
+	}
+
+	/**
+	 * delete all events of the removed transactions
+	 */
+	private void compact() {
+		List<String> ids = new ArrayList<>(COMPACT_BATCH);
+		for (String id = removedIds.poll(); Objects.nonNull(id); id = removedIds.poll()) {
+			ids.add(id);
+			if (ids.size() >= COMPACT_BATCH) {
+				compact(ids);
+				ids.clear();
+			}
+		}
+		if (!ids.isEmpty()) {
+			compact(ids);
+		}
+		compactOrphans();
+	}
+
+	/**
+	 * a snapshot writes the head row in its database transaction, so events
+	 * without a head row older than the horizon belong to removed transactions.
+	 * the events are checked a page at a time and deleted by their keys.
+	 */
+	private void compactOrphans() {
+		final long horizon = (System.currentTimeMillis() - compactIntervalMillis) << SEQ_SHIFT;
+		try {
+			while (true) {
+				final List<Object[]> keys = selectOrphanPage(horizon);
+				if (keys.isEmpty()) {
+					return;
+				}
+				final Set<String> live = selectHeadIds(keys);
+				final List<Object[]> orphans = keys.stream().filter(key -> !live.contains(key[0]))
+						.collect(Collectors.toList());
+				if (!orphans.isEmpty()) {
+					compactOrphans(orphans);
+					LogUtil.debug(LOGGER, "compacted {} orphan events", orphans::size);
+				}
+				final Object[] last = keys.get(keys.size() - 1);
+				orphanTransId = (String) last[0];
+				orphanSeq = (long) last[1];
+				if (keys.size() < COMPACT_BATCH) {
+					return;
+				}
+			}
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "compact orphan events exception:{}", e::getMessage);
+		}
+	}
+
+	/**
+	 * @return (trans_id, seq) of the events after the last checked one
+	 */
+	private List<Object[]> selectOrphanPage(final long horizon) throws SQLException {
+		List<Object[]> keys = new ArrayList<>(COMPACT_BATCH);
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(orphanPageSql)) {
+			setParams(ps, horizon, orphanSeq, orphanSeq, orphanTransId, COMPACT_BATCH);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					keys.add(new Object[] { rs.getString(1), rs.getLong(2) });
+				}
+			}
+		}
+		return keys;
+	}
+
+	private Set<String> selectHeadIds(final List<Object[]> keys) throws SQLException {
+		final Object[] ids = keys.stream().map(key -> key[0]).distinct().toArray();
+		StringBuilder sql = new StringBuilder(selectHeadIdsSql);
+		for (int i = 0; i < ids.length; i++) {
+			sql.append(i == 0 ? "?" : ",?");
+		}
+		sql.append(")");
+		Set<String> heads = new HashSet<>(ids.length);
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+			setParams(ps, ids);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					heads.add(rs.getString(1));
+				}
+			}
+		}
+		return heads;
+	}
+
+	private void compactOrphans(final List<Object[]> orphans) throws SQLException {
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			try (PreparedStatement ps = connection.prepareStatement(compactOrphanSql)) {
+				for (Object[] orphan : orphans) {
+					setParams(ps, orphan);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+			connection.commit();
+		} catch (SQLException e) {
+			rollback(connection);
+			throw e;
+		} finally {
+			close(connection, true);
+		}
+	}
+
+	private void compact(final List<String> ids) {
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			try (PreparedStatement ps = connection.prepareStatement(compactSql)) {
+				for (String id : ids) {
+					ps.setString(1, id);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+			connection.commit();
+		} catch (SQLException e) {
+			LogUtil.error(LOGGER, "compact events exception:{}", e::getMessage);
+			rollback(connection);
+			// retried by the next compaction
+			removedIds.addAll(ids);
+		} finally {
+			close(connection, true);
+		}
+	}
+
+	private void setParams(final PreparedStatement ps, final Object... params) throws SQLException {
+		for (int i = 0; i < params.length; i++) {
+			ps.setObject(i + 1, JdbcCoordinatorRepository.convertDataTypeToDB(params[i]));
+		}
+	}
+
+	/**
+	 * unique violation of postgresql, duplicate entry of mysql and ORA-00001
+	 */
+	private boolean isDuplicateKey(final SQLException e) {
+		if ("23505".equals(e.getSQLState())) {
+			return true;
+		}
+		return "23000".equals(e.getSQLState()) && (e.getErrorCode() == 1062 || e.getErrorCode() == 1);
+	}
+
+	private void rollback(final Connection connection) {
+		if (Objects.nonNull(connection)) {
+			try {
+				connection.rollback();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void close(final Connection connection, final boolean resetAutoCommit) {
+		if (Objects.isNull(connection)) {
+			return;
+		}
+		try {
+			if (resetAutoCommit) {
+				connection.setAutoCommit(true);
+			}
+			connection.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+}
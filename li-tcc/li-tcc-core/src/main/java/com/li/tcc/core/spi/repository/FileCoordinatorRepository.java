@@ -2,8 +2,10 @@ package com.li.tcc.core.spi.repository;
 
 import com.google.common.collect.Lists;
 import com.li.tcc.common.bean.adapter.CoordinatorRepositoryAdapter;
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.constant.CommonConstant;
 import com.li.tcc.common.enums.RepositorySupportEnum;
 import com.li.tcc.common.exception.TccException;
 import com.li.tcc.common.exception.TccRuntimeException;
@@ -15,9 +17,14 @@ import com.li.tcc.core.spi.CoordinatorRepository;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -51,6 +58,7 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		if (file.exists()) {
 			file.delete();
 		}
+		deleteParticipantFile(id);
 		return ROWS;
 	}
 
@@ -61,6 +69,7 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
 		try {
 			writeFile(tccTransaction);
+			deleteParticipantFile(tccTransaction.getTransId());
 		} catch (Exception e) {
 			throw new TccRuntimeException("更新数据异常！");
 		}
@@ -77,6 +86,22 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 				adapter.setContents(serializer.serialize(tccTransaction.getParticipants()));
 			}
 			FileUtils.writeFile(fullFileName, serializer.serialize(adapter));
+			deleteParticipantFile(tccTransaction.getTransId());
+		} catch (Exception e) {
+			throw new TccRuntimeException("更新数据异常！");
+		}
+		return ROWS;
+	}
+
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		try {
+			List<byte[]> records = new ArrayList<>(participants.size());
+			for (Participant participant : participants) {
+				records.add(serializer.serialize(participant));
+			}
+			FileUtils.appendRecords(RepositoryPathUtils.getParticipantFileName(filePath, tccTransaction.getTransId()),
+					records);
 		} catch (Exception e) {
 			throw new TccRuntimeException("更新数据异常！");
 		}
@@ -99,6 +124,61 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		return ROWS;
 	}
 
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		makeDir();
+		Map<String, byte[]> files = new LinkedHashMap<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				files.put(RepositoryPathUtils.getFullFileName(filePath, tccTransaction.getTransId()),
+						RepositoryConvertUtils.convert(tccTransaction, serializer));
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		FileUtils.writeFiles(files);
+		return files.size();
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		Map<String, byte[]> files = new LinkedHashMap<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				final String fullFileName = RepositoryPathUtils.getFullFileName(filePath, tccTransaction.getTransId());
+				final CoordinatorRepositoryAdapter adapter = readAdapter(new File(fullFileName));
+				if (Objects.nonNull(adapter)) {
+					adapter.setContents(serializer.serialize(tccTransaction.getParticipants()));
+					files.put(fullFileName, serializer.serialize(adapter));
+				}
+			} catch (Exception e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		FileUtils.writeFiles(files);
+		tccTransactions.forEach(tccTransaction -> deleteParticipantFile(tccTransaction.getTransId()));
+		return files.size();
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		Map<String, byte[]> files = new LinkedHashMap<>(statuses.size());
+		statuses.forEach((id, status) -> {
+			try {
+				final String fullFileName = RepositoryPathUtils.getFullFileName(filePath, id);
+				final CoordinatorRepositoryAdapter adapter = readAdapter(new File(fullFileName));
+				if (Objects.nonNull(adapter)) {
+					adapter.setStatus(status);
+					files.put(fullFileName, serializer.serialize(adapter));
+				}
+			} catch (Exception e) {
+				throw new TccRuntimeException(e);
+			}
+		});
+		FileUtils.writeFiles(files);
+		return files.size();
+	}
+
 	@Override
 	public TccTransaction findById(final String id) {
 		String fullFileName = RepositoryPathUtils.getFullFileName(filePath, id);
@@ -118,6 +198,9 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		File[] files = path.listFiles();
 		if (files != null && files.length > 0) {
 			for (File file : files) {
+				if (file.isDirectory() || file.getName().endsWith(CommonConstant.PARTICIPANT_FILE_SUFFIX)) {
+					continue;
+				}
 				try {
 					TccTransaction transaction = readTransaction(file);
 					transactionRecoverList.add(transaction);
@@ -129,6 +212,31 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		return transactionRecoverList;
 	}
 
+	@Override
+	public void scan(final int role, final Consumer<TccTransaction> consumer) {
+		File[] files = new File(filePath).listFiles();
+		if (files == null || files.length == 0) {
+			return;
+		}
+		// one file per transaction, read them in parallel
+		Arrays.stream(files).parallel()
+				.filter(file -> !file.isDirectory()
+						&& !file.getName().endsWith(CommonConstant.PARTICIPANT_FILE_SUFFIX))
+				.forEach(file -> {
+					final TccTransaction transaction;
+					try {
+						transaction = readTransaction(file);
+					} catch (Exception e) {
+						e.printStackTrace();
+						return;
+					}
+					// an exception of the consumer stops the scan
+					if (transaction.getRole() == role) {
+						consumer.accept(transaction);
+					}
+				});
+	}
+
 	@Override
 	public List<TccTransaction> listAllByDelay(final Date date) {
 		final List<TccTransaction> tccTransactions = listAll();
@@ -157,7 +265,7 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		try {
 			FileUtils.writeFile(fileName, RepositoryConvertUtils.convert(tccTransaction, serializer));
 		} catch (TccException e) {
-			e.printStackTrace();
+			throw new TccRuntimeException(e);
 		}
 	}
 
@@ -165,7 +273,10 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		try (FileInputStream fis = new FileInputStream(file)) {
 			byte[] content = new byte[(int) file.length()];
 			fis.read(content);
-			return RepositoryConvertUtils.transformBean(content, serializer);
+			final TccTransaction tccTransaction = RepositoryConvertUtils.transformBean(content, serializer);
+			RepositoryConvertUtils.mergeParticipants(tccTransaction, FileUtils.readRecords(
+					RepositoryPathUtils.getParticipantFileName(filePath, tccTransaction.getTransId())), serializer);
+			return tccTransaction;
 		}
 	}
 
@@ -177,6 +288,13 @@ public class FileCoordinatorRepository implements CoordinatorRepository {
 		}
 	}
 
+	private void deleteParticipantFile(final String id) {
+		File file = new File(RepositoryPathUtils.getParticipantFileName(filePath, id));
+		if (file.exists()) {
+			file.delete();
+		}
+	}
+
 	private void makeDir() {
 		if (!initialized) {
 			synchronized (FileCoordinatorRepository.class) {
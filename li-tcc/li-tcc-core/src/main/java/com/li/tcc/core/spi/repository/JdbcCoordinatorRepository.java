@@ -1,33 +1,43 @@
 package com.li.tcc.core.spi.repository;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Maps;
 import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.constant.CommonConstant;
 import com.li.tcc.common.config.TccDbConfig;
 import com.li.tcc.common.enums.RepositorySupportEnum;
 import com.li.tcc.common.exception.TccException;
+import com.li.tcc.common.exception.TccRuntimeException;
 import com.li.tcc.common.serializer.ObjectSerializer;
+import com.li.tcc.common.utils.DbTypeUtils;
 import com.li.tcc.common.utils.RepositoryPathUtils;
 import com.li.tcc.core.helper.SqlHelper;
 import com.li.tcc.core.spi.CoordinatorRepository;
@@ -42,12 +52,88 @@ public class JdbcCoordinatorRepository implements CoordinatorRepository {
 
 	private Logger LOGGER = LoggerFactory.getLogger(JdbcCoordinatorRepository.class);
 
+	private static final String HEADER_COLUMNS = "trans_id,target_class,target_method,retried_count,create_time,"
+			+ "last_time,version,status,role,pattern";
+
+	private static final String SELECT_COLUMNS = HEADER_COLUMNS + ",invocation";
+
+	/**
+	 * transactions whose participant rows are read by one in query
+	 */
+	private static final int PARTICIPANT_BATCH = 500;
+
 	private DataSource dataSource;
 
+	/**
+	 * the scans read from the replica when one is configured, point lookups and
+	 * claims stay on the primary
+	 */
+	private DataSource replicaDataSource;
+
 	private String tableName;
 
+	/**
+	 * participants are rows of participantTableName, the invocation blob of the
+	 * transaction is only read for rows written before
+	 */
+	private boolean participantTable;
+
+	private String participantTableName;
+
+	/**
+	 * orders the participant rows of a transaction
+	 */
+	private final AtomicLong participantSeq = new AtomicLong(System.currentTimeMillis() * 1000);
+
 	private ObjectSerializer serializer;
 
+	private int streamFetchSize;
+
+	private String insertSql;
+
+	private String removeSql;
+
+	private String updateSql;
+
+	private String updateParticipantSql;
+
+	private String updateStatusSql;
+
+	private String selectByIdSql;
+
+	private String selectAllSql;
+
+	private String selectByDelaySql;
+
+	private String selectByRoleSql;
+
+	private String selectHeaderFirstPageSql;
+
+	private String selectHeaderNextPageSql;
+
+	private String claimFirstPageSql;
+
+	private String claimNextPageSql;
+
+	private String claimSql;
+
+	private String claimByVersionSql;
+
+	private String updateHeaderSql;
+
+	private String clearInvocationSql;
+
+	private String insertParticipantSql;
+
+	private String removeParticipantsSql;
+
+	private String selectJoinByIdSql;
+
+	/**
+	 * the database supports select for update skip locked
+	 */
+	private boolean skipLocked;
+
 	@Override
 	public void setSerializer(final ObjectSerializer serializer) {
 		this.serializer = serializer;
@@ -55,26 +141,30 @@ public class JdbcCoordinatorRepository implements CoordinatorRepository {
 
 	@Override
 	public int create(final TccTransaction tccTransaction) {
-		String sql = "insert into "
-				+ tableName
-				+ "(trans_id,target_class,target_method,retried_count,create_time,last_time,version,status,invocation,role,pattern)"
-				+ " values(?,?,?,?,?,?,?,?,?,?,?)";
+		if (participantTable) {
+			return executeInTransaction(connection -> {
+				final int rows = executeUpdate(connection, insertSql, buildInsertParams(tccTransaction, null));
+				insertParticipants(connection, tccTransaction.getTransId(), tccTransaction.getParticipants());
+				return rows;
+			});
+		}
 		try {
 			final byte[] serialize = serializer.serialize(tccTransaction.getParticipants());
-			return executeUpdate(sql, tccTransaction.getTransId(), tccTransaction.getTargetClass(),
-					tccTransaction.getTargetMethod(), tccTransaction.getRetriedCount(), tccTransaction.getCreateTime(),
-					tccTransaction.getLastTime(), tccTransaction.getVersion(), tccTransaction.getStatus(), serialize,
-					tccTransaction.getRole(), tccTransaction.getPattern());
+			return executeWrite(insertSql, buildInsertParams(tccTransaction, serialize));
 		} catch (TccException e) {
-			e.printStackTrace();
-			return FAIL_ROWS;
+			throw new TccRuntimeException(e);
 		}
 	}
 
 	@Override
 	public int remove(final String id) {
-		String sql = "delete from " + tableName + " where trans_id = ? ";
-		return executeUpdate(sql, id);
+		if (participantTable) {
+			return executeInTransaction(connection -> {
+				executeUpdate(connection, removeParticipantsSql, id);
+				return executeUpdate(connection, removeSql, id);
+			});
+		}
+		return executeWrite(removeSql, id);
 	}
 
 	@Override
@@ -82,118 +172,624 @@ public class JdbcCoordinatorRepository implements CoordinatorRepository {
 		final Integer currentVersion = tccTransaction.getVersion();
 		tccTransaction.setLastTime(new Date());
 		tccTransaction.setVersion(tccTransaction.getVersion() + 1);
-		String sql = "update "
-				+ tableName
-				+ " set last_time = ?,version =?,retried_count =?,invocation=?,status=? ,confirm_method=?,cancel_method=? ,pattern=? where trans_id = ? and version=? ";
 		String confirmMethod = "";
 		String cancelMethod = "";
+		if (CollectionUtils.isNotEmpty(tccTransaction.getParticipants())) {
+			final Participant participant = tccTransaction.getParticipants().get(0);
+			confirmMethod = participant.getConfirmTccInvocation().getMethodName();
+			cancelMethod = participant.getCancelTccInvocation().getMethodName();
+		}
+		if (participantTable) {
+			final String confirm = confirmMethod;
+			final String cancel = cancelMethod;
+			return executeInTransaction(connection -> {
+				final int rows = executeUpdate(connection, updateHeaderSql, tccTransaction.getLastTime(),
+						tccTransaction.getVersion(), tccTransaction.getRetriedCount(), tccTransaction.getStatus(),
+						confirm, cancel, tccTransaction.getPattern(), tccTransaction.getTransId(), currentVersion);
+				if (rows > 0) {
+					replaceParticipants(connection, tccTransaction);
+				}
+				return rows;
+			});
+		}
 		try {
 			final byte[] serialize = serializer.serialize(tccTransaction.getParticipants());
-			if (CollectionUtils.isNotEmpty(tccTransaction.getParticipants())) {
-				final Participant participant = tccTransaction.getParticipants().get(0);
-				confirmMethod = participant.getConfirmTccInvocation().getMethodName();
-				cancelMethod = participant.getCancelTccInvocation().getMethodName();
-			}
-			return executeUpdate(sql, tccTransaction.getLastTime(), tccTransaction.getVersion(),
+			return executeWrite(updateSql, tccTransaction.getLastTime(), tccTransaction.getVersion(),
 					tccTransaction.getRetriedCount(), serialize, tccTransaction.getStatus(), confirmMethod,
 					cancelMethod, tccTransaction.getPattern(), tccTransaction.getTransId(), currentVersion);
 		} catch (TccException e) {
-			e.printStackTrace();
-			return FAIL_ROWS;
+			throw new TccRuntimeException(e);
 		}
 	}
 
 	@Override
 	public int updateParticipant(final TccTransaction tccTransaction) {
-		String sql = "update " + tableName + " set invocation=?  where trans_id = ?  ";
+		if (participantTable) {
+			return executeInTransaction(connection -> {
+				replaceParticipants(connection, tccTransaction);
+				return ROWS;
+			});
+		}
 		try {
 			final byte[] serialize = serializer.serialize(tccTransaction.getParticipants());
-			return executeUpdate(sql, serialize, tccTransaction.getTransId());
+			return executeWrite(updateParticipantSql, serialize, tccTransaction.getTransId());
 		} catch (TccException e) {
-			e.printStackTrace();
-			return FAIL_ROWS;
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	/**
+	 * with the participant table the appended participants are inserted, the
+	 * rows already written stay untouched
+	 */
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		if (!participantTable) {
+			return updateParticipant(tccTransaction);
 		}
+		return executeInTransaction(
+				connection -> insertParticipants(connection, tccTransaction.getTransId(), participants));
 	}
 
 	@Override
 	public int updateStatus(final String id, final Integer status) {
-		String sql = "update " + tableName + " set status=?  where trans_id = ?  ";
-		return executeUpdate(sql, status, id);
+		return executeWrite(updateStatusSql, status, id);
+	}
+
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		if (participantTable) {
+			try {
+				return executeInTransaction(connection -> {
+					final int inserted = executeBatch(connection, insertSql, tccTransactions.stream()
+							.map(tccTransaction -> buildInsertParams(tccTransaction, null))
+							.collect(Collectors.toList()));
+					for (TccTransaction tccTransaction : tccTransactions) {
+						insertParticipants(connection, tccTransaction.getTransId(),
+								tccTransaction.getParticipants());
+					}
+					return inserted;
+				});
+			} catch (TccRuntimeException e) {
+				// replayed one by one so that one bad transaction does not lose the others
+				return replay(tccTransactions, this::create);
+			}
+		}
+		List<Object[]> batchParams = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				final byte[] serialize = serializer.serialize(tccTransaction.getParticipants());
+				batchParams.add(buildInsertParams(tccTransaction, serialize));
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		return executeBatch(insertSql, batchParams);
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		final List<Object[]> batchParams = ids.stream().map(id -> new Object[] { id }).collect(Collectors.toList());
+		if (participantTable) {
+			return executeInTransaction(connection -> {
+				executeBatch(connection, removeParticipantsSql, batchParams);
+				return executeBatch(connection, removeSql, batchParams);
+			});
+		}
+		return executeBatch(removeSql, batchParams);
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		if (participantTable) {
+			return executeInTransaction(connection -> {
+				for (TccTransaction tccTransaction : tccTransactions) {
+					replaceParticipants(connection, tccTransaction);
+				}
+				return tccTransactions.size();
+			});
+		}
+		List<Object[]> batchParams = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				final byte[] serialize = serializer.serialize(tccTransaction.getParticipants());
+				batchParams.add(new Object[] { serialize, tccTransaction.getTransId() });
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		return executeBatch(updateParticipantSql, batchParams);
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		return executeBatch(updateStatusSql, statuses.entrySet().stream()
+				.map(entry -> new Object[] { entry.getValue(), entry.getKey() }).collect(Collectors.toList()));
 	}
 
 	@Override
 	public TccTransaction findById(final String id) {
-		String selectSql = "select * from " + tableName + " where trans_id=?";
-		List<Map<String, Object>> list = executeQuery(selectSql, id);
-		if (CollectionUtils.isNotEmpty(list)) {
-			return list.stream().filter(Objects::nonNull).map(this::buildByResultMap).collect(Collectors.toList())
-					.get(0);
+		List<TccTransaction> list = new ArrayList<>(1);
+		if (participantTable) {
+			// one row per participant of the left join, ordered by seq
+			executeQuery(dataSource, selectJoinByIdSql, false, rs -> {
+				if (list.isEmpty()) {
+					list.add(buildByResultSet(rs));
+				}
+				addParticipant(list.get(0), rs.getBytes(12));
+				return list.get(0);
+			}, tccTransaction -> {
+			}, id);
+		} else {
+			executeQuery(dataSource, selectByIdSql, false, this::buildByResultSet, list::add, id);
 		}
-		return null;
+		return list.isEmpty() ? null : list.get(0);
 	}
 
 	@Override
 	public List<TccTransaction> listAll() {
-		String selectSql = "select * from " + tableName;
-		List<Map<String, Object>> list = executeQuery(selectSql);
-		if (CollectionUtils.isNotEmpty(list)) {
-			return list.stream().filter(Objects::nonNull).map(this::buildByResultMap).collect(Collectors.toList());
-		}
-		return Collections.emptyList();
+		List<TccTransaction> list = new ArrayList<>();
+		executeScan(selectAllSql, list::add);
+		return list;
 	}
 
 	@Override
 	public List<TccTransaction> listAllByDelay(final Date date) {
-		String sb = "select * from " + tableName + " where last_time <?";
-		List<Map<String, Object>> list = executeQuery(sb, date);
-		if (CollectionUtils.isNotEmpty(list)) {
-			return list.stream().filter(Objects::nonNull).map(this::buildByResultMap).collect(Collectors.toList());
+		List<TccTransaction> list = new ArrayList<>();
+		executeScan(selectByDelaySql, list::add, date);
+		return list;
+	}
+
+	@Override
+	public void scan(final int role, final Consumer<TccTransaction> consumer) {
+		executeScan(selectByRoleSql, consumer, role);
+	}
+
+	/**
+	 * stream the transactions, with the participant table their participant
+	 * rows are read for every PARTICIPANT_BATCH transactions
+	 */
+	private void executeScan(final String sql, final Consumer<TccTransaction> consumer, final Object... params) {
+		if (!participantTable) {
+			executeQuery(replicaDataSource, sql, true, this::buildByResultSet, consumer, params);
+			return;
+		}
+		final List<TccTransaction> batch = new ArrayList<>(PARTICIPANT_BATCH);
+		executeQuery(replicaDataSource, sql, true, this::buildByResultSet, tccTransaction -> {
+			batch.add(tccTransaction);
+			if (batch.size() >= PARTICIPANT_BATCH) {
+				fillParticipantRows(replicaDataSource, batch);
+				batch.forEach(consumer);
+				batch.clear();
+			}
+		}, params);
+		if (!batch.isEmpty()) {
+			fillParticipantRows(replicaDataSource, batch);
+			batch.forEach(consumer);
+		}
+	}
+
+	/**
+	 * pages in (last_time, trans_id) order on the index of the same columns,
+	 * the invocation is read only for the transactions passing the filter
+	 */
+	@Override
+	public void scanByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		Date lastTime = null;
+		String lastTransId = null;
+		while (true) {
+			List<TccTransaction> headers = new ArrayList<>(pageSize);
+			if (Objects.isNull(lastTime)) {
+				executeQuery(replicaDataSource, selectHeaderFirstPageSql, false, this::buildHeader, headers::add,
+						date, pageSize);
+			} else {
+				executeQuery(replicaDataSource, selectHeaderNextPageSql, false, this::buildHeader, headers::add,
+						date, lastTime, lastTime, lastTransId, pageSize);
+			}
+			if (headers.isEmpty()) {
+				return;
+			}
+			final TccTransaction last = headers.get(headers.size() - 1);
+			lastTime = last.getLastTime();
+			lastTransId = last.getTransId();
+			final List<TccTransaction> page = headers.stream().filter(filter).collect(Collectors.toList());
+			if (!page.isEmpty()) {
+				fillParticipants(replicaDataSource, page);
+				consumer.accept(page);
+			}
+			if (headers.size() < pageSize) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * on mysql 8 and postgresql a page is locked with skip locked and claimed in
+	 * the same database transaction, so nodes get disjoint pages. elsewhere the
+	 * headers of a page are read and claimed one by one by version.
+	 */
+	@Override
+	public void claimByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		Date lastTime = null;
+		String lastTransId = null;
+		while (true) {
+			List<TccTransaction> headers = new ArrayList<>(pageSize);
+			final List<TccTransaction> claimed;
+			if (skipLocked) {
+				claimed = claimSkipLocked(date, lastTime, lastTransId, pageSize, filter, headers);
+			} else {
+				if (Objects.isNull(lastTime)) {
+					executeQuery(dataSource, selectHeaderFirstPageSql, false, this::buildHeader, headers::add, date,
+							pageSize);
+				} else {
+					executeQuery(dataSource, selectHeaderNextPageSql, false, this::buildHeader, headers::add, date,
+							lastTime, lastTime, lastTransId, pageSize);
+				}
+				claimed = headers.stream().filter(filter).filter(this::claimByVersion).collect(Collectors.toList());
+			}
+			if (headers.isEmpty()) {
+				return;
+			}
+			final TccTransaction last = headers.get(headers.size() - 1);
+			lastTime = last.getLastTime();
+			lastTransId = last.getTransId();
+			if (!claimed.isEmpty()) {
+				fillParticipants(dataSource, claimed);
+				consumer.accept(claimed);
+			}
+			if (headers.size() < pageSize) {
+				return;
+			}
+		}
+	}
+
+	private List<TccTransaction> claimSkipLocked(final Date date, final Date lastTime, final String lastTransId,
+			final int pageSize, final Predicate<TccTransaction> filter, final List<TccTransaction> headers) {
+		Connection connection = null;
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			if (Objects.isNull(lastTime)) {
+				ps = connection.prepareStatement(claimFirstPageSql);
+				ps.setObject(1, convertDataTypeToDB(date));
+				ps.setInt(2, pageSize);
+			} else {
+				ps = connection.prepareStatement(claimNextPageSql);
+				ps.setObject(1, convertDataTypeToDB(date));
+				ps.setObject(2, convertDataTypeToDB(lastTime));
+				ps.setObject(3, convertDataTypeToDB(lastTime));
+				ps.setString(4, lastTransId);
+				ps.setInt(5, pageSize);
+			}
+			rs = ps.executeQuery();
+			while (rs.next()) {
+				headers.add(buildHeader(rs));
+			}
+			close(null, ps, rs);
+			rs = null;
+			ps = null;
+			final List<TccTransaction> claimed = headers.stream().filter(filter).collect(Collectors.toList());
+			final Date now = new Date();
+			if (!claimed.isEmpty()) {
+				ps = connection.prepareStatement(claimSql);
+				for (TccTransaction tccTransaction : claimed) {
+					ps.setObject(1, convertDataTypeToDB(now));
+					ps.setString(2, tccTransaction.getTransId());
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+			connection.commit();
+			claimed.forEach(tccTransaction -> markClaimed(tccTransaction, now));
+			return claimed;
+		} catch (SQLException e) {
+			LOGGER.error("claimSkipLocked-> " + e.getMessage());
+			rollback(connection);
+			headers.clear();
+			return Collections.emptyList();
+		} finally {
+			close(null, ps, rs);
+			resetAutoCommit(connection);
+			close(connection, null, null);
+		}
+	}
+
+	private boolean claimByVersion(final TccTransaction tccTransaction) {
+		final Date now = new Date();
+		if (executeUpdate(claimByVersionSql, now, tccTransaction.getTransId(), tccTransaction.getVersion()) > 0) {
+			markClaimed(tccTransaction, now);
+			return true;
 		}
-		return Collections.emptyList();
+		return false;
+	}
+
+	private void markClaimed(final TccTransaction tccTransaction, final Date now) {
+		tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
+		tccTransaction.setLastTime(now);
+		tccTransaction.setVersion(tccTransaction.getVersion() + 1);
 	}
 
 	@SuppressWarnings("unchecked")
-	private TccTransaction buildByResultMap(final Map<String, Object> map) {
-		TccTransaction tccTransaction = new TccTransaction();
-		tccTransaction.setTransId((String) map.get("trans_id"));
-		tccTransaction.setRetriedCount((Integer) map.get("retried_count"));
-		tccTransaction.setCreateTime((Date) map.get("create_time"));
-		tccTransaction.setLastTime((Date) map.get("last_time"));
-		tccTransaction.setVersion((Integer) map.get("version"));
-		tccTransaction.setStatus((Integer) map.get("status"));
-		tccTransaction.setRole((Integer) map.get("role"));
-		tccTransaction.setPattern((Integer) map.get("pattern"));
-		byte[] bytes = (byte[]) map.get("invocation");
+	private void fillParticipants(final DataSource source, final List<TccTransaction> tccTransactions) {
+		final Map<String, TccTransaction> byId = new HashMap<>(tccTransactions.size() << 1);
+		tccTransactions.forEach(tccTransaction -> byId.put(tccTransaction.getTransId(), tccTransaction));
+		final String sql = "select trans_id,invocation from " + tableName + " where trans_id in ("
+				+ String.join(",", Collections.nCopies(tccTransactions.size(), "?")) + ")";
+		executeQuery(source, sql, false, rs -> {
+			final TccTransaction tccTransaction = byId.get(rs.getString(1));
+			if (Objects.nonNull(tccTransaction)) {
+				tccTransaction.setParticipants(deSerializeParticipants(rs.getBytes(2)));
+			}
+			return tccTransaction;
+		}, tccTransaction -> {
+		}, byId.keySet().toArray());
+		if (participantTable) {
+			fillParticipantRows(source, tccTransactions);
+		}
+	}
+
+	/**
+	 * append the participant rows to the participants read from the blob
+	 */
+	private void fillParticipantRows(final DataSource source, final List<TccTransaction> tccTransactions) {
+		final Map<String, TccTransaction> byId = new HashMap<>(tccTransactions.size() << 1);
+		tccTransactions.forEach(tccTransaction -> byId.put(tccTransaction.getTransId(), tccTransaction));
+		final String sql = "select trans_id,invocation from " + participantTableName + " where trans_id in ("
+				+ String.join(",", Collections.nCopies(byId.size(), "?")) + ") order by trans_id, seq";
+		executeQuery(source, sql, false, rs -> {
+			final TccTransaction tccTransaction = byId.get(rs.getString(1));
+			if (Objects.nonNull(tccTransaction)) {
+				addParticipant(tccTransaction, rs.getBytes(2));
+			}
+			return tccTransaction;
+		}, tccTransaction -> {
+		}, byId.keySet().toArray());
+	}
+
+	private void addParticipant(final TccTransaction tccTransaction, final byte[] bytes) {
+		if (Objects.isNull(bytes)) {
+			return;
+		}
 		try {
-			final List<Participant> participants = serializer.deSerialize(bytes, CopyOnWriteArrayList.class);
-			tccTransaction.setParticipants(participants);
+			tccTransaction.registerParticipant(serializer.deSerialize(bytes, Participant.class));
 		} catch (TccException e) {
 			e.printStackTrace();
 		}
+	}
+
+	/**
+	 * delete the participant rows and insert the current participants, the
+	 * participants carry no identity to update a single row by
+	 */
+	private void replaceParticipants(final Connection connection, final TccTransaction tccTransaction)
+			throws SQLException, TccException {
+		executeUpdate(connection, removeParticipantsSql, tccTransaction.getTransId());
+		executeUpdate(connection, clearInvocationSql, tccTransaction.getTransId());
+		insertParticipants(connection, tccTransaction.getTransId(), tccTransaction.getParticipants());
+	}
+
+	private int insertParticipants(final Connection connection, final String transId,
+			final List<Participant> participants) throws SQLException, TccException {
+		if (CollectionUtils.isEmpty(participants)) {
+			return FAIL_ROWS;
+		}
+		List<Object[]> batchParams = new ArrayList<>(participants.size());
+		for (Participant participant : participants) {
+			batchParams.add(new Object[] { transId, participantSeq.incrementAndGet(),
+					serializer.serialize(participant) });
+		}
+		return executeBatch(connection, insertParticipantSql, batchParams);
+	}
+
+	private Object[] buildInsertParams(final TccTransaction tccTransaction, final byte[] invocation) {
+		return new Object[] { tccTransaction.getTransId(), tccTransaction.getTargetClass(),
+				tccTransaction.getTargetMethod(), tccTransaction.getRetriedCount(), tccTransaction.getCreateTime(),
+				tccTransaction.getLastTime(), tccTransaction.getVersion(), tccTransaction.getStatus(), invocation,
+				tccTransaction.getRole(), tccTransaction.getPattern() };
+	}
+
+	/**
+	 * columns in the order of SELECT_COLUMNS
+	 */
+	private TccTransaction buildByResultSet(final ResultSet rs) throws SQLException {
+		TccTransaction tccTransaction = buildHeader(rs);
+		tccTransaction.setParticipants(deSerializeParticipants(rs.getBytes(11)));
+		return tccTransaction;
+	}
+
+	/**
+	 * columns in the order of SELECT_COLUMNS, without invocation
+	 */
+	private TccTransaction buildHeader(final ResultSet rs) throws SQLException {
+		TccTransaction tccTransaction = new TccTransaction();
+		tccTransaction.setTransId(rs.getString(1));
+		tccTransaction.setTargetClass(rs.getString(2));
+		tccTransaction.setTargetMethod(rs.getString(3));
+		tccTransaction.setRetriedCount(rs.getInt(4));
+		tccTransaction.setCreateTime(rs.getTimestamp(5));
+		tccTransaction.setLastTime(rs.getTimestamp(6));
+		tccTransaction.setVersion(rs.getInt(7));
+		tccTransaction.setStatus(rs.getInt(8));
+		tccTransaction.setRole(rs.getInt(9));
+		final int pattern = rs.getInt(10);
+		tccTransaction.setPattern(rs.wasNull() ? null : pattern);
 		return tccTransaction;
 	}
 
+	@SuppressWarnings("unchecked")
+	private List<Participant> deSerializeParticipants(final byte[] bytes) {
+		if (Objects.isNull(bytes)) {
+			// written with the participant table
+			return new CopyOnWriteArrayList<>();
+		}
+		try {
+			return serializer.deSerialize(bytes, CopyOnWriteArrayList.class);
+		} catch (TccException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
 	@Override
 	public void init(final String modelName, final TccConfig txConfig) {
-		final TccDbConfig tccDbConfig = txConfig.getTccDbConfig();
+		init(modelName, txConfig.getTccDbConfig());
+	}
+
+	/**
+	 * create the pool and the tables of one database
+	 *
+	 * @param modelName
+	 *            modelName
+	 * @param tccDbConfig
+	 *            TccDbConfig
+	 */
+	public void init(final String modelName, final TccDbConfig tccDbConfig) {
+		final String dbType = DbTypeUtils.buildByDriverClassName(tccDbConfig.getDriverClassName());
+		dataSource = buildDataSource(tccDbConfig, dbType, tccDbConfig.getUrl(), tccDbConfig.getUsername(),
+				tccDbConfig.getPassword());
+		if (StringUtils.isNotBlank(tccDbConfig.getReplicaUrl())) {
+			replicaDataSource = buildDataSource(tccDbConfig, dbType, tccDbConfig.getReplicaUrl(),
+					StringUtils.defaultIfBlank(tccDbConfig.getReplicaUsername(), tccDbConfig.getUsername()),
+					StringUtils.defaultIfBlank(tccDbConfig.getReplicaPassword(), tccDbConfig.getPassword()));
+		} else {
+			replicaDataSource = dataSource;
+		}
+		streamFetchSize = buildStreamFetchSize(tccDbConfig, dbType);
+
+		this.tableName = RepositoryPathUtils.buildDbTableName(modelName);
+		this.participantTableName = tableName + "_participant";
+		this.participantTable = tccDbConfig.isParticipantTable();
+		buildSql(tccDbConfig.getDriverClassName());
+		executeUpdate(SqlHelper.buildCreateTableSql(tccDbConfig.getDriverClassName(), tableName));
+		if (participantTable) {
+			executeUpdate(SqlHelper.buildCreateParticipantTableSql(tccDbConfig.getDriverClassName(),
+					participantTableName));
+		}
+		createIndexIfAbsent(dataSource, tableName, "idx_" + tableName + "_last_time");
+		skipLocked = supportSkipLocked(dbType);
+	}
+
+	static HikariDataSource buildDataSource(final TccDbConfig tccDbConfig, final String dbType, final String url,
+			final String username, final String password) {
 		HikariDataSource hikariDataSource = new HikariDataSource();
-		hikariDataSource.setJdbcUrl(tccDbConfig.getUrl());
+		hikariDataSource.setJdbcUrl(url);
 		hikariDataSource.setDriverClassName(tccDbConfig.getDriverClassName());
-		hikariDataSource.setUsername(tccDbConfig.getUsername());
-		hikariDataSource.setPassword(tccDbConfig.getPassword());
+		hikariDataSource.setUsername(username);
+		hikariDataSource.setPassword(password);
 		hikariDataSource.setMaximumPoolSize(tccDbConfig.getMaxActive());
 		hikariDataSource.setMinimumIdle(tccDbConfig.getMinIdle());
 		hikariDataSource.setConnectionTimeout(tccDbConfig.getConnectionTimeout());
 		hikariDataSource.setIdleTimeout(tccDbConfig.getIdleTimeout());
 		hikariDataSource.setMaxLifetime(tccDbConfig.getMaxLifetime());
 		hikariDataSource.setConnectionTestQuery(tccDbConfig.getConnectionTestQuery());
+		if (CommonConstant.DB_MYSQL.equals(dbType) && tccDbConfig.getPrepStmtCacheSize() > 0) {
+			// statement cache of the mysql driver, overridden by dataSourcePropertyMap
+			hikariDataSource.addDataSourceProperty("cachePrepStmts", "true");
+			hikariDataSource.addDataSourceProperty("prepStmtCacheSize", tccDbConfig.getPrepStmtCacheSize());
+			hikariDataSource.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+			hikariDataSource.addDataSourceProperty("useServerPrepStmts", "true");
+		}
 		if (tccDbConfig.getDataSourcePropertyMap() != null && !tccDbConfig.getDataSourcePropertyMap().isEmpty()) {
 			tccDbConfig.getDataSourcePropertyMap().forEach(hikariDataSource::addDataSourceProperty);
 		}
-		dataSource = hikariDataSource;
+		return hikariDataSource;
+	}
 
-		this.tableName = RepositoryPathUtils.buildDbTableName(modelName);
-		executeUpdate(SqlHelper.buildCreateTableSql(tccDbConfig.getDriverClassName(), tableName));
+	static int buildStreamFetchSize(final TccDbConfig tccDbConfig, final String dbType) {
+		// mysql streams only with Integer.MIN_VALUE, unless cursor fetch is enabled
+		return CommonConstant.DB_MYSQL.equals(dbType)
+				&& !StringUtils.contains(tccDbConfig.getUrl(), "useCursorFetch=true") ? Integer.MIN_VALUE
+				: tccDbConfig.getFetchSize();
+	}
+
+	private void buildSql(final String driverClassName) {
+		insertSql = "insert into " + tableName
+				+ "(trans_id,target_class,target_method,retried_count,create_time,last_time,version,status,invocation,role,pattern)"
+				+ " values(?,?,?,?,?,?,?,?,?,?,?)";
+		removeSql = "delete from " + tableName + " where trans_id = ? ";
+		updateSql = "update " + tableName
+				+ " set last_time = ?,version =?,retried_count =?,invocation=?,status=? ,confirm_method=?,cancel_method=? ,pattern=? where trans_id = ? and version=? ";
+		updateParticipantSql = "update " + tableName + " set invocation=?  where trans_id = ?  ";
+		updateStatusSql = "update " + tableName + " set status=?  where trans_id = ?  ";
+		selectByIdSql = "select " + SELECT_COLUMNS + " from " + tableName + " where trans_id=?";
+		selectAllSql = "select " + SELECT_COLUMNS + " from " + tableName;
+		selectByDelaySql = "select " + SELECT_COLUMNS + " from " + tableName + " where last_time <?";
+		selectByRoleSql = "select " + SELECT_COLUMNS + " from " + tableName + " where role = ?";
+		selectHeaderFirstPageSql = SqlHelper.buildLimitSql(driverClassName, "select " + HEADER_COLUMNS + " from "
+				+ tableName + " where last_time < ? order by last_time, trans_id");
+		selectHeaderNextPageSql = SqlHelper.buildLimitSql(driverClassName, "select " + HEADER_COLUMNS + " from "
+				+ tableName + " where last_time < ? and (last_time > ? or (last_time = ? and trans_id > ?))"
+				+ " order by last_time, trans_id");
+		claimFirstPageSql = SqlHelper.buildSkipLockedSql("select " + HEADER_COLUMNS + " from " + tableName
+				+ " where last_time < ? order by last_time, trans_id");
+		claimNextPageSql = SqlHelper.buildSkipLockedSql("select " + HEADER_COLUMNS + " from " + tableName
+				+ " where last_time < ? and (last_time > ? or (last_time = ? and trans_id > ?))"
+				+ " order by last_time, trans_id");
+		claimSql = "update " + tableName
+				+ " set last_time = ?,version = version + 1,retried_count = retried_count + 1 where trans_id = ?";
+		claimByVersionSql = claimSql + " and version = ?";
+		updateHeaderSql = "update " + tableName
+				+ " set last_time = ?,version =?,retried_count =?,status=? ,confirm_method=?,cancel_method=? ,pattern=? where trans_id = ? and version=? ";
+		// rows written with the blob move to the participant table on their first update
+		clearInvocationSql = "update " + tableName + " set invocation = null where trans_id = ? and invocation is not null";
+		insertParticipantSql = "insert into " + participantTableName + "(trans_id,seq,invocation) values(?,?,?)";
+		removeParticipantsSql = "delete from " + participantTableName + " where trans_id = ?";
+		selectJoinByIdSql = "select m." + SELECT_COLUMNS.replace(",", ",m.") + ",p.invocation from " + tableName
+				+ " m left join " + participantTableName + " p on p.trans_id = m.trans_id where m.trans_id = ?"
+				+ " order by p.seq";
+	}
+
+	private boolean supportSkipLocked(final String dbType) {
+		if (CommonConstant.DB_POSTGRESQL.equals(dbType)) {
+			return true;
+		}
+		if (!CommonConstant.DB_MYSQL.equals(dbType)) {
+			return false;
+		}
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			final DatabaseMetaData metaData = connection.getMetaData();
+			// mariadb reports its own versions
+			return metaData.getDatabaseMajorVersion() >= 8
+					&& !StringUtils.containsIgnoreCase(metaData.getDatabaseProductVersion(), "mariadb");
+		} catch (SQLException e) {
+			LOGGER.error("supportSkipLocked-> " + e.getMessage());
+			return false;
+		} finally {
+			close(connection, null, null);
+		}
+	}
+
+	/**
+	 * tables created before the index existed get it on the next start
+	 */
+	static void createIndexIfAbsent(final DataSource dataSource, final String tableName, final String indexName) {
+		createIndexIfAbsent(dataSource, tableName, indexName, SqlHelper.buildCreateIndexSql(indexName, tableName));
+	}
+
+	static void createIndexIfAbsent(final DataSource dataSource, final String tableName, final String indexName,
+			final String createIndexSql) {
+		try (Connection connection = dataSource.getConnection()) {
+			final DatabaseMetaData metaData = connection.getMetaData();
+			final String table = metaData.storesUpperCaseIdentifiers() ? tableName.toUpperCase() : tableName;
+			try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+				while (rs.next()) {
+					if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+						return;
+					}
+				}
+			}
+			try (PreparedStatement ps = connection.prepareStatement(createIndexSql)) {
+				ps.executeUpdate();
+			}
+		} catch (SQLException e) {
+			LoggerFactory.getLogger(JdbcCoordinatorRepository.class).error("createIndexIfAbsent-> " + e.getMessage());
+		}
 	}
 
 	@Override
@@ -222,40 +818,191 @@ public class JdbcCoordinatorRepository implements CoordinatorRepository {
 
 	}
 
-	private Object convertDataTypeToDB(Object params) {
+	/**
+	 * a write of the transaction log, throws when the statement fails so that a
+	 * caller waiting for the write never takes it as stored
+	 */
+	private int executeWrite(final String sql, final Object... params) {
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			return executeUpdate(connection, sql, params);
+		} catch (SQLException e) {
+			LOGGER.error("executeWrite-> " + e.getMessage());
+			throw new TccRuntimeException(e);
+		} finally {
+			close(connection, null, null);
+		}
+	}
+
+	private int executeUpdate(final Connection connection, final String sql, final Object... params)
+			throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+			for (int i = 0; i < params.length; i++) {
+				ps.setObject(i + 1, convertDataTypeToDB(params[i]));
+			}
+			return ps.executeUpdate();
+		}
+	}
+
+	/**
+	 * run the callback in one database transaction, rolled back and thrown when
+	 * it fails
+	 */
+	private int executeInTransaction(final TransactionCallback callback) {
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			final int rows = callback.execute(connection);
+			connection.commit();
+			return rows;
+		} catch (SQLException | TccException e) {
+			LOGGER.error("executeInTransaction-> " + e.getMessage());
+			rollback(connection);
+			throw new TccRuntimeException(e);
+		} finally {
+			resetAutoCommit(connection);
+			close(connection, null, null);
+		}
+	}
+
+	/**
+	 * execute all params on one connection and commit once, when the batch fails
+	 * it is rolled back and replayed row by row so that one bad row does not lose
+	 * the others. a row failing again is thrown once the others are written.
+	 */
+	private int executeBatch(final String sql, final List<Object[]> batchParams) {
+		if (batchParams.isEmpty()) {
+			return FAIL_ROWS;
+		}
+		Connection connection = null;
+		try {
+			connection = dataSource.getConnection();
+			connection.setAutoCommit(false);
+			final int rows = executeBatch(connection, sql, batchParams);
+			connection.commit();
+			return rows;
+		} catch (SQLException e) {
+			LOGGER.error("executeBatch-> " + e.getMessage());
+			rollback(connection);
+		} finally {
+			resetAutoCommit(connection);
+			close(connection, null, null);
+		}
+		return replay(batchParams, params -> executeWrite(sql, params));
+	}
+
+	/**
+	 * write the items one by one, the first failure is thrown after the others
+	 * are written
+	 */
+	private <T> int replay(final List<T> items, final ToIntFunction<T> write) {
+		TccRuntimeException failure = null;
+		int rows = 0;
+		for (T item : items) {
+			try {
+				rows += write.applyAsInt(item);
+			} catch (TccRuntimeException e) {
+				failure = e;
+			}
+		}
+		if (Objects.nonNull(failure)) {
+			throw failure;
+		}
+		return rows;
+	}
+
+	private int executeBatch(final Connection connection, final String sql, final List<Object[]> batchParams)
+			throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+			for (Object[] params : batchParams) {
+				for (int i = 0; i < params.length; i++) {
+					ps.setObject(i + 1, convertDataTypeToDB(params[i]));
+				}
+				ps.addBatch();
+			}
+			int rows = 0;
+			for (int result : ps.executeBatch()) {
+				if (result == Statement.SUCCESS_NO_INFO) {
+					rows += ROWS;
+				} else if (result > 0) {
+					rows += result;
+				}
+			}
+			return rows;
+		}
+	}
+
+	private void rollback(final Connection connection) {
+		if (connection != null) {
+			try {
+				connection.rollback();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void resetAutoCommit(final Connection connection) {
+		if (connection != null) {
+			try {
+				connection.setAutoCommit(true);
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	static Object convertDataTypeToDB(Object params) {
+		// postgresql does not accept java.util.Date
+		if (params instanceof Date && !(params instanceof java.sql.Date || params instanceof Timestamp)) {
+			return new Timestamp(((Date) params).getTime());
+		}
 		return params;
 	}
 
-	private List<Map<String, Object>> executeQuery(final String sql, final Object... params) {
+	/**
+	 * map every row to a TccTransaction as it is read. a streaming query runs
+	 * outside autocommit with the stream fetch size, so the driver does not load
+	 * the whole result first.
+	 */
+	private void executeQuery(final DataSource source, final String sql, final boolean stream,
+			final RowMapper rowMapper, final Consumer<TccTransaction> consumer, final Object... params) {
 		Connection connection = null;
 		PreparedStatement ps = null;
 		ResultSet rs = null;
-		List<Map<String, Object>> list = null;
+		boolean resetAutoCommit = false;
 		try {
-			connection = dataSource.getConnection();
-			ps = connection.prepareStatement(sql);
+			connection = source.getConnection();
+			if (stream && connection.getAutoCommit()) {
+				// postgresql only uses a cursor outside autocommit
+				connection.setAutoCommit(false);
+				resetAutoCommit = true;
+			}
+			ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			if (stream) {
+				ps.setFetchSize(streamFetchSize);
+			}
 			if (params != null) {
 				for (int i = 0; i < params.length; i++) {
 					ps.setObject(i + 1, convertDataTypeToDB(params[i]));
 				}
 			}
 			rs = ps.executeQuery();
-			ResultSetMetaData md = rs.getMetaData();
-			int columnCount = md.getColumnCount();
-			list = new ArrayList<>();
 			while (rs.next()) {
-				Map<String, Object> rowData = Maps.newHashMap();
-				for (int i = 1; i <= columnCount; i++) {
-					rowData.put(md.getColumnName(i), rs.getObject(i));
-				}
-				list.add(rowData);
+				consumer.accept(rowMapper.map(rs));
 			}
 		} catch (SQLException e) {
 			LOGGER.error("executeQuery-> " + e.getMessage());
 		} finally {
-			close(connection, ps, rs);
+			// a streaming result set must be closed before the connection is used again
+			close(null, ps, rs);
+			if (resetAutoCommit) {
+				resetAutoCommit(connection);
+			}
+			close(connection, null, null);
 		}
-		return list;
 	}
 
 	private void close(final Connection connection, final PreparedStatement ps, final ResultSet rs) {
@@ -273,4 +1020,22 @@ public class JdbcCoordinatorRepository implements CoordinatorRepository {
 			e.printStackTrace();
 		}
 	}
+
+	/**
+	 * maps the current row
+	 */
+	@FunctionalInterface
+	private interface RowMapper {
+
+		TccTransaction map(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * statements of one database transaction
+	 */
+	@FunctionalInterface
+	private interface TransactionCallback {
+
+		int execute(Connection connection) throws SQLException, TccException;
+	}
 }
@@ -12,6 +12,7 @@ import com.li.tcc.common.exception.TccRuntimeException;
 import com.li.tcc.common.serializer.ObjectSerializer;
 import com.li.tcc.common.utils.AssertUtils;
 import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.common.utils.RepositoryConvertUtils;
 import com.li.tcc.common.utils.RepositoryPathUtils;
 import com.li.tcc.core.spi.CoordinatorRepository;
 import com.mongodb.MongoCredential;
@@ -21,6 +22,7 @@ import com.mongodb.client.result.UpdateResult;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoClientFactoryBean;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -28,9 +30,11 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
@@ -53,26 +57,17 @@ public class MongoCoordinatorRepository implements CoordinatorRepository {
 
 	private String collectionName;
 
+	/**
+	 * participants appended after the last full write
+	 */
+	private static final String APPEND_CONTENTS = "appendContents";
+
 	@Override
 	public int create(final TccTransaction tccTransaction) {
 		try {
-			MongoAdapter mongoBean = new MongoAdapter();
-			mongoBean.setTransId(tccTransaction.getTransId());
-			mongoBean.setCreateTime(tccTransaction.getCreateTime());
-			mongoBean.setLastTime(tccTransaction.getLastTime());
-			mongoBean.setRetriedCount(tccTransaction.getRetriedCount());
-			mongoBean.setStatus(tccTransaction.getStatus());
-			mongoBean.setRole(tccTransaction.getRole());
-			mongoBean.setPattern(tccTransaction.getPattern());
-			mongoBean.setTargetClass(tccTransaction.getTargetClass());
-			mongoBean.setTargetMethod(tccTransaction.getTargetMethod());
-			mongoBean.setConfirmMethod("");
-			mongoBean.setCancelMethod("");
-			final byte[] cache = objectSerializer.serialize(tccTransaction.getParticipants());
-			mongoBean.setContents(cache);
-			template.save(mongoBean, collectionName);
+			template.save(buildMongoAdapter(tccTransaction), collectionName);
 		} catch (TccException e) {
-			e.printStackTrace();
+			throw new TccRuntimeException(e);
 		}
 		return ROWS;
 	}
@@ -102,9 +97,10 @@ public class MongoCoordinatorRepository implements CoordinatorRepository {
 					update.set("cancelMethod", participant.getCancelTccInvocation().getMethodName());
 				}
 				update.set("contents", objectSerializer.serialize(tccTransaction.getParticipants()));
+				update.unset(APPEND_CONTENTS);
 			}
 		} catch (TccException e) {
-			e.printStackTrace();
+			throw new TccRuntimeException(e);
 		}
 		final UpdateResult updateResult = template.updateFirst(query, update, MongoAdapter.class, collectionName);
 
@@ -121,8 +117,9 @@ public class MongoCoordinatorRepository implements CoordinatorRepository {
 		Update update = new Update();
 		try {
 			update.set("contents", objectSerializer.serialize(tccTransaction.getParticipants()));
+			update.unset(APPEND_CONTENTS);
 		} catch (TccException e) {
-			e.printStackTrace();
+			throw new TccRuntimeException(e);
 		}
 		final UpdateResult updateResult = template.updateFirst(query, update, MongoAdapter.class, collectionName);
 		if (updateResult.getModifiedCount() <= 0) {
@@ -131,6 +128,27 @@ public class MongoCoordinatorRepository implements CoordinatorRepository {
 		return ROWS;
 	}
 
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		Query query = new Query();
+		query.addCriteria(new Criteria("transId").is(tccTransaction.getTransId()));
+		Object[] appendContents = new Object[participants.size()];
+		try {
+			for (int i = 0; i < appendContents.length; i++) {
+				appendContents[i] = objectSerializer.serialize(participants.get(i));
+			}
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+		Update update = new Update();
+		update.push(APPEND_CONTENTS).each(appendContents);
+		final UpdateResult updateResult = template.updateFirst(query, update, MongoAdapter.class, collectionName);
+		if (updateResult.getModifiedCount() <= 0) {
+			throw new TccRuntimeException("更新数据异常!");
+		}
+		return ROWS;
+	}
+
 	@Override
 	public int updateStatus(final String id, final Integer status) {
 		Query query = new Query();
@@ -144,6 +162,79 @@ public class MongoCoordinatorRepository implements CoordinatorRepository {
 		return ROWS;
 	}
 
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		List<MongoAdapter> mongoBeans = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				mongoBeans.add(buildMongoAdapter(tccTransaction));
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		if (mongoBeans.isEmpty()) {
+			return FAIL_ROWS;
+		}
+		return template.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoAdapter.class, collectionName)
+				.insert(mongoBeans).execute().getInsertedCount();
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		BulkOperations bulkOperations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoAdapter.class,
+				collectionName);
+		ids.forEach(id -> bulkOperations.remove(new Query(new Criteria("transId").is(id))));
+		return bulkOperations.execute().getDeletedCount();
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		BulkOperations bulkOperations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoAdapter.class,
+				collectionName);
+		int count = 0;
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				Update update = new Update();
+				update.set("contents", objectSerializer.serialize(tccTransaction.getParticipants()));
+				update.unset(APPEND_CONTENTS);
+				bulkOperations.updateOne(new Query(new Criteria("transId").is(tccTransaction.getTransId())), update);
+				count++;
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		if (count == 0) {
+			return FAIL_ROWS;
+		}
+		return bulkOperations.execute().getModifiedCount();
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		BulkOperations bulkOperations = template.bulkOps(BulkOperations.BulkMode.UNORDERED, MongoAdapter.class,
+				collectionName);
+		statuses.forEach((id, status) -> bulkOperations.updateOne(new Query(new Criteria("transId").is(id)),
+				new Update().set("status", status)));
+		return bulkOperations.execute().getModifiedCount();
+	}
+
+	private MongoAdapter buildMongoAdapter(final TccTransaction tccTransaction) throws TccException {
+		MongoAdapter mongoBean = new MongoAdapter();
+		mongoBean.setTransId(tccTransaction.getTransId());
+		mongoBean.setCreateTime(tccTransaction.getCreateTime());
+		mongoBean.setLastTime(tccTransaction.getLastTime());
+		mongoBean.setRetriedCount(tccTransaction.getRetriedCount());
+		mongoBean.setStatus(tccTransaction.getStatus());
+		mongoBean.setRole(tccTransaction.getRole());
+		mongoBean.setPattern(tccTransaction.getPattern());
+		mongoBean.setTargetClass(tccTransaction.getTargetClass());
+		mongoBean.setTargetMethod(tccTransaction.getTargetMethod());
+		mongoBean.setConfirmMethod("");
+		mongoBean.setCancelMethod("");
+		mongoBean.setContents(objectSerializer.serialize(tccTransaction.getParticipants()));
+		return mongoBean;
+	}
+
 	@Override
 	public TccTransaction findById(final String id) {
 		Query query = new Query();
@@ -169,6 +260,7 @@ public class MongoCoordinatorRepository implements CoordinatorRepository {
 			List<Participant> participants = (List<Participant>) objectSerializer.deSerialize(cache.getContents(),
 					CopyOnWriteArrayList.class);
 			tccTransaction.setParticipants(participants);
+			RepositoryConvertUtils.mergeParticipants(tccTransaction, cache.getAppendContents(), objectSerializer);
 			return tccTransaction;
 		} catch (TccException e) {
 			LogUtil.error(LOGGER, "mongodb 反序列化异常:{}", e::getLocalizedMessage);
@@ -1,8 +1,10 @@
 package com.li.tcc.core.spi.repository;
 
 import com.google.common.base.Splitter;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.li.tcc.common.bean.adapter.CoordinatorRepositoryAdapter;
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.config.TccConfig;
 import com.li.tcc.common.config.TccRedisConfig;
@@ -27,13 +29,29 @@ import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
- * redis impl
+ * redis impl, every transaction is a hash of the fields of
+ * RepositoryConvertUtils and a member of the sorted set indexKey scored by its
+ * lastTime, the scans page through the index instead of KEYS. status and
+ * participants are written as single fields, versioned writes run as a lua
+ * compare and set of the version field.
  *
  * @author yuan.li
  */
@@ -44,17 +62,66 @@ public class RedisCoordinatorRepository implements CoordinatorRepository {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(RedisCoordinatorRepository.class);
 
-	private ObjectSerializer objectSerializer;
+	/**
+	 * members read at a time by listAll
+	 */
+	private static final int PAGE_SIZE = 1000;
+
+	/**
+	 * value of layoutKey once the transactions are stored as hashes
+	 */
+	private static final String HASH_LAYOUT = "hash";
+
+	/**
+	 * set the field value pairs of ARGV on the hash KEYS[1], only when it
+	 * exists so that a removed transaction is not written back
+	 */
+	static final String HSET_SCRIPT = "if redis.call('exists', KEYS[1]) == 0 then return 0 end; "
+			+ "redis.call('hmset', KEYS[1], unpack(ARGV)); return 1";
+
+	/**
+	 * set the field value pairs of ARGV[2..] on the hash KEYS[1] when its
+	 * version is ARGV[1]
+	 */
+	private static final String CAS_SCRIPT = "local v = redis.call('hget', KEYS[1], '"
+			+ RepositoryConvertUtils.FIELD_VERSION + "'); "
+			+ "if not v or tonumber(v) ~= tonumber(ARGV[1]) then return 0 end; "
+			+ "redis.call('hmset', KEYS[1], unpack(ARGV, 2)); return 1";
 
-	private JedisClient jedisClient;
+	ObjectSerializer objectSerializer;
+
+	JedisClient jedisClient;
+
+	/**
+	 * pool of the single mode, null in cluster mode
+	 */
+	JedisPool jedisPool;
+
+	String keyPrefix;
+
+	/**
+	 * appended participants of a transaction are kept in a list under this
+	 * prefix, it does not match keyPrefix + "*"
+	 */
+	private String participantKeyPrefix;
+
+	/**
+	 * sorted set of the transIds scored by lastTime, written with each
+	 * transaction
+	 */
+	String indexKey;
 
-	private String keyPrefix;
+	/**
+	 * layout of the stored transactions, see migrate
+	 */
+	private String layoutKey;
 
 	@Override
 	public int create(final TccTransaction tccTransaction) {
 		try {
 			final String redisKey = RepositoryPathUtils.buildRedisKey(keyPrefix, tccTransaction.getTransId());
-			jedisClient.set(redisKey, RepositoryConvertUtils.convert(tccTransaction, objectSerializer));
+			jedisClient.hmsetWithIndex(redisKey, RepositoryConvertUtils.convertHash(tccTransaction, objectSerializer),
+					indexKey, tccTransaction.getTransId(), tccTransaction.getLastTime().getTime());
 			return ROWS;
 		} catch (Exception e) {
 			throw new TccRuntimeException(e);
@@ -65,20 +132,35 @@ public class RedisCoordinatorRepository implements CoordinatorRepository {
 	public int remove(final String id) {
 		try {
 			final String redisKey = RepositoryPathUtils.buildRedisKey(keyPrefix, id);
-			return jedisClient.del(redisKey).intValue();
+			final int rows = jedisClient.delBatchWithIndex(Collections.singletonList(redisKey), indexKey,
+					Collections.singletonList(id)).intValue();
+			jedisClient.del(buildParticipantKey(id));
+			return rows;
 		} catch (Exception e) {
 			throw new TccRuntimeException(e);
 		}
 	}
 
+	/**
+	 * rewrite the hash when its version is still the version of the
+	 * transaction
+	 */
 	@Override
 	public int update(final TccTransaction tccTransaction) throws TccRuntimeException {
 		try {
 			final String redisKey = RepositoryPathUtils.buildRedisKey(keyPrefix, tccTransaction.getTransId());
+			final Integer currentVersion = tccTransaction.getVersion();
 			tccTransaction.setVersion(tccTransaction.getVersion() + 1);
 			tccTransaction.setLastTime(new Date());
 			tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
-			jedisClient.set(redisKey, RepositoryConvertUtils.convert(tccTransaction, objectSerializer));
+			final List<byte[]> args = buildArgs(currentVersion,
+					RepositoryConvertUtils.convertHash(tccTransaction, objectSerializer));
+			if (!isUpdated(jedisClient.eval(CAS_SCRIPT, Collections.singletonList(redisKey), args))) {
+				return FAIL_ROWS;
+			}
+			jedisClient.zadd(indexKey, Collections.singletonMap(tccTransaction.getTransId(),
+					(double) tccTransaction.getLastTime().getTime()));
+			jedisClient.del(buildParticipantKey(tccTransaction.getTransId()));
 			return ROWS;
 		} catch (Exception e) {
 			throw new TccRuntimeException(e);
@@ -88,81 +170,417 @@ public class RedisCoordinatorRepository implements CoordinatorRepository {
 	@Override
 	public int updateParticipant(final TccTransaction tccTransaction) {
 		final String redisKey = RepositoryPathUtils.buildRedisKey(keyPrefix, tccTransaction.getTransId());
-		byte[] contents = jedisClient.get(redisKey.getBytes());
 		try {
-			CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(contents,
-					CoordinatorRepositoryAdapter.class);
-			adapter.setContents(objectSerializer.serialize(tccTransaction.getParticipants()));
-			jedisClient.set(redisKey, objectSerializer.serialize(adapter));
+			final byte[] participants = objectSerializer.serialize(tccTransaction.getParticipants());
+			final List<byte[]> args = buildArgs(null,
+					Collections.singletonMap(RepositoryConvertUtils.FIELD_PARTICIPANTS, participants));
+			if (!isUpdated(jedisClient.eval(HSET_SCRIPT, Collections.singletonList(redisKey), args))) {
+				return FAIL_ROWS;
+			}
+			jedisClient.del(buildParticipantKey(tccTransaction.getTransId()));
 		} catch (TccException e) {
-			e.printStackTrace();
-			return FAIL_ROWS;
+			throw new TccRuntimeException(e);
 		}
 		return ROWS;
 	}
 
 	@Override
-	public int updateStatus(final String id, final Integer status) {
-		final String redisKey = RepositoryPathUtils.buildRedisKey(keyPrefix, id);
-		byte[] contents = jedisClient.get(redisKey.getBytes());
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
 		try {
-			CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(contents,
-					CoordinatorRepositoryAdapter.class);
-			adapter.setStatus(status);
-			jedisClient.set(redisKey, objectSerializer.serialize(adapter));
+			byte[][] values = new byte[participants.size()][];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = objectSerializer.serialize(participants.get(i));
+			}
+			jedisClient.rpush(buildParticipantKey(tccTransaction.getTransId()), values);
+			return ROWS;
 		} catch (TccException e) {
-			e.printStackTrace();
-			return FAIL_ROWS;
+			throw new TccRuntimeException(e);
 		}
-		return ROWS;
 	}
 
 	@Override
-	public TccTransaction findById(final String id) {
+	public int updateStatus(final String id, final Integer status) {
+		final String redisKey = RepositoryPathUtils.buildRedisKey(keyPrefix, id);
+		final List<byte[]> args = buildArgs(null, Collections.singletonMap(RepositoryConvertUtils.FIELD_STATUS,
+				RepositoryConvertUtils.toBytes(status)));
+		return isUpdated(jedisClient.eval(HSET_SCRIPT, Collections.singletonList(redisKey), args)) ? ROWS
+				: FAIL_ROWS;
+	}
+
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
 		try {
-			final String redisKey = RepositoryPathUtils.buildRedisKey(keyPrefix, id);
-			byte[] contents = jedisClient.get(redisKey.getBytes());
-			return RepositoryConvertUtils.transformBean(contents, objectSerializer);
+			if (tccTransactions.isEmpty()) {
+				return FAIL_ROWS;
+			}
+			Map<String, Map<String, byte[]>> hashes = new LinkedHashMap<>(tccTransactions.size());
+			Map<String, Double> scores = new LinkedHashMap<>(tccTransactions.size());
+			for (TccTransaction tccTransaction : tccTransactions) {
+				hashes.put(RepositoryPathUtils.buildRedisKey(keyPrefix, tccTransaction.getTransId()),
+						RepositoryConvertUtils.convertHash(tccTransaction, objectSerializer));
+				scores.put(tccTransaction.getTransId(), (double) tccTransaction.getLastTime().getTime());
+			}
+			jedisClient.hmsetBatchWithIndex(hashes, indexKey, scores);
+			return hashes.size();
 		} catch (Exception e) {
-			return null;
+			throw new TccRuntimeException(e);
 		}
 	}
 
 	@Override
-	public List<TccTransaction> listAll() {
+	public int batchRemove(final List<String> ids) {
 		try {
-			List<TccTransaction> transactions = Lists.newArrayList();
-			Set<byte[]> keys = jedisClient.keys((keyPrefix + "*").getBytes());
-			for (final byte[] key : keys) {
-				byte[] contents = jedisClient.get(key);
-				if (contents != null) {
-					transactions.add(RepositoryConvertUtils.transformBean(contents, objectSerializer));
-				}
+			final List<String> redisKeys = ids.stream().map(id -> RepositoryPathUtils.buildRedisKey(keyPrefix, id))
+					.collect(Collectors.toList());
+			if (ids.isEmpty()) {
+				return FAIL_ROWS;
 			}
-			return transactions;
+			final int rows = jedisClient.delBatchWithIndex(redisKeys, indexKey, ids).intValue();
+			jedisClient.delBatch(ids.stream().map(this::buildParticipantKey).collect(Collectors.toList()));
+			return rows;
 		} catch (Exception e) {
 			throw new TccRuntimeException(e);
 		}
 	}
 
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		List<String> ids = new ArrayList<>(tccTransactions.size());
+		List<List<byte[]>> args = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				args.add(buildArgs(null, Collections.singletonMap(RepositoryConvertUtils.FIELD_PARTICIPANTS,
+						objectSerializer.serialize(tccTransaction.getParticipants()))));
+				ids.add(tccTransaction.getTransId());
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		final List<String> updated = batchEval(HSET_SCRIPT, ids, args);
+		if (!updated.isEmpty()) {
+			jedisClient.delBatch(updated.stream().map(this::buildParticipantKey).collect(Collectors.toList()));
+		}
+		return updated.size();
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		List<String> ids = new ArrayList<>(statuses.size());
+		List<List<byte[]>> args = new ArrayList<>(statuses.size());
+		statuses.forEach((id, status) -> {
+			ids.add(id);
+			args.add(buildArgs(null, Collections.singletonMap(RepositoryConvertUtils.FIELD_STATUS,
+					RepositoryConvertUtils.toBytes(status))));
+		});
+		return batchEval(HSET_SCRIPT, ids, args).size();
+	}
+
+	@Override
+	public TccTransaction findById(final String id) {
+		try {
+			final String redisKey = buildHashKey(id);
+			final TccTransaction tccTransaction = RepositoryConvertUtils.transformHash(jedisClient.hgetAll(redisKey),
+					objectSerializer);
+			return Objects.isNull(tccTransaction) ? null : mergeParticipants(tccTransaction);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	@Override
+	public List<TccTransaction> listAll() {
+		List<TccTransaction> transactions = Lists.newArrayList();
+		scanIndex("+inf", PAGE_SIZE, false, transactions::addAll);
+		return transactions;
+	}
+
 	@Override
 	public List<TccTransaction> listAllByDelay(final Date date) {
-		final List<TccTransaction> tccTransactions = listAll();
-		return tccTransactions.stream().filter(tccTransaction -> tccTransaction.getLastTime().compareTo(date) > 0)
-				.collect(Collectors.toList());
+		List<TccTransaction> transactions = Lists.newArrayList();
+		scanIndex("(" + date.getTime(), PAGE_SIZE, true, transactions::addAll);
+		return transactions;
+	}
+
+	/**
+	 * page through the index up to the date, the bodies of a page are read in
+	 * one pipeline
+	 */
+	@Override
+	public void scanByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		scanIndex("(" + date.getTime(), pageSize, true, page -> {
+			final List<TccTransaction> filtered = page.stream().filter(filter).collect(Collectors.toList());
+			if (!filtered.isEmpty()) {
+				consumer.accept(filtered);
+			}
+		});
+	}
+
+	/**
+	 * claim the transactions of every page with the version script, only
+	 * version, lastTime and retriedCount of the hash are written
+	 */
+	@Override
+	public void claimByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		scanByDelay(date, pageSize, filter, page -> {
+			final Date now = new Date();
+			List<String> ids = new ArrayList<>(page.size());
+			List<List<byte[]>> args = new ArrayList<>(page.size());
+			for (TccTransaction tccTransaction : page) {
+				Map<String, byte[]> fields = new HashMap<>(4);
+				fields.put(RepositoryConvertUtils.FIELD_VERSION,
+						RepositoryConvertUtils.toBytes(tccTransaction.getVersion() + 1));
+				fields.put(RepositoryConvertUtils.FIELD_LAST_TIME, RepositoryConvertUtils.toBytes(now.getTime()));
+				fields.put(RepositoryConvertUtils.FIELD_RETRIED_COUNT,
+						RepositoryConvertUtils.toBytes(tccTransaction.getRetriedCount() + 1));
+				ids.add(tccTransaction.getTransId());
+				args.add(buildArgs(tccTransaction.getVersion(), fields));
+			}
+			final Set<String> updated = new HashSet<>(batchEval(CAS_SCRIPT, ids, args));
+			if (updated.isEmpty()) {
+				return;
+			}
+			List<TccTransaction> claimed = new ArrayList<>(updated.size());
+			Map<String, Double> scores = new HashMap<>(updated.size() * 2);
+			for (TccTransaction tccTransaction : page) {
+				if (updated.contains(tccTransaction.getTransId())) {
+					tccTransaction.setVersion(tccTransaction.getVersion() + 1);
+					tccTransaction.setLastTime(now);
+					tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
+					claimed.add(tccTransaction);
+					scores.put(tccTransaction.getTransId(), (double) now.getTime());
+				}
+			}
+			jedisClient.zadd(indexKey, scores);
+			consumer.accept(claimed);
+		});
+	}
+
+	/**
+	 * run the script on the hash of every id
+	 *
+	 * @return the ids the script updated
+	 */
+	private List<String> batchEval(final String script, final List<String> ids, final List<List<byte[]>> args) {
+		return batchEval(script, ids, id -> Collections.singletonList(buildHashKey(id)), args);
+	}
+
+	/**
+	 * run the script once for every id
+	 *
+	 * @param keys
+	 *            id -> KEYS of the script, in one slot
+	 * @return the ids the script updated
+	 */
+	List<String> batchEval(final String script, final List<String> ids, final Function<String, List<String>> keys,
+			final List<List<byte[]>> args) {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		final List<Object> results = jedisClient.evalBatch(script,
+				ids.stream().map(keys).collect(Collectors.toList()), args);
+		List<String> updated = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			if (isUpdated(results.get(i))) {
+				updated.add(ids.get(i));
+			}
+		}
+		return updated;
+	}
+
+	/**
+	 * ARGV of the scripts, the expected version of CAS_SCRIPT followed by the
+	 * field value pairs
+	 */
+	static List<byte[]> buildArgs(final Integer version, final Map<String, byte[]> fields) {
+		List<byte[]> args = new ArrayList<>(fields.size() * 2 + 1);
+		if (Objects.nonNull(version)) {
+			args.add(RepositoryConvertUtils.toBytes(version));
+		}
+		fields.forEach((field, value) -> {
+			args.add(field.getBytes(StandardCharsets.UTF_8));
+			args.add(value);
+		});
+		return args;
+	}
+
+	static boolean isUpdated(final Object result) {
+		return Long.valueOf(ROWS).equals(result);
+	}
+
+	/**
+	 * read every index in score order up to max
+	 *
+	 * @param removeDangling
+	 *            remove members without transaction, only for scores old
+	 *            enough that no write of the member can be in progress
+	 */
+	private void scanIndex(final String max, final int pageSize, final boolean removeDangling,
+			final Consumer<List<TccTransaction>> consumer) {
+		for (String key : buildIndexKeys()) {
+			scanIndex(key, max, pageSize, removeDangling, consumer);
+		}
+	}
+
+	/**
+	 * every page starts after the last score of the page before. a full page
+	 * is completed with the remaining members of its last score before the
+	 * consumer runs, so claims and removes of the consumer do not shift a page
+	 * still to be read.
+	 */
+	private void scanIndex(final String indexKey, final String max, final int pageSize, final boolean removeDangling,
+			final Consumer<List<TccTransaction>> consumer) {
+		String min = "-inf";
+		while (true) {
+			final Map<String, Double> scores = jedisClient.zrangeByScoreWithScores(indexKey, min, max, 0, pageSize);
+			if (scores.isEmpty()) {
+				return;
+			}
+			final Set<String> ids = new LinkedHashSet<>(scores.keySet());
+			final String lastScore = String.valueOf(scores.get(Iterables.getLast(ids)).longValue());
+			if (scores.size() >= pageSize) {
+				readScore(indexKey, lastScore, pageSize, ids);
+			}
+			min = "(" + lastScore;
+			for (List<String> part : Lists.partition(new ArrayList<>(ids), pageSize)) {
+				final List<TccTransaction> page = findByIds(part, removeDangling);
+				if (!page.isEmpty()) {
+					consumer.accept(page);
+				}
+			}
+			if (scores.size() < pageSize) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * add the members of the score to the ids
+	 */
+	private void readScore(final String indexKey, final String score, final int pageSize, final Set<String> ids) {
+		int offset = 0;
+		while (true) {
+			final Map<String, Double> scores = jedisClient.zrangeByScoreWithScores(indexKey, score, score, offset,
+					pageSize);
+			ids.addAll(scores.keySet());
+			if (scores.size() < pageSize) {
+				return;
+			}
+			offset += scores.size();
+		}
+	}
+
+	List<TccTransaction> findByIds(final List<String> ids, final boolean removeDangling) {
+		final List<Map<String, byte[]>> hashes = jedisClient
+				.hgetAllBatch(ids.stream().map(this::buildHashKey).collect(Collectors.toList()));
+		List<TccTransaction> transactions = new ArrayList<>(ids.size());
+		List<String> dangling = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			try {
+				final TccTransaction tccTransaction = RepositoryConvertUtils.transformHash(hashes.get(i),
+						objectSerializer);
+				if (Objects.isNull(tccTransaction)) {
+					dangling.add(ids.get(i));
+					continue;
+				}
+				transactions.add(tccTransaction);
+			} catch (TccException e) {
+				LogUtil.error(LOGGER, "deSerialize tccTransaction exception:{}", e::getMessage);
+			}
+		}
+		if (removeDangling && !dangling.isEmpty()) {
+			dangling.stream().collect(Collectors.groupingBy(this::buildIndexKey))
+					.forEach((key, members) -> jedisClient.zrem(key, members.toArray(new String[0])));
+		}
+		final List<List<byte[]>> appendContents = jedisClient.lrangeBatch(transactions.stream()
+				.map(tccTransaction -> buildParticipantKey(tccTransaction.getTransId())).collect(Collectors.toList()));
+		for (int i = 0; i < transactions.size(); i++) {
+			try {
+				RepositoryConvertUtils.mergeParticipants(transactions.get(i), appendContents.get(i),
+						objectSerializer);
+			} catch (TccException e) {
+				LogUtil.error(LOGGER, "deSerialize participant exception:{}", e::getMessage);
+			}
+		}
+		return transactions;
+	}
+
+	/**
+	 * convert the transactions stored as serialized adapters to hashes and
+	 * index every transaction, runs until the layout key is written. a node of
+	 * the previous version must not write while the store is converted.
+	 */
+	void migrate() {
+		if (HASH_LAYOUT.equals(jedisClient.get(layoutKey))) {
+			return;
+		}
+		jedisClient.scan(keyPrefix + "*", PAGE_SIZE, this::migrate);
+		jedisClient.set(layoutKey, HASH_LAYOUT);
+	}
+
+	private void migrate(final List<String> keys) {
+		final List<String> types = jedisClient.typeBatch(keys);
+		List<String> stringKeys = new ArrayList<>();
+		List<String> hashKeys = new ArrayList<>();
+		for (int i = 0; i < keys.size(); i++) {
+			if ("string".equals(types.get(i))) {
+				stringKeys.add(keys.get(i));
+			} else if ("hash".equals(types.get(i))) {
+				hashKeys.add(keys.get(i));
+			}
+		}
+		Map<String, Map<String, byte[]>> hashes = new LinkedHashMap<>(stringKeys.size());
+		Map<String, Double> scores = new LinkedHashMap<>(keys.size());
+		final List<byte[]> contents = jedisClient.mget(stringKeys);
+		for (int i = 0; i < stringKeys.size(); i++) {
+			if (contents.get(i) == null) {
+				continue;
+			}
+			try {
+				final TccTransaction tccTransaction = RepositoryConvertUtils.transformBean(contents.get(i),
+						objectSerializer);
+				hashes.put(stringKeys.get(i), RepositoryConvertUtils.convertHash(tccTransaction, objectSerializer));
+				scores.put(tccTransaction.getTransId(), (double) tccTransaction.getLastTime().getTime());
+			} catch (TccException e) {
+				LogUtil.error(LOGGER, "deSerialize tccTransaction exception:{}", e::getMessage);
+			}
+		}
+		for (Map<String, byte[]> hash : jedisClient.hgetAllBatch(hashKeys)) {
+			final CoordinatorRepositoryAdapter adapter = RepositoryConvertUtils.transformAdapter(hash);
+			if (Objects.nonNull(adapter) && Objects.nonNull(adapter.getLastTime())) {
+				scores.put(adapter.getTransId(), (double) adapter.getLastTime().getTime());
+			}
+		}
+		if (!hashes.isEmpty()) {
+			jedisClient.hmsetBatchWithIndex(hashes, indexKey, scores);
+		} else if (!scores.isEmpty()) {
+			jedisClient.zadd(indexKey, scores);
+		}
 	}
 
 	@Override
 	public void init(final String modelName, final TccConfig tccConfig) {
-		keyPrefix = RepositoryPathUtils.buildRedisKeyPrefix(modelName);
+		buildKeys(modelName);
 		final TccRedisConfig tccRedisConfig = tccConfig.getTccRedisConfig();
 		try {
 			buildJedisPool(tccRedisConfig);
+			migrate();
 		} catch (Exception e) {
 			LogUtil.error(LOGGER, "redis 初始化异常！请检查配置信息:{}", e::getMessage);
 		}
 	}
 
+	/**
+	 * names of the keys of the application, set before the store is connected
+	 */
+	void buildKeys(final String modelName) {
+		keyPrefix = RepositoryPathUtils.buildRedisKeyPrefix(modelName);
+		participantKeyPrefix = RepositoryPathUtils.buildRedisParticipantKeyPrefix(modelName);
+		indexKey = RepositoryPathUtils.buildRedisIndexKey(modelName);
+		layoutKey = RepositoryPathUtils.buildRedisLayoutKey(modelName);
+	}
+
 	@Override
 	public String getScheme() {
 		return RepositorySupportEnum.REDIS.getSupport();
@@ -173,6 +591,35 @@ public class RedisCoordinatorRepository implements CoordinatorRepository {
 		this.objectSerializer = objectSerializer;
 	}
 
+	String buildParticipantKey(final String id) {
+		return RepositoryPathUtils.buildRedisKey(participantKeyPrefix, id);
+	}
+
+	String buildHashKey(final String id) {
+		return RepositoryPathUtils.buildRedisKey(keyPrefix, id);
+	}
+
+	/**
+	 * the index the transaction is a member of
+	 */
+	String buildIndexKey(final String id) {
+		return indexKey;
+	}
+
+	/**
+	 * the indexes read by the scans
+	 */
+	List<String> buildIndexKeys() {
+		return Collections.singletonList(indexKey);
+	}
+
+	private TccTransaction mergeParticipants(final TccTransaction tccTransaction) throws TccException {
+		final List<byte[]> appendContents = jedisClient.lrange(buildParticipantKey(tccTransaction.getTransId()), 0,
+				-1);
+		RepositoryConvertUtils.mergeParticipants(tccTransaction, appendContents, objectSerializer);
+		return tccTransaction;
+	}
+
 	private void buildJedisPool(final TccRedisConfig tccRedisConfig) {
 		LogUtil.debug(LOGGER, () -> "开始构建redis配置信息");
 		JedisPoolConfig config = new JedisPoolConfig();
@@ -200,7 +647,6 @@ public class RedisCoordinatorRepository implements CoordinatorRepository {
 		// 每次逐出检查时 逐出的最大数目 如果为负数就是 : 1/abs(n), 默认3
 		config.setNumTestsPerEvictionRun(tccRedisConfig.getNumTestsPerEvictionRun());
 
-		JedisPool jedisPool;
 		// 如果是集群模式
 		if (tccRedisConfig.getCluster()) {
 			LogUtil.info(LOGGER, () -> "构造redis集群模式");
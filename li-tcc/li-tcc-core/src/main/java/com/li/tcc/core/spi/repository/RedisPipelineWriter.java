@@ -0,0 +1,139 @@
+package com.li.tcc.core.spi.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.core.concurrent.threadpool.LiThreadFactory;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * one connection shared by every writing thread. the commands are queued, a
+ * single thread sends everything queued, up to pipelineSize commands, in one
+ * pipeline and completes the future of every command with its reply. the
+ * commands run in the order they were submitted.
+ *
+ * @author yuan.li
+ */
+final class RedisPipelineWriter {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(RedisPipelineWriter.class);
+
+	/**
+	 * pipelines a full queue holds before submit blocks
+	 */
+	private static final int QUEUE_PIPELINES = 16;
+
+	private final JedisPool jedisPool;
+
+	private final int pipelineSize;
+
+	private final BlockingQueue<Command> commands;
+
+	RedisPipelineWriter(final JedisPool jedisPool, final int pipelineSize) {
+		this.jedisPool = jedisPool;
+		this.pipelineSize = Math.max(1, pipelineSize);
+		this.commands = new LinkedBlockingQueue<>(this.pipelineSize * QUEUE_PIPELINES);
+		LiThreadFactory.create("li-redis-writer", true).newThread(this::run).start();
+	}
+
+	/**
+	 * queue a command, blocks while the queue is full
+	 *
+	 * @param name
+	 *            the command and its key, logged when it fails
+	 * @param command
+	 *            adds the command to the pipeline
+	 * @return completed with the reply of the command
+	 */
+	CompletableFuture<Object> submit(final String name, final Function<Pipeline, Response<?>> command) {
+		final Command queued = new Command(name, command);
+		try {
+			commands.put(queued);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TccRuntimeException(e);
+		}
+		return queued.future;
+	}
+
+	private void run() {
+		List<Command> batch = new ArrayList<>(pipelineSize);
+		Jedis jedis = null;
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				batch.add(commands.take());
+				commands.drainTo(batch, pipelineSize - 1);
+				if (Objects.isNull(jedis)) {
+					jedis = jedisPool.getResource();
+				}
+				write(jedis, batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				LogUtil.error(LOGGER, "redis pipeline exception:{}", () -> e);
+				batch.forEach(command -> command.future.completeExceptionally(e));
+				if (e instanceof JedisConnectionException && Objects.nonNull(jedis)) {
+					// a broken connection goes back to the pool, the next batch borrows another one
+					jedis.close();
+					jedis = null;
+				}
+			} finally {
+				batch.clear();
+			}
+		}
+		if (Objects.nonNull(jedis)) {
+			jedis.close();
+		}
+	}
+
+	private void write(final Jedis jedis, final List<Command> batch) {
+		final Pipeline pipeline = jedis.pipelined();
+		List<Response<?>> responses = new ArrayList<>(batch.size());
+		for (Command command : batch) {
+			responses.add(command.command.apply(pipeline));
+		}
+		pipeline.sync();
+		for (int i = 0; i < batch.size(); i++) {
+			final Command command = batch.get(i);
+			try {
+				command.future.complete(responses.get(i).get());
+			} catch (JedisDataException e) {
+				LogUtil.error(LOGGER, () -> "redis command " + command.name + " exception:" + e.getMessage());
+				command.future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private static final class Command {
+
+		private final String name;
+
+		private final Function<Pipeline, Response<?>> command;
+
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+		private Command(final String name, final Function<Pipeline, Response<?>> command) {
+			this.name = name;
+			this.command = command;
+		}
+	}
+}
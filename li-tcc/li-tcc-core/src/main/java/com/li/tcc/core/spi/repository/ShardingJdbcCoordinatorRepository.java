@@ -0,0 +1,217 @@
+package com.li.tcc.core.spi.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.li.tcc.common.bean.entity.Participant;
+import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.config.TccDbConfig;
+import com.li.tcc.common.enums.RepositorySupportEnum;
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.common.serializer.ObjectSerializer;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.core.concurrent.threadpool.LiThreadFactory;
+import com.li.tcc.core.spi.CoordinatorRepository;
+
+/**
+ * jdbc impl sharded by transId, every TccDbConfig of tccDbConfigs is a shard
+ * with its own pool and table. a transaction is routed by the hash of its
+ * transId, so the number and order of the shards must not change while
+ * transactions are stored. the scans run on every shard in parallel and call
+ * their consumer from the shard threads.
+ *
+ * @author yuan.li
+ */
+public class ShardingJdbcCoordinatorRepository implements CoordinatorRepository {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShardingJdbcCoordinatorRepository.class);
+
+	private final List<JdbcCoordinatorRepository> shards = new ArrayList<>();
+
+	private ObjectSerializer serializer;
+
+	private ExecutorService scanExecutorService;
+
+	@Override
+	public void setSerializer(final ObjectSerializer serializer) {
+		this.serializer = serializer;
+	}
+
+	@Override
+	public int create(final TccTransaction tccTransaction) {
+		return route(tccTransaction.getTransId()).create(tccTransaction);
+	}
+
+	@Override
+	public int remove(final String id) {
+		return route(id).remove(id);
+	}
+
+	@Override
+	public int update(final TccTransaction tccTransaction) {
+		return route(tccTransaction.getTransId()).update(tccTransaction);
+	}
+
+	@Override
+	public int updateParticipant(final TccTransaction tccTransaction) {
+		return route(tccTransaction.getTransId()).updateParticipant(tccTransaction);
+	}
+
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		return route(tccTransaction.getTransId()).appendParticipant(tccTransaction, participants);
+	}
+
+	@Override
+	public int updateStatus(final String id, final Integer status) {
+		return route(id).updateStatus(id, status);
+	}
+
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		return batch(tccTransactions, TccTransaction::getTransId, JdbcCoordinatorRepository::batchCreate);
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		return batch(ids, Function.identity(), JdbcCoordinatorRepository::batchRemove);
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		return batch(tccTransactions, TccTransaction::getTransId, JdbcCoordinatorRepository::batchUpdateParticipant);
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		return batch(new ArrayList<>(statuses.keySet()), Function.identity(), (shard, ids) -> {
+			final Map<String, Integer> shardStatuses = new LinkedHashMap<>(ids.size() << 1);
+			ids.forEach(id -> shardStatuses.put(id, statuses.get(id)));
+			return shard.batchUpdateStatus(shardStatuses);
+		});
+	}
+
+	@Override
+	public TccTransaction findById(final String id) {
+		return route(id).findById(id);
+	}
+
+	@Override
+	public List<TccTransaction> listAll() {
+		final List<TccTransaction> list = Collections.synchronizedList(new ArrayList<>());
+		forEachShard(shard -> list.addAll(shard.listAll()));
+		return new ArrayList<>(list);
+	}
+
+	@Override
+	public List<TccTransaction> listAllByDelay(final Date date) {
+		final List<TccTransaction> list = Collections.synchronizedList(new ArrayList<>());
+		forEachShard(shard -> list.addAll(shard.listAllByDelay(date)));
+		return new ArrayList<>(list);
+	}
+
+	@Override
+	public void scanByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		forEachShard(shard -> shard.scanByDelay(date, pageSize, filter, consumer));
+	}
+
+	@Override
+	public void claimByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		forEachShard(shard -> shard.claimByDelay(date, pageSize, filter, consumer));
+	}
+
+	@Override
+	public void scan(final int role, final Consumer<TccTransaction> consumer) {
+		forEachShard(shard -> shard.scan(role, consumer));
+	}
+
+	@Override
+	public void init(final String modelName, final TccConfig tccConfig) {
+		final List<TccDbConfig> tccDbConfigs = tccConfig.getTccDbConfigs();
+		if (CollectionUtils.isEmpty(tccDbConfigs)) {
+			throw new TccRuntimeException("shardingdb repository needs tccDbConfigs!");
+		}
+		for (TccDbConfig tccDbConfig : tccDbConfigs) {
+			final JdbcCoordinatorRepository shard = new JdbcCoordinatorRepository();
+			shard.setSerializer(serializer);
+			shard.init(modelName, tccDbConfig);
+			shards.add(shard);
+		}
+		scanExecutorService = Executors.newFixedThreadPool(shards.size(),
+				LiThreadFactory.create("li-shard-scan", true));
+	}
+
+	@Override
+	public String getScheme() {
+		return RepositorySupportEnum.SHARDING_DB.getSupport();
+	}
+
+	private JdbcCoordinatorRepository route(final String transId) {
+		return shards.get(Math.floorMod(transId.hashCode(), shards.size()));
+	}
+
+	private <T> int batch(final List<T> items, final Function<T, String> transId,
+			final BiFunction<JdbcCoordinatorRepository, List<T>, Integer> batchWrite) {
+		final Map<JdbcCoordinatorRepository, List<T>> byShard = new LinkedHashMap<>();
+		for (T item : items) {
+			byShard.computeIfAbsent(route(transId.apply(item)), k -> new ArrayList<>()).add(item);
+		}
+		// a failing shard does not stop the others, its failure is thrown once they are written
+		TccRuntimeException failure = null;
+		int rows = 0;
+		for (Map.Entry<JdbcCoordinatorRepository, List<T>> entry : byShard.entrySet()) {
+			try {
+				rows += batchWrite.apply(entry.getKey(), entry.getValue());
+			} catch (TccRuntimeException e) {
+				failure = e;
+			}
+		}
+		if (Objects.nonNull(failure)) {
+			throw failure;
+		}
+		return rows;
+	}
+
+	/**
+	 * run the action on every shard in parallel and wait for all of them, a
+	 * failing shard does not stop the others
+	 */
+	private void forEachShard(final Consumer<JdbcCoordinatorRepository> action) {
+		if (shards.size() == 1) {
+			action.accept(shards.get(0));
+			return;
+		}
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[shards.size()];
+		for (int i = 0; i < shards.size(); i++) {
+			final JdbcCoordinatorRepository shard = shards.get(i);
+			futures[i] = CompletableFuture.runAsync(() -> action.accept(shard), scanExecutorService)
+					.exceptionally(e -> {
+						LogUtil.error(LOGGER, "scan shard exception:{}", () -> e);
+						return null;
+					});
+		}
+		CompletableFuture.allOf(futures).join();
+	}
+}
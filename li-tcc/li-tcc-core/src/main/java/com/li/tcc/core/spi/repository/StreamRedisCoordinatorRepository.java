@@ -0,0 +1,541 @@
+package com.li.tcc.core.spi.repository;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.li.tcc.common.bean.entity.Participant;
+import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.enums.RepositorySupportEnum;
+import com.li.tcc.common.exception.TccException;
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.common.utils.LogUtil;
+import com.li.tcc.common.utils.RepositoryConvertUtils;
+import com.li.tcc.common.utils.RepositoryPathUtils;
+
+/**
+ * redis impl logging every write as an event of a stream. each write is one
+ * script appending the event with XADD to the stream of the application,
+ * trimmed to about streamMaxLen events, and applying it to the hash of the
+ * transaction, so the hashes and the index of the redis impl stay the current
+ * state and the reads are the same.
+ * <p>
+ * the transactions of an application are split by transId into
+ * streamPartitions partitions. every partition has its own stream, index, due
+ * stream, hashes and participant lists tagged {modelName:partition}, so a
+ * script stays in one slot and the partitions spread over the cluster. the
+ * partition count is kept in tcc:partitions:modelName by the first node, the
+ * admin reads it to find the keys of the application.
+ * <p>
+ * recovery hands the overdue transactions out through the consumer group of a
+ * second stream: the overdue members of the index are moved to the due stream
+ * once, every entry is delivered to one node only, and the entries a node
+ * received but did not acknowledge within the recover delay are claimed by
+ * another node.
+ *
+ * @author yuan.li
+ */
+public class StreamRedisCoordinatorRepository extends RedisCoordinatorRepository {
+
+	/**
+	 * logger
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamRedisCoordinatorRepository.class);
+
+	/**
+	 * consumer group of the due stream
+	 */
+	private static final String GROUP = "li-recover";
+
+	private static final String EVENT_CREATE = "create";
+
+	private static final String EVENT_REMOVE = "remove";
+
+	private static final String EVENT_STATUS = "status";
+
+	private static final String EVENT_PARTICIPANTS = "participants";
+
+	private static final String EVENT_APPEND = "append";
+
+	private static final String EVENT_UPDATE = "update";
+
+	private static final String EVENT_CLAIM = "claim";
+
+	/**
+	 * the write scripts take KEYS stream, hash, index, appended participants and
+	 * ARGV maxLen, event, transId followed by their own arguments. log(from)
+	 * appends the event with the ARGV from the index from as field value pairs.
+	 */
+	private static final String LOG_FUNCTION = "redis.replicate_commands(); "
+			+ "local function log(from) redis.call('xadd', KEYS[1], 'MAXLEN', '~', ARGV[1], '*', "
+			+ "'event', ARGV[2], 'transId', ARGV[3], unpack(ARGV, from)) end; ";
+
+	/**
+	 * ARGV[4] score, ARGV[5..] fields
+	 */
+	private static final String CREATE_SCRIPT = LOG_FUNCTION + "log(5); "
+			+ "redis.call('zadd', KEYS[3], ARGV[4], ARGV[3]); redis.call('del', KEYS[2]); "
+			+ "redis.call('hmset', KEYS[2], unpack(ARGV, 5)); return 1";
+
+	private static final String REMOVE_SCRIPT = LOG_FUNCTION + "local rows = redis.call('del', KEYS[2]); "
+			+ "redis.call('del', KEYS[4]); redis.call('zrem', KEYS[3], ARGV[3]); "
+			+ "if rows > 0 then log(4) end; return rows";
+
+	/**
+	 * ARGV[4..] fields, only written when the hash exists
+	 */
+	private static final String HSET_BODY = "if redis.call('exists', KEYS[2]) == 0 then return 0 end; log(4); "
+			+ "redis.call('hmset', KEYS[2], unpack(ARGV, 4)); ";
+
+	private static final String STATUS_SCRIPT = LOG_FUNCTION + HSET_BODY + "return 1";
+
+	private static final String PARTICIPANT_SCRIPT = LOG_FUNCTION + HSET_BODY + "redis.call('del', KEYS[4]); return 1";
+
+	/**
+	 * ARGV[4..] serialized participants
+	 */
+	private static final String APPEND_SCRIPT = "redis.replicate_commands(); "
+			+ "local entry = {'xadd', KEYS[1], 'MAXLEN', '~', ARGV[1], '*', 'event', ARGV[2], 'transId', ARGV[3]}; "
+			+ "for i = 4, #ARGV do table.insert(entry, 'participant'); table.insert(entry, ARGV[i]) end; "
+			+ "redis.call(unpack(entry)); redis.call('rpush', KEYS[4], unpack(ARGV, 4)); return 1";
+
+	/**
+	 * ARGV[4] expected version
+	 */
+	private static final String VERSION_CHECK = "local v = redis.call('hget', KEYS[2], '"
+			+ RepositoryConvertUtils.FIELD_VERSION + "'); "
+			+ "if not v or tonumber(v) ~= tonumber(ARGV[4]) then return 0 end; ";
+
+	/**
+	 * ARGV[5] score, ARGV[6..] fields
+	 */
+	private static final String UPDATE_SCRIPT = LOG_FUNCTION + VERSION_CHECK + "log(6); "
+			+ "redis.call('hmset', KEYS[2], unpack(ARGV, 6)); redis.call('zadd', KEYS[3], ARGV[5], ARGV[3]); "
+			+ "redis.call('del', KEYS[4]); return 1";
+
+	/**
+	 * ARGV[5..] fields
+	 */
+	private static final String CLAIM_SCRIPT = LOG_FUNCTION + VERSION_CHECK + "log(5); "
+			+ "redis.call('hmset', KEYS[2], unpack(ARGV, 5)); return 1";
+
+	/**
+	 * KEYS index, due stream. move up to ARGV[3] members of the index scored
+	 * up to ARGV[1] to the due stream and score them ARGV[2], so a member is
+	 * due again only after another recover delay
+	 */
+	private static final String ENQUEUE_SCRIPT = "redis.replicate_commands(); "
+			+ "local ids = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[3]); "
+			+ "for _, id in ipairs(ids) do redis.call('zadd', KEYS[1], ARGV[2], id); "
+			+ "redis.call('xadd', KEYS[2], '*', 'transId', id) end; return #ids";
+
+	/**
+	 * KEYS due stream, ARGV group, consumer, count, minIdle. claim the entries
+	 * pending for at least minIdle, else deliver the entries after the last
+	 * delivered id of the group as XREADGROUP '>' does, which scripts cannot
+	 * call before redis 7. returns entry id, transId pairs.
+	 */
+	private static final String DELIVER_SCRIPT = "redis.replicate_commands(); local entries = {}; local idle = {}; "
+			+ "for _, p in ipairs(redis.call('xpending', KEYS[1], ARGV[1], '-', '+', ARGV[3])) do "
+			+ "if p[3] >= tonumber(ARGV[4]) then table.insert(idle, p[1]) end end; "
+			+ "if #idle > 0 then entries = redis.call('xclaim', KEYS[1], ARGV[1], ARGV[2], ARGV[4], unpack(idle)); "
+			+ "else local last = '0-0'; "
+			+ "for _, g in ipairs(redis.call('xinfo', 'groups', KEYS[1])) do local info = {}; "
+			+ "for i = 1, #g, 2 do info[g[i]] = g[i + 1] end; "
+			+ "if info['name'] == ARGV[1] then last = info['last-delivered-id'] end end; "
+			+ "local claim = {'xclaim', KEYS[1], ARGV[1], ARGV[2], 0}; "
+			+ "for _, e in ipairs(redis.call('xrange', KEYS[1], last, '+', 'COUNT', tonumber(ARGV[3]) + 1)) do "
+			+ "if e[1] ~= last and #claim < tonumber(ARGV[3]) + 5 then table.insert(claim, e[1]) end end; "
+			+ "if #claim > 5 then redis.call('xgroup', 'setid', KEYS[1], ARGV[1], claim[#claim]); "
+			+ "table.insert(claim, 'FORCE'); entries = redis.call(unpack(claim)) end end; "
+			+ "local result = {}; for _, e in ipairs(entries) do if e and e[2] then "
+			+ "table.insert(result, e[1]); table.insert(result, e[2][2]) end end; return result";
+
+	/**
+	 * KEYS due stream, ARGV group, entry ids
+	 */
+	private static final String ACK_SCRIPT = "redis.call('xack', KEYS[1], ARGV[1], unpack(ARGV, 2)); "
+			+ "return redis.call('xdel', KEYS[1], unpack(ARGV, 2))";
+
+	private static final String GROUP_SCRIPT = "redis.pcall('xgroup', 'create', KEYS[1], ARGV[1], '0', 'MKSTREAM'); "
+			+ "return 1";
+
+	private String[] streamKeys;
+
+	/**
+	 * streams of the overdue transIds read by the consumer group
+	 */
+	private String[] dueKeys;
+
+	private String[] keyPrefixes;
+
+	private String[] participantKeyPrefixes;
+
+	private String[] indexKeys;
+
+	private int streamMaxLen;
+
+	private String consumerName;
+
+	@Override
+	public int create(final TccTransaction tccTransaction) {
+		try {
+			final String transId = tccTransaction.getTransId();
+			jedisClient.eval(CREATE_SCRIPT, buildScriptKeys(transId), buildCreateArgs(tccTransaction));
+			return ROWS;
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int remove(final String id) {
+		try {
+			return ((Long) jedisClient.eval(REMOVE_SCRIPT, buildScriptKeys(id),
+					buildEventArgs(EVENT_REMOVE, id, Collections.emptyList()))).intValue();
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	/**
+	 * rewrite the hash when its version is still the version of the
+	 * transaction
+	 */
+	@Override
+	public int update(final TccTransaction tccTransaction) throws TccRuntimeException {
+		try {
+			final String transId = tccTransaction.getTransId();
+			final Integer currentVersion = tccTransaction.getVersion();
+			tccTransaction.setVersion(tccTransaction.getVersion() + 1);
+			tccTransaction.setLastTime(new Date());
+			tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
+			List<byte[]> args = new ArrayList<>();
+			args.add(RepositoryConvertUtils.toBytes(currentVersion));
+			args.add(RepositoryConvertUtils.toBytes(tccTransaction.getLastTime().getTime()));
+			args.addAll(buildArgs(null, RepositoryConvertUtils.convertHash(tccTransaction, objectSerializer)));
+			return isUpdated(jedisClient.eval(UPDATE_SCRIPT, buildScriptKeys(transId),
+					buildEventArgs(EVENT_UPDATE, transId, args))) ? ROWS : FAIL_ROWS;
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int updateParticipant(final TccTransaction tccTransaction) {
+		try {
+			final String transId = tccTransaction.getTransId();
+			return isUpdated(jedisClient.eval(PARTICIPANT_SCRIPT, buildScriptKeys(transId),
+					buildParticipantArgs(tccTransaction))) ? ROWS : FAIL_ROWS;
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		try {
+			List<byte[]> values = new ArrayList<>(participants.size());
+			for (Participant participant : participants) {
+				values.add(objectSerializer.serialize(participant));
+			}
+			final String transId = tccTransaction.getTransId();
+			jedisClient.eval(APPEND_SCRIPT, buildScriptKeys(transId), buildEventArgs(EVENT_APPEND, transId, values));
+			return ROWS;
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int updateStatus(final String id, final Integer status) {
+		return isUpdated(jedisClient.eval(STATUS_SCRIPT, buildScriptKeys(id), buildStatusArgs(id, status))) ? ROWS
+				: FAIL_ROWS;
+	}
+
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		try {
+			if (tccTransactions.isEmpty()) {
+				return FAIL_ROWS;
+			}
+			List<String> ids = new ArrayList<>(tccTransactions.size());
+			List<List<byte[]>> args = new ArrayList<>(tccTransactions.size());
+			for (TccTransaction tccTransaction : tccTransactions) {
+				ids.add(tccTransaction.getTransId());
+				args.add(buildCreateArgs(tccTransaction));
+			}
+			return batchEval(CREATE_SCRIPT, ids, this::buildScriptKeys, args).size();
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		try {
+			if (ids.isEmpty()) {
+				return FAIL_ROWS;
+			}
+			return batchEval(REMOVE_SCRIPT, ids, this::buildScriptKeys, ids.stream()
+					.map(id -> buildEventArgs(EVENT_REMOVE, id, Collections.emptyList())).collect(Collectors.toList()))
+					.size();
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		List<String> ids = new ArrayList<>(tccTransactions.size());
+		List<List<byte[]>> args = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				args.add(buildParticipantArgs(tccTransaction));
+				ids.add(tccTransaction.getTransId());
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		return batchEval(PARTICIPANT_SCRIPT, ids, this::buildScriptKeys, args).size();
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		List<String> ids = new ArrayList<>(statuses.size());
+		List<List<byte[]>> args = new ArrayList<>(statuses.size());
+		statuses.forEach((id, status) -> {
+			ids.add(id);
+			args.add(buildStatusArgs(id, status));
+		});
+		return batchEval(STATUS_SCRIPT, ids, this::buildScriptKeys, args).size();
+	}
+
+	/**
+	 * move the overdue transactions to the due stream, then read it through
+	 * the consumer group until nothing is delivered. the delivered transactions
+	 * passing the filter are claimed with the version script, every entry of a
+	 * page is acknowledged once the consumer returns. when the consumer throws
+	 * the entries stay pending and another node claims them after the recover
+	 * delay.
+	 */
+	@Override
+	public void claimByDelay(final Date date, final int pageSize, final Predicate<TccTransaction> filter,
+			final Consumer<List<TccTransaction>> consumer) {
+		for (int partition = 0; partition < dueKeys.length; partition++) {
+			claimByDelay(partition, date, pageSize, filter, consumer);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void claimByDelay(final int partition, final Date date, final int pageSize,
+			final Predicate<TccTransaction> filter, final Consumer<List<TccTransaction>> consumer) {
+		final long now = System.currentTimeMillis();
+		final List<byte[]> enqueueArgs = Arrays.asList(RepositoryConvertUtils.toBytes("(" + date.getTime()),
+				RepositoryConvertUtils.toBytes(now), RepositoryConvertUtils.toBytes(pageSize));
+		final List<String> enqueueKeys = Arrays.asList(indexKeys[partition], dueKeys[partition]);
+		long enqueued;
+		do {
+			enqueued = (Long) jedisClient.eval(ENQUEUE_SCRIPT, enqueueKeys, enqueueArgs);
+		} while (enqueued >= pageSize);
+		final List<String> dueKey = Collections.singletonList(dueKeys[partition]);
+		final List<byte[]> deliverArgs = Arrays.asList(RepositoryConvertUtils.toBytes(GROUP),
+				RepositoryConvertUtils.toBytes(consumerName), RepositoryConvertUtils.toBytes(pageSize),
+				RepositoryConvertUtils.toBytes(Math.max(1, now - date.getTime())));
+		while (true) {
+			final List<Object> delivered = (List<Object>) jedisClient.eval(DELIVER_SCRIPT, dueKey, deliverArgs);
+			if (delivered.isEmpty()) {
+				return;
+			}
+			List<byte[]> ackArgs = new ArrayList<>(delivered.size() / 2 + 1);
+			ackArgs.add(RepositoryConvertUtils.toBytes(GROUP));
+			Set<String> ids = new LinkedHashSet<>();
+			for (int i = 0; i < delivered.size(); i += 2) {
+				ackArgs.add((byte[]) delivered.get(i));
+				ids.add(new String((byte[]) delivered.get(i + 1), StandardCharsets.UTF_8));
+			}
+			final List<TccTransaction> claimed = claim(findByIds(new ArrayList<>(ids), true).stream().filter(filter)
+					.collect(Collectors.toList()));
+			if (!claimed.isEmpty()) {
+				consumer.accept(claimed);
+			}
+			jedisClient.eval(ACK_SCRIPT, dueKey, ackArgs);
+		}
+	}
+
+	/**
+	 * write version, lastTime and retriedCount of the transactions with the
+	 * version script
+	 *
+	 * @return the transactions claimed
+	 */
+	private List<TccTransaction> claim(final List<TccTransaction> page) {
+		final Date now = new Date();
+		List<String> ids = new ArrayList<>(page.size());
+		List<List<byte[]>> args = new ArrayList<>(page.size());
+		for (TccTransaction tccTransaction : page) {
+			Map<String, byte[]> fields = new HashMap<>(4);
+			fields.put(RepositoryConvertUtils.FIELD_VERSION,
+					RepositoryConvertUtils.toBytes(tccTransaction.getVersion() + 1));
+			fields.put(RepositoryConvertUtils.FIELD_LAST_TIME, RepositoryConvertUtils.toBytes(now.getTime()));
+			fields.put(RepositoryConvertUtils.FIELD_RETRIED_COUNT,
+					RepositoryConvertUtils.toBytes(tccTransaction.getRetriedCount() + 1));
+			ids.add(tccTransaction.getTransId());
+			args.add(buildEventArgs(EVENT_CLAIM, tccTransaction.getTransId(),
+					buildArgs(tccTransaction.getVersion(), fields)));
+		}
+		final Set<String> updated = new HashSet<>(batchEval(CLAIM_SCRIPT, ids, this::buildScriptKeys, args));
+		List<TccTransaction> claimed = new ArrayList<>(updated.size());
+		for (TccTransaction tccTransaction : page) {
+			if (updated.contains(tccTransaction.getTransId())) {
+				tccTransaction.setVersion(tccTransaction.getVersion() + 1);
+				tccTransaction.setLastTime(now);
+				tccTransaction.setRetriedCount(tccTransaction.getRetriedCount() + 1);
+				claimed.add(tccTransaction);
+			}
+		}
+		return claimed;
+	}
+
+	@Override
+	public void init(final String modelName, final TccConfig tccConfig) {
+		super.init(modelName, tccConfig);
+		streamMaxLen = tccConfig.getTccRedisConfig().getStreamMaxLen();
+		consumerName = ManagementFactory.getRuntimeMXBean().getName();
+		try {
+			buildPartitionKeys(modelName, loadPartitions(modelName, tccConfig.getTccRedisConfig().getStreamPartitions()));
+			for (String dueKey : dueKeys) {
+				jedisClient.eval(GROUP_SCRIPT, Collections.singletonList(dueKey),
+						Collections.singletonList(RepositoryConvertUtils.toBytes(GROUP)));
+			}
+		} catch (Exception e) {
+			LogUtil.error(LOGGER, "redis stream 初始化异常:{}", e::getMessage);
+		}
+	}
+
+	/**
+	 * the partition count written by the first node, a transaction must stay
+	 * in the partition it was written to
+	 */
+	private int loadPartitions(final String modelName, final int configured) {
+		final String partitionsKey = RepositoryPathUtils.buildRedisPartitionsKey(modelName);
+		final String stored = jedisClient.get(partitionsKey);
+		if (Objects.isNull(stored)) {
+			final int partitions = Math.max(1, configured);
+			jedisClient.set(partitionsKey, String.valueOf(partitions));
+			return partitions;
+		}
+		final int partitions = Integer.parseInt(stored);
+		if (partitions != configured) {
+			LogUtil.warn(LOGGER, () -> "redis stream partitions " + partitions + " kept, configured " + configured
+					+ " ignored");
+		}
+		return partitions;
+	}
+
+	private void buildPartitionKeys(final String modelName, final int partitions) {
+		streamKeys = new String[partitions];
+		dueKeys = new String[partitions];
+		keyPrefixes = new String[partitions];
+		participantKeyPrefixes = new String[partitions];
+		indexKeys = new String[partitions];
+		for (int i = 0; i < partitions; i++) {
+			final String tag = RepositoryPathUtils.buildRedisPartitionTag(modelName, i);
+			streamKeys[i] = RepositoryPathUtils.buildRedisStreamKey(tag);
+			dueKeys[i] = RepositoryPathUtils.buildRedisDueKey(tag);
+			keyPrefixes[i] = RepositoryPathUtils.buildRedisKeyPrefix(tag);
+			participantKeyPrefixes[i] = RepositoryPathUtils.buildRedisParticipantKeyPrefix(tag);
+			indexKeys[i] = RepositoryPathUtils.buildRedisIndexKey(tag);
+		}
+	}
+
+	/**
+	 * the stream keys were never written in the layout before hashes
+	 */
+	@Override
+	void migrate() {
+	}
+
+	@Override
+	String buildHashKey(final String id) {
+		return RepositoryPathUtils.buildRedisKey(keyPrefixes[partition(id)], id);
+	}
+
+	@Override
+	String buildParticipantKey(final String id) {
+		return RepositoryPathUtils.buildRedisKey(participantKeyPrefixes[partition(id)], id);
+	}
+
+	@Override
+	String buildIndexKey(final String id) {
+		return indexKeys[partition(id)];
+	}
+
+	@Override
+	List<String> buildIndexKeys() {
+		return Arrays.asList(indexKeys);
+	}
+
+	private int partition(final String id) {
+		return RepositoryPathUtils.selectRedisPartition(id, indexKeys.length);
+	}
+
+	@Override
+	public String getScheme() {
+		return RepositorySupportEnum.REDIS_STREAM.getSupport();
+	}
+
+	private List<String> buildScriptKeys(final String id) {
+		final int partition = partition(id);
+		return Arrays.asList(streamKeys[partition], RepositoryPathUtils.buildRedisKey(keyPrefixes[partition], id),
+				indexKeys[partition], RepositoryPathUtils.buildRedisKey(participantKeyPrefixes[partition], id));
+	}
+
+	/**
+	 * ARGV of the write scripts, maxLen, event and transId followed by the
+	 * arguments of the script
+	 */
+	private List<byte[]> buildEventArgs(final String event, final String transId, final List<byte[]> args) {
+		List<byte[]> eventArgs = new ArrayList<>(args.size() + 3);
+		eventArgs.add(RepositoryConvertUtils.toBytes(streamMaxLen));
+		eventArgs.add(RepositoryConvertUtils.toBytes(event));
+		eventArgs.add(RepositoryConvertUtils.toBytes(transId));
+		eventArgs.addAll(args);
+		return eventArgs;
+	}
+
+	private List<byte[]> buildCreateArgs(final TccTransaction tccTransaction) throws TccException {
+		List<byte[]> args = new ArrayList<>();
+		args.add(RepositoryConvertUtils.toBytes(tccTransaction.getLastTime().getTime()));
+		args.addAll(buildArgs(null, RepositoryConvertUtils.convertHash(tccTransaction, objectSerializer)));
+		return buildEventArgs(EVENT_CREATE, tccTransaction.getTransId(), args);
+	}
+
+	private List<byte[]> buildParticipantArgs(final TccTransaction tccTransaction) throws TccException {
+		final byte[] participants = objectSerializer.serialize(tccTransaction.getParticipants());
+		return buildEventArgs(EVENT_PARTICIPANTS, tccTransaction.getTransId(),
+				buildArgs(null, Collections.singletonMap(RepositoryConvertUtils.FIELD_PARTICIPANTS, participants)));
+	}
+
+	private List<byte[]> buildStatusArgs(final String id, final Integer status) {
+		return buildEventArgs(EVENT_STATUS, id, buildArgs(null,
+				Collections.singletonMap(RepositoryConvertUtils.FIELD_STATUS, RepositoryConvertUtils.toBytes(status))));
+	}
+}
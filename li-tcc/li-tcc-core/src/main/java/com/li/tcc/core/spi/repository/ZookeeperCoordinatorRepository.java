@@ -2,6 +2,7 @@ package com.li.tcc.core.spi.repository;
 
 import com.google.common.collect.Lists;
 import com.li.tcc.common.bean.adapter.CoordinatorRepositoryAdapter;
+import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccTransaction;
 import com.li.tcc.common.config.TccConfig;
 import com.li.tcc.common.config.TccZookeeperConfig;
@@ -18,6 +19,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Op;
 import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.ZooDefs;
 import org.apache.zookeeper.ZooKeeper;
@@ -25,8 +27,12 @@ import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
 
@@ -50,6 +56,13 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 
 	private String rootPathPrefix = "/li";
 
+	/**
+	 * ops of one multi request, keep the request below jute.maxbuffer
+	 */
+	private static final int MULTI_SIZE = 64;
+
+	private static final String PARTICIPANT_NODE = "/participant-";
+
 	@Override
 	public int create(final TccTransaction tccTransaction) {
 		try {
@@ -65,6 +78,7 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 	@Override
 	public int remove(final String id) {
 		try {
+			deleteParticipantNodes(buildRootPath(id));
 			zooKeeper.delete(buildRootPath(id), -1);
 			return ROWS;
 		} catch (Exception e) {
@@ -79,6 +93,7 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 			tccTransaction.setVersion(tccTransaction.getVersion() + 1);
 			zooKeeper.setData(buildRootPath(tccTransaction.getTransId()),
 					RepositoryConvertUtils.convert(tccTransaction, objectSerializer), -1);
+			deleteParticipantNodes(buildRootPath(tccTransaction.getTransId()));
 			return ROWS;
 		} catch (Exception e) {
 			throw new TccRuntimeException(e);
@@ -93,15 +108,31 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 			final CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(content,
 					CoordinatorRepositoryAdapter.class);
 			adapter.setContents(objectSerializer.serialize(tccTransaction.getParticipants()));
-			zooKeeper.create(path, objectSerializer.serialize(adapter), ZooDefs.Ids.OPEN_ACL_UNSAFE,
-					CreateMode.PERSISTENT);
+			zooKeeper.setData(path, objectSerializer.serialize(adapter), -1);
+			deleteParticipantNodes(path);
 			return ROWS;
-		} catch (Exception e) {
-			e.printStackTrace();
+		} catch (KeeperException.NoNodeException e) {
 			return FAIL_ROWS;
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
 		}
 	}
 
+	@Override
+	public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+		final String path = buildRootPath(tccTransaction.getTransId());
+		List<Op> ops = new ArrayList<>(participants.size());
+		try {
+			for (Participant participant : participants) {
+				ops.add(Op.create(path + PARTICIPANT_NODE, objectSerializer.serialize(participant),
+						ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT_SEQUENTIAL));
+			}
+		} catch (TccException e) {
+			throw new TccRuntimeException(e);
+		}
+		return multi(ops) > 0 ? ROWS : FAIL_ROWS;
+	}
+
 	@Override
 	public int updateStatus(final String id, final Integer status) {
 		final String path = RepositoryPathUtils.buildZookeeperRootPath(rootPathPrefix, id);
@@ -110,13 +141,124 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 			final CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(content,
 					CoordinatorRepositoryAdapter.class);
 			adapter.setStatus(status);
-			zooKeeper.create(path, objectSerializer.serialize(adapter), ZooDefs.Ids.OPEN_ACL_UNSAFE,
-					CreateMode.PERSISTENT);
+			zooKeeper.setData(path, objectSerializer.serialize(adapter), -1);
 			return ROWS;
-		} catch (Exception e) {
-			e.printStackTrace();
+		} catch (KeeperException.NoNodeException e) {
 			return FAIL_ROWS;
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
+		}
+	}
+
+	@Override
+	public int batchCreate(final List<TccTransaction> tccTransactions) {
+		List<Op> ops = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			try {
+				ops.add(Op.create(buildRootPath(tccTransaction.getTransId()),
+						RepositoryConvertUtils.convert(tccTransaction, objectSerializer), ZooDefs.Ids.OPEN_ACL_UNSAFE,
+						CreateMode.PERSISTENT));
+			} catch (TccException e) {
+				throw new TccRuntimeException(e);
+			}
+		}
+		return multi(ops);
+	}
+
+	@Override
+	public int batchRemove(final List<String> ids) {
+		List<Op> ops = new ArrayList<>(ids.size());
+		try {
+			for (String id : ids) {
+				final String path = buildRootPath(id);
+				ops.addAll(buildDeleteParticipantOps(path));
+				ops.add(Op.delete(path, -1));
+			}
+		} catch (Exception e) {
+			throw new TccRuntimeException(e);
+		}
+		return multi(ops);
+	}
+
+	@Override
+	public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+		List<Op> ops = new ArrayList<>(tccTransactions.size());
+		for (TccTransaction tccTransaction : tccTransactions) {
+			final String path = buildRootPath(tccTransaction.getTransId());
+			try {
+				byte[] content = zooKeeper.getData(path, false, new Stat());
+				final CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(content,
+						CoordinatorRepositoryAdapter.class);
+				adapter.setContents(objectSerializer.serialize(tccTransaction.getParticipants()));
+				ops.add(Op.setData(path, objectSerializer.serialize(adapter), -1));
+				ops.addAll(buildDeleteParticipantOps(path));
+			} catch (KeeperException.NoNodeException e) {
+				LogUtil.debug(LOGGER, "transaction {} already removed", () -> path);
+			} catch (Exception e) {
+				throw new TccRuntimeException(e);
+			}
 		}
+		return multi(ops);
+	}
+
+	@Override
+	public int batchUpdateStatus(final Map<String, Integer> statuses) {
+		List<Op> ops = new ArrayList<>(statuses.size());
+		statuses.forEach((id, status) -> {
+			final String path = buildRootPath(id);
+			try {
+				byte[] content = zooKeeper.getData(path, false, new Stat());
+				final CoordinatorRepositoryAdapter adapter = objectSerializer.deSerialize(content,
+						CoordinatorRepositoryAdapter.class);
+				adapter.setStatus(status);
+				ops.add(Op.setData(path, objectSerializer.serialize(adapter), -1));
+			} catch (KeeperException.NoNodeException e) {
+				LogUtil.debug(LOGGER, "transaction {} already removed", () -> path);
+			} catch (Exception e) {
+				throw new TccRuntimeException(e);
+			}
+		});
+		return multi(ops);
+	}
+
+	/**
+	 * multi is all or nothing, when a chunk fails its ops are replayed one by one
+	 * so that one missing node does not lose the others. an op failing for
+	 * another reason than a missing or existing node is thrown once the others
+	 * are written.
+	 */
+	private int multi(final List<Op> ops) {
+		KeeperException failure = null;
+		int rows = 0;
+		for (int from = 0; from < ops.size(); from += MULTI_SIZE) {
+			final List<Op> chunk = ops.subList(from, Math.min(from + MULTI_SIZE, ops.size()));
+			try {
+				rows += zooKeeper.multi(chunk).size();
+			} catch (KeeperException e) {
+				for (Op op : chunk) {
+					try {
+						zooKeeper.multi(Collections.singletonList(op));
+						rows++;
+					} catch (KeeperException ex) {
+						LogUtil.error(LOGGER, "zookeeper op exception:{}", ex::getMessage);
+						if (!(ex instanceof KeeperException.NoNodeException
+								|| ex instanceof KeeperException.NodeExistsException)) {
+							failure = ex;
+						}
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new TccRuntimeException(ex);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new TccRuntimeException(e);
+			}
+		}
+		if (Objects.nonNull(failure)) {
+			throw new TccRuntimeException(failure);
+		}
+		return rows;
 	}
 
 	@Override
@@ -124,7 +266,7 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 		try {
 			Stat stat = new Stat();
 			byte[] content = zooKeeper.getData(buildRootPath(id), false, stat);
-			return RepositoryConvertUtils.transformBean(content, objectSerializer);
+			return mergeParticipants(RepositoryConvertUtils.transformBean(content, objectSerializer));
 		} catch (Exception e) {
 			throw new TccRuntimeException(e);
 		}
@@ -143,7 +285,7 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 			transactionRecovers = zNodePaths.stream().filter(StringUtils::isNoneBlank).map(zNodePath -> {
 				try {
 					byte[] content = zooKeeper.getData(buildRootPath(zNodePath), false, new Stat());
-					return RepositoryConvertUtils.transformBean(content, objectSerializer);
+					return mergeParticipants(RepositoryConvertUtils.transformBean(content, objectSerializer));
 				} catch (KeeperException | InterruptedException | TccException e) {
 					e.printStackTrace();
 				}
@@ -200,6 +342,40 @@ public class ZookeeperCoordinatorRepository implements CoordinatorRepository {
 		this.objectSerializer = objectSerializer;
 	}
 
+	/**
+	 * appended participants are sequential children of the transaction node
+	 */
+	private List<Op> buildDeleteParticipantOps(final String path) throws KeeperException, InterruptedException {
+		try {
+			return zooKeeper.getChildren(path, false).stream().map(child -> Op.delete(path + "/" + child, -1))
+					.collect(Collectors.toList());
+		} catch (KeeperException.NoNodeException e) {
+			return Collections.emptyList();
+		}
+	}
+
+	private void deleteParticipantNodes(final String path) throws KeeperException, InterruptedException {
+		for (Op op : buildDeleteParticipantOps(path)) {
+			zooKeeper.delete(op.getPath(), -1);
+		}
+	}
+
+	private TccTransaction mergeParticipants(final TccTransaction tccTransaction)
+			throws KeeperException, InterruptedException, TccException {
+		final String path = buildRootPath(tccTransaction.getTransId());
+		final List<String> children = zooKeeper.getChildren(path, false);
+		if (CollectionUtils.isEmpty(children)) {
+			return tccTransaction;
+		}
+		Collections.sort(children);
+		List<byte[]> appendContents = new ArrayList<>(children.size());
+		for (String child : children) {
+			appendContents.add(zooKeeper.getData(path + "/" + child, false, new Stat()));
+		}
+		RepositoryConvertUtils.mergeParticipants(tccTransaction, appendContents, objectSerializer);
+		return tccTransaction;
+	}
+
 	private String buildRootPath(final String id) {
 		return RepositoryPathUtils.buildZookeeperRootPath(rootPathPrefix, id);
 	}
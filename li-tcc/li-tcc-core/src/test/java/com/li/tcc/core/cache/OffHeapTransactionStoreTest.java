@@ -0,0 +1,106 @@
+package com.li.tcc.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.serializer.JavaSerializer;
+import com.li.tcc.common.serializer.ObjectSerializer;
+
+public class OffHeapTransactionStoreTest {
+
+	/**
+	 * segments of the store
+	 */
+	private static final int SEGMENTS = 16;
+
+	private final ObjectSerializer serializer = new JavaSerializer();
+
+	@Test
+	public void putReplacesStoredTransaction() {
+		final OffHeapTransactionStore store = new OffHeapTransactionStore(1 << 20, 60, serializer);
+		store.put(buildTransaction("tx-000001", 1));
+		store.put(buildTransaction("tx-000001", 2));
+		assertEquals(1, store.size());
+		final TccTransaction tccTransaction = store.take("tx-000001");
+		assertNotNull(tccTransaction);
+		assertEquals(2, tccTransaction.getStatus());
+		assertNull(store.take("tx-000001"));
+		assertEquals(0, store.evictionCount());
+	}
+
+	@Test
+	public void fullSegmentEvictsOldestAndCompacts() throws Exception {
+		final List<String> transIds = transIdsOfOneSegment(5);
+		final int length = serializer.serialize(buildTransaction(transIds.get(0), 1)).length;
+		// four transactions fill a segment
+		final OffHeapTransactionStore store = new OffHeapTransactionStore((long) (4 * length + 8) * SEGMENTS, 60,
+				serializer);
+		for (int i = 0; i < 4; i++) {
+			store.put(buildTransaction(transIds.get(i), i));
+		}
+		store.remove(transIds.get(1));
+		// the oldest is dropped, the third and fourth move to the front
+		store.put(buildTransaction(transIds.get(4), 4));
+		assertEquals(1, store.evictionCount());
+		assertEquals(3, store.size());
+		assertNull(store.take(transIds.get(0)));
+		final TccTransaction moved = store.take(transIds.get(3));
+		assertNotNull(moved);
+		assertEquals(transIds.get(3), moved.getTransId());
+		assertEquals(3, moved.getStatus());
+		assertEquals(transIds.get(2), store.take(transIds.get(2)).getTransId());
+		assertEquals(transIds.get(4), store.take(transIds.get(4)).getTransId());
+	}
+
+	@Test
+	public void takeExpiredReturnsNull() throws Exception {
+		final OffHeapTransactionStore store = new OffHeapTransactionStore(1 << 20, 0, serializer);
+		store.put(buildTransaction("tx-000001", 1));
+		Thread.sleep(2);
+		assertNull(store.take("tx-000001"));
+		assertEquals(0, store.size());
+		assertEquals(1, store.evictionCount());
+	}
+
+	@Test
+	public void oversizeContentsAreNotStored() {
+		final OffHeapTransactionStore store = new OffHeapTransactionStore(16 * SEGMENTS, 60, serializer);
+		store.put(buildTransaction("tx-000001", 1));
+		assertEquals(0, store.size());
+		assertEquals(1, store.evictionCount());
+		assertNull(store.take("tx-000001"));
+	}
+
+	private TccTransaction buildTransaction(final String transId, final int status) {
+		final TccTransaction tccTransaction = new TccTransaction(transId);
+		tccTransaction.setStatus(status);
+		return tccTransaction;
+	}
+
+	/**
+	 * transIds of the same length in the segment of the first one
+	 */
+	private List<String> transIdsOfOneSegment(final int count) {
+		final List<String> transIds = new ArrayList<>(count);
+		int segment = -1;
+		for (int i = 0; transIds.size() < count; i++) {
+			final String transId = String.format("tx-%06d", i);
+			final int hash = transId.hashCode();
+			final int index = (hash ^ (hash >>> 16)) & (SEGMENTS - 1);
+			if (segment < 0) {
+				segment = index;
+			}
+			if (index == segment) {
+				transIds.add(transId);
+			}
+		}
+		return transIds;
+	}
+}
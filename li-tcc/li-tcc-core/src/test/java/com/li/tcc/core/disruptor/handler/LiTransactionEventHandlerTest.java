@@ -0,0 +1,253 @@
+package com.li.tcc.core.disruptor.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.li.tcc.common.bean.entity.Participant;
+import com.li.tcc.common.bean.entity.TccTransaction;
+import com.li.tcc.common.config.TccConfig;
+import com.li.tcc.common.enums.EventTypeEnum;
+import com.li.tcc.common.exception.TccRuntimeException;
+import com.li.tcc.core.coordinator.CoordinatorService;
+import com.li.tcc.core.disruptor.event.LiTransactionEvent;
+
+public class LiTransactionEventHandlerTest {
+
+	private RecordingCoordinatorService coordinatorService;
+
+	private LiTransactionEventHandler handler;
+
+	private long sequence;
+
+	@Before
+	public void setUp() {
+		coordinatorService = new RecordingCoordinatorService();
+		handler = new LiTransactionEventHandler(coordinatorService);
+	}
+
+	@Test
+	public void saveAbsorbsLaterEvents() {
+		final Participant participant = new Participant("t1", null, null);
+		final CompletableFuture<Void> saveFuture = new CompletableFuture<>();
+		final CompletableFuture<Void> appendFuture = new CompletableFuture<>();
+		final CompletableFuture<Void> statusFuture = new CompletableFuture<>();
+		onEvent(new TccTransaction("t1"), EventTypeEnum.SAVE, null, saveFuture, false);
+		onEvent(new TccTransaction("t1"), EventTypeEnum.APPEND_PARTICIPANT, participant, appendFuture, false);
+		onEvent(withStatus("t1", 3), EventTypeEnum.UPDATE_STATUS, null, statusFuture, true);
+
+		assertEquals(1, coordinatorService.saves.size());
+		final TccTransaction saved = coordinatorService.saves.get(0).get(0);
+		assertEquals(3, saved.getStatus());
+		assertEquals(Collections.singletonList(participant), saved.getParticipants());
+		assertTrue(coordinatorService.appends.isEmpty());
+		assertTrue(coordinatorService.statusUpdates.isEmpty());
+		assertTrue(coordinatorService.participantUpdates.isEmpty());
+		assertCompleted(saveFuture, appendFuture, statusFuture);
+	}
+
+	@Test
+	public void deleteWinsOverSave() {
+		final CompletableFuture<Void> saveFuture = new CompletableFuture<>();
+		onEvent(new TccTransaction("t1"), EventTypeEnum.SAVE, null, saveFuture, false);
+		onEvent(withStatus("t1", 2), EventTypeEnum.UPDATE_STATUS, null, null, false);
+		onEvent(new TccTransaction("t1"), EventTypeEnum.DELETE, null, null, true);
+
+		assertTrue(coordinatorService.saves.isEmpty());
+		assertTrue(coordinatorService.removes.isEmpty());
+		assertTrue(coordinatorService.statusUpdates.isEmpty());
+		assertCompleted(saveFuture);
+	}
+
+	@Test
+	public void deleteWinsOverUpdates() {
+		final CompletableFuture<Void> statusFuture = new CompletableFuture<>();
+		onEvent(withStatus("t1", 2), EventTypeEnum.UPDATE_STATUS, null, statusFuture, false);
+		onEvent(new TccTransaction("t1"), EventTypeEnum.UPDATE_PARTICIPANT, null, null, false);
+		onEvent(new TccTransaction("t1"), EventTypeEnum.DELETE, null, null, true);
+
+		assertEquals(Collections.singletonList(Collections.singletonList("t1")), coordinatorService.removes);
+		assertTrue(coordinatorService.statusUpdates.isEmpty());
+		assertTrue(coordinatorService.participantUpdates.isEmpty());
+		assertCompleted(statusFuture);
+	}
+
+	@Test
+	public void statusAndParticipantUpdatesKeptTogether() {
+		final TccTransaction tccTransaction = withStatus("t1", 2);
+		tccTransaction.registerParticipant(new Participant("t1", null, null));
+		final Participant appended = new Participant("t2", null, null);
+		final CompletableFuture<Void> participantFuture = new CompletableFuture<>();
+		final CompletableFuture<Void> statusFuture = new CompletableFuture<>();
+		onEvent(tccTransaction, EventTypeEnum.UPDATE_PARTICIPANT, null, participantFuture, false);
+		// covered by the full write of the participants
+		onEvent(tccTransaction, EventTypeEnum.APPEND_PARTICIPANT, new Participant("t1", null, null), null, false);
+		onEvent(tccTransaction, EventTypeEnum.UPDATE_STATUS, null, statusFuture, false);
+		onEvent(new TccTransaction("t2"), EventTypeEnum.APPEND_PARTICIPANT, appended, null, true);
+
+		assertEquals(1, coordinatorService.participantUpdates.size());
+		assertEquals(Collections.singletonList(tccTransaction), coordinatorService.participantUpdates.get(0));
+		assertEquals(1, coordinatorService.statusUpdates.size());
+		assertEquals(Collections.singletonMap("t1", 2), coordinatorService.statusUpdates.get(0));
+		assertEquals(1, coordinatorService.appends.size());
+		assertEquals(Collections.singletonList(appended), coordinatorService.appends.get(0));
+		assertTrue(coordinatorService.saves.isEmpty());
+		assertCompleted(participantFuture, statusFuture);
+	}
+
+	@Test
+	public void failedWriteFailsOnlyItsFutures() {
+		coordinatorService.saveError = new TccRuntimeException("save failed");
+		final CompletableFuture<Void> saveFuture = new CompletableFuture<>();
+		final CompletableFuture<Void> statusFuture = new CompletableFuture<>();
+		onEvent(new TccTransaction("t1"), EventTypeEnum.SAVE, null, saveFuture, false);
+		onEvent(withStatus("t2", 2), EventTypeEnum.UPDATE_STATUS, null, statusFuture, true);
+
+		assertTrue(saveFuture.isCompletedExceptionally());
+		assertCompleted(statusFuture);
+	}
+
+	@Test
+	public void flushErrorFailsFutures() {
+		final CompletableFuture<Void> flushResult = new CompletableFuture<>();
+		coordinatorService.flushResult = flushResult;
+		final CompletableFuture<Void> saveFuture = new CompletableFuture<>();
+		onEvent(new TccTransaction("t1"), EventTypeEnum.SAVE, null, saveFuture, true);
+
+		assertEquals(1, coordinatorService.saves.size());
+		assertFalse(saveFuture.isDone());
+		flushResult.completeExceptionally(new TccRuntimeException("flush failed"));
+		assertTrue(saveFuture.isCompletedExceptionally());
+	}
+
+	private void onEvent(final TccTransaction tccTransaction, final EventTypeEnum type, final Participant participant,
+			final CompletableFuture<Void> future, final boolean endOfBatch) {
+		final LiTransactionEvent event = new LiTransactionEvent();
+		event.setTccTransaction(tccTransaction);
+		event.setType(type.getCode());
+		event.setParticipant(participant);
+		event.setFuture(future);
+		handler.onEvent(event, sequence++, endOfBatch);
+	}
+
+	private TccTransaction withStatus(final String transId, final int status) {
+		final TccTransaction tccTransaction = new TccTransaction(transId);
+		tccTransaction.setStatus(status);
+		return tccTransaction;
+	}
+
+	@SafeVarargs
+	private final void assertCompleted(final CompletableFuture<Void>... futures) {
+		for (CompletableFuture<Void> future : futures) {
+			assertTrue(future.isDone());
+			assertFalse(future.isCompletedExceptionally());
+		}
+	}
+
+	/**
+	 * records the batch calls of the handler
+	 */
+	private static final class RecordingCoordinatorService implements CoordinatorService {
+
+		private final List<List<TccTransaction>> saves = new ArrayList<>();
+
+		private final List<List<String>> removes = new ArrayList<>();
+
+		private final List<List<TccTransaction>> participantUpdates = new ArrayList<>();
+
+		private final List<List<Participant>> appends = new ArrayList<>();
+
+		private final List<Map<String, Integer>> statusUpdates = new ArrayList<>();
+
+		private RuntimeException saveError;
+
+		private CompletableFuture<Void> flushResult = CompletableFuture.completedFuture(null);
+
+		@Override
+		public void start(final TccConfig tccConfig) {
+		}
+
+		@Override
+		public String save(final TccTransaction tccTransaction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public TccTransaction findByTransId(final String transId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean remove(final String id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void update(final TccTransaction tccTransaction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int updateParticipant(final TccTransaction tccTransaction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int appendParticipant(final TccTransaction tccTransaction, final List<Participant> participants) {
+			appends.add(new ArrayList<>(participants));
+			return 1;
+		}
+
+		@Override
+		public int updateStatus(final String id, final Integer status) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int batchSave(final List<TccTransaction> tccTransactions) {
+			saves.add(tccTransactions);
+			if (saveError != null) {
+				throw saveError;
+			}
+			return tccTransactions.size();
+		}
+
+		@Override
+		public int batchRemove(final List<String> ids) {
+			removes.add(ids);
+			return ids.size();
+		}
+
+		@Override
+		public int batchUpdateParticipant(final List<TccTransaction> tccTransactions) {
+			participantUpdates.add(tccTransactions);
+			return tccTransactions.size();
+		}
+
+		@Override
+		public int batchUpdateStatus(final Map<String, Integer> statuses) {
+			statusUpdates.add(statuses);
+			return statuses.size();
+		}
+
+		@Override
+		public CompletableFuture<Void> flush() {
+			return flushResult;
+		}
+
+		@Override
+		public void scan(final int role, final Consumer<TccTransaction> consumer) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -8,7 +8,6 @@ import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.Result;
 import com.alibaba.dubbo.rpc.RpcContext;
 import com.alibaba.dubbo.rpc.RpcException;
-import com.li.tcc.common.annotation.Tcc;
 import com.li.tcc.common.bean.context.TccTransactionContext;
 import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccInvocation;
@@ -18,11 +17,10 @@ import com.li.tcc.common.enums.TccRoleEnum;
 import com.li.tcc.common.exception.TccRuntimeException;
 import com.li.tcc.common.utils.GsonUtils;
 import com.li.tcc.core.concurrent.threadlocal.TransactionContextLocal;
+import com.li.tcc.core.invoker.TccMethodDescriptor;
+import com.li.tcc.core.invoker.TccMethodRegistry;
 import com.li.tcc.core.service.executor.LiTransactionExecutor;
 
-import org.apache.commons.lang3.StringUtils;
-
-import java.lang.reflect.Method;
 import java.util.Objects;
 
 /**
@@ -52,15 +50,8 @@ public class LiTransactionFilter implements Filter {
 		Class clazz = invoker.getInterface();
 		Class[] args = invocation.getParameterTypes();
 		final Object[] arguments = invocation.getArguments();
-		Method method = null;
-		Tcc tcc = null;
-		try {
-			method = clazz.getDeclaredMethod(methodName, args);
-			tcc = method.getAnnotation(Tcc.class);
-		} catch (NoSuchMethodException e) {
-			e.printStackTrace();
-		}
-		if (Objects.nonNull(tcc)) {
+		final TccMethodDescriptor descriptor = TccMethodRegistry.getInstance().get(clazz, methodName, args);
+		if (Objects.nonNull(descriptor)) {
 			try {
 				final TccTransactionContext tccTransactionContext = TransactionContextLocal.getInstance().get();
 				if (Objects.nonNull(tccTransactionContext)) {
@@ -70,7 +61,7 @@ public class LiTransactionFilter implements Filter {
 				final Result result = invoker.invoke(invocation);
 				// 如果result 没有异常就保存
 				if (!result.hasException()) {
-					final Participant participant = buildParticipant(tccTransactionContext, tcc, method, clazz,
+					final Participant participant = buildParticipant(tccTransactionContext, descriptor, clazz,
 							arguments, args);
 					if (tccTransactionContext.getRole() == TccRoleEnum.PROVIDER.getCode()) {
 						liTransactionExecutor.registerByNested(tccTransactionContext.getTransId(), participant);
@@ -89,8 +80,8 @@ public class LiTransactionFilter implements Filter {
 	}
 
 	@SuppressWarnings("rawtypes")
-	private Participant buildParticipant(final TccTransactionContext tccTransactionContext, final Tcc tcc,
-			final Method method, final Class clazz, final Object[] arguments, final Class... args)
+	private Participant buildParticipant(final TccTransactionContext tccTransactionContext,
+			final TccMethodDescriptor descriptor, final Class clazz, final Object[] arguments, final Class... args)
 			throws TccRuntimeException {
 
 		if (Objects.isNull(tccTransactionContext)
@@ -98,16 +89,8 @@ public class LiTransactionFilter implements Filter {
 			return null;
 		}
 		// 获取协调方法
-		String confirmMethodName = tcc.confirmMethod();
-		if (StringUtils.isBlank(confirmMethodName)) {
-			confirmMethodName = method.getName();
-		}
-		String cancelMethodName = tcc.cancelMethod();
-		if (StringUtils.isBlank(cancelMethodName)) {
-			cancelMethodName = method.getName();
-		}
-		TccInvocation confirmInvocation = new TccInvocation(clazz, confirmMethodName, args, arguments);
-		TccInvocation cancelInvocation = new TccInvocation(clazz, cancelMethodName, args, arguments);
+		TccInvocation confirmInvocation = new TccInvocation(clazz, descriptor.getRpcConfirmMethod(), args, arguments);
+		TccInvocation cancelInvocation = new TccInvocation(clazz, descriptor.getRpcCancelMethod(), args, arguments);
 		// 封装调用点
 		return new Participant(tccTransactionContext.getTransId(), confirmInvocation, cancelInvocation);
 	}
@@ -33,6 +33,23 @@ public class LiAutoConfiguration {
 	public LiTransactionBootstrap tccTransactionBootstrap(LiInitService liInitService) {
 		final LiTransactionBootstrap liTransactionBootstrap = new LiTransactionBootstrap(liInitService);
 		liTransactionBootstrap.setBufferSize(tccConfigProperties.getBufferSize());
+		liTransactionBootstrap.setPublishMode(tccConfigProperties.getPublishMode());
+		liTransactionBootstrap.setWaitStrategy(tccConfigProperties.getWaitStrategy());
+		liTransactionBootstrap.setProducerType(tccConfigProperties.getProducerType());
+		liTransactionBootstrap.setDisruptorLanes(tccConfigProperties.getDisruptorLanes());
+		liTransactionBootstrap.setDurability(tccConfigProperties.getDurability());
+		liTransactionBootstrap.setDurabilityTimeout(tccConfigProperties.getDurabilityTimeout());
+		liTransactionBootstrap.setParallelPhase(tccConfigProperties.isParallelPhase());
+		liTransactionBootstrap.setPhaseThreadMax(tccConfigProperties.getPhaseThreadMax());
+		liTransactionBootstrap.setParticipantTimeout(tccConfigProperties.getParticipantTimeout());
+		liTransactionBootstrap.setAsyncConfirm(tccConfigProperties.isAsyncConfirm());
+		liTransactionBootstrap.setConfirmThreadMax(tccConfigProperties.getConfirmThreadMax());
+		liTransactionBootstrap.setCacheMaxWeight(tccConfigProperties.getCacheMaxWeight());
+		liTransactionBootstrap.setOffHeapCache(tccConfigProperties.isOffHeapCache());
+		liTransactionBootstrap.setOffHeapCacheSize(tccConfigProperties.getOffHeapCacheSize());
+		liTransactionBootstrap.setCacheWarmUp(tccConfigProperties.isCacheWarmUp());
+		liTransactionBootstrap.setCacheWarmUpTimeout(tccConfigProperties.getCacheWarmUpTimeout());
+		liTransactionBootstrap.setRecoverPageSize(tccConfigProperties.getRecoverPageSize());
 		liTransactionBootstrap.setRetryMax(tccConfigProperties.getRetryMax());
 		liTransactionBootstrap.setRecoverDelayTime(tccConfigProperties.getRecoverDelayTime());
 		liTransactionBootstrap.setRepositorySuffix(tccConfigProperties.getRepositorySuffix());
@@ -42,6 +59,7 @@ public class LiAutoConfiguration {
 		liTransactionBootstrap.setSerializer(tccConfigProperties.getSerializer());
 		liTransactionBootstrap.setTccFileConfig(tccConfigProperties.getTccFileConfig());
 		liTransactionBootstrap.setTccDbConfig(tccConfigProperties.getTccDbConfig());
+		liTransactionBootstrap.setTccDbConfigs(tccConfigProperties.getTccDbConfigs());
 		liTransactionBootstrap.setTccRedisConfig(tccConfigProperties.getTccRedisConfig());
 		liTransactionBootstrap.setTccZookeeperConfig(tccConfigProperties.getTccZookeeperConfig());
 		liTransactionBootstrap.setTccMongoConfig(tccConfigProperties.getTccMongoConfig());
@@ -2,9 +2,6 @@ package com.li.tcc.springcloud.feign;
 
 import feign.InvocationHandlerFactory.MethodHandler;
 
-import org.apache.commons.lang3.StringUtils;
-
-import com.li.tcc.common.annotation.Tcc;
 import com.li.tcc.common.bean.context.TccTransactionContext;
 import com.li.tcc.common.bean.entity.Participant;
 import com.li.tcc.common.bean.entity.TccInvocation;
@@ -12,6 +9,8 @@ import com.li.tcc.common.enums.TccActionEnum;
 import com.li.tcc.common.enums.TccRoleEnum;
 import com.li.tcc.core.concurrent.threadlocal.TransactionContextLocal;
 import com.li.tcc.core.helper.SpringBeanUtils;
+import com.li.tcc.core.invoker.TccMethodDescriptor;
+import com.li.tcc.core.invoker.TccMethodRegistry;
 import com.li.tcc.core.service.executor.LiTransactionExecutor;
 
 import java.lang.reflect.InvocationHandler;
@@ -33,8 +32,8 @@ public class LiFeignHandler implements InvocationHandler {
 		if (Object.class.equals(method.getDeclaringClass())) {
 			return method.invoke(this, args);
 		} else {
-			final Tcc tcc = method.getAnnotation(Tcc.class);
-			if (Objects.isNull(tcc)) {
+			final TccMethodDescriptor descriptor = TccMethodRegistry.getInstance().get(method);
+			if (Objects.isNull(descriptor)) {
 				return this.handlers.get(method).invoke(args);
 			}
 			try {
@@ -42,7 +41,7 @@ public class LiFeignHandler implements InvocationHandler {
 				final LiTransactionExecutor liTransactionExecutor = SpringBeanUtils.getInstance().getBean(
 						LiTransactionExecutor.class);
 				final Object invoke = this.handlers.get(method).invoke(args);
-				final Participant participant = buildParticipant(tcc, method, args, tccTransactionContext);
+				final Participant participant = buildParticipant(descriptor, method, args, tccTransactionContext);
 				if (tccTransactionContext.getRole() == TccRoleEnum.PROVIDER.getCode()) {
 					liTransactionExecutor.registerByNested(tccTransactionContext.getTransId(), participant);
 				} else {
@@ -56,26 +55,18 @@ public class LiFeignHandler implements InvocationHandler {
 		}
 	}
 
-	private Participant buildParticipant(final Tcc tcc, final Method method, final Object[] args,
+	private Participant buildParticipant(final TccMethodDescriptor descriptor, final Method method, final Object[] args,
 			final TccTransactionContext tccTransactionContext) {
 		if (Objects.isNull(tccTransactionContext)
 				|| (TccActionEnum.TRYING.getCode() != tccTransactionContext.getAction())) {
 			return null;
 		}
 		// 获取协调方法
-		String confirmMethodName = tcc.confirmMethod();
-		if (StringUtils.isBlank(confirmMethodName)) {
-			confirmMethodName = method.getName();
-		}
-		String cancelMethodName = tcc.cancelMethod();
-		if (StringUtils.isBlank(cancelMethodName)) {
-			cancelMethodName = method.getName();
-		}
 		final Class<?> declaringClass = method.getDeclaringClass();
-		TccInvocation confirmInvocation = new TccInvocation(declaringClass, confirmMethodName,
-				method.getParameterTypes(), args);
-		TccInvocation cancelInvocation = new TccInvocation(declaringClass, cancelMethodName,
-				method.getParameterTypes(), args);
+		TccInvocation confirmInvocation = new TccInvocation(declaringClass, descriptor.getRpcConfirmMethod(),
+				descriptor.getParameterTypes(), args);
+		TccInvocation cancelInvocation = new TccInvocation(declaringClass, descriptor.getRpcCancelMethod(),
+				descriptor.getParameterTypes(), args);
 		// 封装调用点
 		return new Participant(tccTransactionContext.getTransId(), confirmInvocation, cancelInvocation);
 	}